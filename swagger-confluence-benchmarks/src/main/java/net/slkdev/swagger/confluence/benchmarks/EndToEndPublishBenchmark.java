@@ -0,0 +1,218 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.benchmarks;
+
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import net.slkdev.swagger.confluence.constants.PaginationMode;
+import net.slkdev.swagger.confluence.http.ConfluenceClientHttpRequestFactory;
+import net.slkdev.swagger.confluence.http.FakeConfluenceServer;
+import net.slkdev.swagger.confluence.service.impl.AsciiDocToXHtmlServiceImpl;
+import net.slkdev.swagger.confluence.service.impl.SwaggerToAsciiDocServiceImpl;
+import net.slkdev.swagger.confluence.service.impl.XHtmlToConfluenceServiceImpl;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Publishes synthetic specs through the real HTTP stack to a local fake
+// Confluence server, reporting pages/sec and client side request latency.
+// Arguments are key=value pairs, e.g. operations=100,1000 latencyMillis=5
+public final class EndToEndPublishBenchmark {
+
+    private static final String SPACE_KEY = "BENCH";
+
+    private EndToEndPublishBenchmark() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final Map<String, String> options = parseOptions(args);
+
+        final String[] operationCounts = option(options, "operations", "100,1000,5000").split(",");
+        final long latencyMillis = Long.parseLong(option(options, "latencyMillis", "0"));
+        final double errorRate = Double.parseDouble(option(options, "errorRate", "0"));
+        final int runs = Integer.parseInt(option(options, "runs", "3"));
+        final int parallelism = Integer.parseInt(option(options, "parallelism", "1"));
+
+        final List<String> report = new ArrayList<>();
+
+        try (final FakeConfluenceServer fakeConfluenceServer = new FakeConfluenceServer(SPACE_KEY)) {
+            fakeConfluenceServer.start();
+            fakeConfluenceServer.setLatencyMillis(latencyMillis);
+            fakeConfluenceServer.setErrorRate(errorRate);
+
+            final LatencyRecorder latencyRecorder = new LatencyRecorder();
+            final RestTemplate restTemplate = new RestTemplate(new ConfluenceClientHttpRequestFactory());
+            restTemplate.setInterceptors(Collections.<ClientHttpRequestInterceptor>singletonList(latencyRecorder));
+
+            final XHtmlToConfluenceServiceImpl xHtmlToConfluenceService = new XHtmlToConfluenceServiceImpl(restTemplate);
+
+            for (final String operationCount : operationCounts) {
+                final String xhtml = convertSpec(operationCount.trim());
+
+                for (final PaginationMode paginationMode : PaginationMode.values()) {
+                    final SwaggerConfluenceConfig swaggerConfluenceConfig = new SwaggerConfluenceConfig();
+                    swaggerConfluenceConfig.setAuthentication("YmVuY2g6YmVuY2g=");
+                    swaggerConfluenceConfig.setConfluenceRestApiUrl(fakeConfluenceServer.getRestApiUrl());
+                    swaggerConfluenceConfig.setPaginationMode(paginationMode);
+                    swaggerConfluenceConfig.setPublishParallelism(parallelism);
+                    swaggerConfluenceConfig.setSpaceKey(SPACE_KEY);
+                    swaggerConfluenceConfig.setTitle("Benchmark API");
+
+                    // The first publish of each run creates every page, the second
+                    // finds and updates them, so both paths are measured
+                    for (int run = 0; run <= runs; run++) {
+                        final boolean warmUp = run == 0;
+
+                        fakeConfluenceServer.reset();
+
+                        final String create = publish(xHtmlToConfluenceService, swaggerConfluenceConfig, xhtml,
+                                fakeConfluenceServer, latencyRecorder, "create", operationCount, paginationMode);
+                        final String update = publish(xHtmlToConfluenceService, swaggerConfluenceConfig, xhtml,
+                                fakeConfluenceServer, latencyRecorder, "update", operationCount, paginationMode);
+
+                        if (!warmUp) {
+                            report.add(create);
+                            report.add(update);
+                        }
+                    }
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.println(String.format("End to End Publish Benchmark (latency %dms, error rate %.3f, parallelism %d)",
+                latencyMillis, errorRate, parallelism));
+
+        for (final String line : report) {
+            System.out.println(line);
+        }
+    }
+
+    private static String publish(final XHtmlToConfluenceServiceImpl xHtmlToConfluenceService,
+                                  final SwaggerConfluenceConfig swaggerConfluenceConfig, final String xhtml,
+                                  final FakeConfluenceServer fakeConfluenceServer,
+                                  final LatencyRecorder latencyRecorder, final String phase,
+                                  final String operationCount, final PaginationMode paginationMode) {
+        latencyRecorder.clear();
+
+        final long startTime = System.nanoTime();
+        xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
+        final double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+
+        // The space root page is not one of the published pages
+        final int pages = fakeConfluenceServer.getPageCount() - 1;
+
+        return String.format("operations=%-6s mode=%-16s phase=%-6s pages=%-6d pages/sec=%-9.1f " +
+                        "requests=%-6d p50=%.2fms p99=%.2fms",
+                operationCount, paginationMode, phase, pages, pages / elapsedSeconds,
+                latencyRecorder.count(), latencyRecorder.percentileMillis(50),
+                latencyRecorder.percentileMillis(99));
+    }
+
+    private static String convertSpec(final String spec) throws IOException {
+        final String asciiDoc = new SwaggerToAsciiDocServiceImpl().convertSwaggerToAsciiDoc(
+                SwaggerSpecFixtures.resolveSchemaPath(spec));
+
+        final AsciiDocToXHtmlServiceImpl asciiDocToXHtmlService = new AsciiDocToXHtmlServiceImpl();
+
+        try {
+            return asciiDocToXHtmlService.convertAsciiDocToXHtml(asciiDoc);
+        } finally {
+            asciiDocToXHtmlService.shutdown();
+        }
+    }
+
+    private static Map<String, String> parseOptions(final String[] args) {
+        final Map<String, String> options = new HashMap<>();
+
+        for (final String arg : args) {
+            final int separator = arg.indexOf('=');
+
+            if (separator < 0) {
+                throw new IllegalArgumentException(String.format("Expected key=value Argument <%s>", arg));
+            }
+
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        return options;
+    }
+
+    private static String option(final Map<String, String> options, final String name, final String defaultValue) {
+        return options.containsKey(name) ? options.get(name) : defaultValue;
+    }
+
+    private static class LatencyRecorder implements ClientHttpRequestInterceptor {
+
+        private final List<Long> latencies = new ArrayList<>();
+
+        @Override
+        public ClientHttpResponse intercept(final HttpRequest request, final byte[] body,
+                                            final ClientHttpRequestExecution execution) throws IOException {
+            final long startTime = System.nanoTime();
+
+            try {
+                return execution.execute(request, body);
+            } finally {
+                final long latency = System.nanoTime() - startTime;
+
+                synchronized (latencies) {
+                    latencies.add(latency);
+                }
+            }
+        }
+
+        private void clear() {
+            synchronized (latencies) {
+                latencies.clear();
+            }
+        }
+
+        private int count() {
+            synchronized (latencies) {
+                return latencies.size();
+            }
+        }
+
+        private double percentileMillis(final int percentile) {
+            final List<Long> sorted;
+
+            synchronized (latencies) {
+                sorted = new ArrayList<>(latencies);
+            }
+
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+
+            Collections.sort(sorted);
+
+            final int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+
+            return sorted.get(Math.max(0, index)) / 1e6;
+        }
+
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.benchmarks;
+
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import net.slkdev.swagger.confluence.constants.PaginationMode;
+import net.slkdev.swagger.confluence.context.SwaggerConfluenceContextConfig;
+import net.slkdev.swagger.confluence.context.SwaggerConfluenceServiceFactory;
+import net.slkdev.swagger.confluence.http.FakeConfluenceServer;
+import net.slkdev.swagger.confluence.service.XHtmlToConfluenceService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+// Measures time to first request in a cold JVM: wiring the service graph, then
+// publishing a pre-rendered page to a local fake Confluence server. Each fork
+// runs a single shot, so class loading and JIT warm-up are part of the result.
+// Both wirings boot Asciidoctor in the background exactly as the CLI does.
+// Run with -PjmhArgs="StartupBenchmark -prof cl" to compare classes loaded.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(10)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class StartupBenchmark {
+
+    private static final String SPACE_KEY = "BENCH";
+
+    private FakeConfluenceServer fakeConfluenceServer;
+
+    private SwaggerConfluenceConfig swaggerConfluenceConfig;
+
+    private String xhtml;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, URISyntaxException {
+        fakeConfluenceServer = new FakeConfluenceServer(SPACE_KEY);
+        fakeConfluenceServer.start();
+
+        swaggerConfluenceConfig = new SwaggerConfluenceConfig();
+        swaggerConfluenceConfig.setAuthentication("YmVuY2g6YmVuY2g=");
+        swaggerConfluenceConfig.setConfluenceRestApiUrl(fakeConfluenceServer.getRestApiUrl());
+        swaggerConfluenceConfig.setPaginationMode(PaginationMode.SINGLE_PAGE);
+        swaggerConfluenceConfig.setSpaceKey(SPACE_KEY);
+        swaggerConfluenceConfig.setTitle("Startup Benchmark API");
+
+        // Rendering the page up front keeps the Asciidoctor boot out of the measurement
+        xhtml = new String(Files.readAllBytes(Paths.get(
+                StartupBenchmark.class.getResource("/swagger-petstore-xhtml-example.html").toURI())),
+                StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fakeConfluenceServer.close();
+    }
+
+    @Benchmark
+    public void springContext() {
+        final AnnotationConfigApplicationContext annotationConfigApplicationContext =
+                new AnnotationConfigApplicationContext(SwaggerConfluenceContextConfig.class);
+
+        try {
+            publish(annotationConfigApplicationContext.getBean(XHtmlToConfluenceService.class));
+        } finally {
+            annotationConfigApplicationContext.close();
+        }
+    }
+
+    @Benchmark
+    public void serviceFactory() {
+        try (final SwaggerConfluenceServiceFactory swaggerConfluenceServiceFactory =
+                     new SwaggerConfluenceServiceFactory()) {
+            publish(swaggerConfluenceServiceFactory.getXHtmlToConfluenceService());
+        }
+    }
+
+    private void publish(final XHtmlToConfluenceService xHtmlToConfluenceService) {
+        xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
+    }
+
+}
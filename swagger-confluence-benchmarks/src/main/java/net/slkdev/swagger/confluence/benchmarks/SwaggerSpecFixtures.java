@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public final class SwaggerSpecFixtures {
+
+    public static final String PETSTORE = "petstore";
+
+    private static final String PETSTORE_SCHEMA_PATH = "/swagger-petstore-example.yaml";
+
+    private static final int OPERATIONS_PER_TAG = 10;
+
+    private SwaggerSpecFixtures() {
+    }
+
+    public static String resolveSchemaPath(final String spec) throws IOException {
+        if (PETSTORE.equals(spec)) {
+            return PETSTORE_SCHEMA_PATH;
+        }
+
+        final File schemaFile = File.createTempFile("swagger-confluence-synthetic-", ".json");
+        schemaFile.deleteOnExit();
+
+        Files.write(schemaFile.toPath(),
+                generateSpec(Integer.parseInt(spec)).getBytes(StandardCharsets.UTF_8));
+
+        return schemaFile.getAbsolutePath();
+    }
+
+    public static String generateSpec(final int operations) {
+        final int tags = Math.max(1, (operations + OPERATIONS_PER_TAG - 1) / OPERATIONS_PER_TAG);
+
+        final StringBuilder spec = new StringBuilder(operations * 1024);
+
+        spec.append("{\"swagger\":\"2.0\",");
+        spec.append("\"info\":{\"title\":\"Synthetic API\",\"version\":\"1.0.0\",");
+        spec.append("\"description\":\"Generated API with ").append(operations).append(" operations\"},");
+        spec.append("\"host\":\"localhost\",\"basePath\":\"/v1\",\"schemes\":[\"http\"],");
+
+        spec.append("\"tags\":[");
+
+        for (int tag = 0; tag < tags; tag++) {
+            if (tag > 0) {
+                spec.append(',');
+            }
+
+            spec.append("{\"name\":\"resource").append(tag).append("\",");
+            spec.append("\"description\":\"Operations on resource ").append(tag).append("\"}");
+        }
+
+        spec.append("],\"paths\":{");
+
+        for (int operation = 0; operation < operations; operation++) {
+            final int tag = operation / OPERATIONS_PER_TAG;
+
+            if (operation > 0) {
+                spec.append(',');
+            }
+
+            spec.append("\"/resource").append(tag).append("/operation").append(operation).append("/{id}\":{");
+            spec.append("\"get\":{\"tags\":[\"resource").append(tag).append("\"],");
+            spec.append("\"summary\":\"Operation ").append(operation).append("\",");
+            spec.append("\"description\":\"Fetches a resource ").append(tag);
+            spec.append(" by id, filtered by the supplied criteria.\",");
+            spec.append("\"operationId\":\"operation").append(operation).append("\",");
+            spec.append("\"produces\":[\"application/json\"],");
+            spec.append("\"parameters\":[");
+            spec.append("{\"name\":\"id\",\"in\":\"path\",\"description\":\"Resource id\",");
+            spec.append("\"required\":true,\"type\":\"integer\",\"format\":\"int64\"},");
+            spec.append("{\"name\":\"filter\",\"in\":\"query\",\"description\":\"Filter criteria\",");
+            spec.append("\"required\":false,\"type\":\"string\"}],");
+            spec.append("\"responses\":{");
+            spec.append("\"200\":{\"description\":\"Successful operation\",");
+            spec.append("\"schema\":{\"$ref\":\"#/definitions/Resource").append(tag).append("\"}},");
+            spec.append("\"404\":{\"description\":\"Resource not found\"}}}}");
+        }
+
+        spec.append("},\"definitions\":{");
+
+        for (int tag = 0; tag < tags; tag++) {
+            if (tag > 0) {
+                spec.append(',');
+            }
+
+            spec.append("\"Resource").append(tag).append("\":{\"type\":\"object\",\"properties\":{");
+            spec.append("\"id\":{\"type\":\"integer\",\"format\":\"int64\"},");
+            spec.append("\"name\":{\"type\":\"string\"},");
+            spec.append("\"tags\":{\"type\":\"array\",\"items\":{\"type\":\"string\"}}}}");
+        }
+
+        spec.append("}}");
+
+        return spec.toString();
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.service.impl;
+
+import net.slkdev.swagger.confluence.benchmarks.SwaggerSpecFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AsciiDocToXHtmlBenchmark {
+
+    @Param({SwaggerSpecFixtures.PETSTORE, "10", "100", "1000", "5000"})
+    public String spec;
+
+    private AsciiDocToXHtmlServiceImpl asciiDocToXHtmlService;
+    private String asciiDoc;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        asciiDoc = new SwaggerToAsciiDocServiceImpl().convertSwaggerToAsciiDoc(
+                SwaggerSpecFixtures.resolveSchemaPath(spec));
+
+        asciiDocToXHtmlService = new AsciiDocToXHtmlServiceImpl();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        asciiDocToXHtmlService.shutdown();
+    }
+
+    @Benchmark
+    public String convertAsciiDocToXHtml() {
+        return asciiDocToXHtmlService.convertAsciiDocToXHtml(asciiDoc);
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.service.impl;
+
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Compares reading a page listing response the way the publisher used to, one
+// JsonPath.read per value, with parsing it once into a ConfluenceResponse. Run
+// with the gc profiler (the jmh task's default) to see allocations per response.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ConfluenceResponseBenchmark {
+
+    @Param({"1", "25", "50"})
+    public int results;
+
+    private String responseJson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final JSONArray resultArray = new JSONArray();
+
+        for (int i = 0; i < results; i++) {
+            final JSONObject version = new JSONObject();
+            version.put("number", 1);
+
+            final JSONObject result = new JSONObject();
+            result.put("id", String.valueOf(1000 + i));
+            result.put("type", "page");
+            result.put("status", "current");
+            result.put("title", String.format("1.%d. Benchmark Operation", i));
+            result.put("version", version);
+            result.put("ancestors", new JSONArray());
+
+            resultArray.add(result);
+        }
+
+        final JSONObject links = new JSONObject();
+        links.put("next", "/rest/api/content/1/descendant/page?start=50&limit=50");
+
+        final JSONObject response = new JSONObject();
+        response.put("results", resultArray);
+        response.put("_links", links);
+
+        responseJson = response.toJSONString();
+    }
+
+    @Benchmark
+    public void readPerValue(final Blackhole blackhole) {
+        final JSONArray resultArray = JsonPath.read(responseJson, "$.results");
+        blackhole.consume(resultArray);
+
+        try {
+            final Object nextLink = JsonPath.read(responseJson, "$._links.next");
+            blackhole.consume(nextLink);
+        } catch (final PathNotFoundException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void parseOnce(final Blackhole blackhole) {
+        final ConfluenceResponse confluenceResponse = ConfluenceResponse.parse(responseJson);
+        blackhole.consume(confluenceResponse.getResults());
+        blackhole.consume(confluenceResponse.hasNextLink());
+    }
+
+}
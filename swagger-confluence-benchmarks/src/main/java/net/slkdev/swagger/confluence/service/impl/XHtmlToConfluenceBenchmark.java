@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.service.impl;
+
+import net.slkdev.swagger.confluence.benchmarks.SwaggerSpecFixtures;
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import net.slkdev.swagger.confluence.model.ConfluenceLink;
+import net.slkdev.swagger.confluence.model.ConfluencePage;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class XHtmlToConfluenceBenchmark {
+
+    @Param({SwaggerSpecFixtures.PETSTORE, "10", "100", "1000", "5000"})
+    public String spec;
+
+    @Param({"single", "category", "individual"})
+    public String paginationMode;
+
+    private XHtmlToConfluenceServiceImpl xHtmlToConfluenceService;
+    private SwaggerConfluenceConfig swaggerConfluenceConfig;
+    private String xhtml;
+    private Map<String, ConfluenceLink> titleLinkMap;
+
+    // Parsed once per trial for the stages that only read it
+    private Document document;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final String asciiDoc = new SwaggerToAsciiDocServiceImpl().convertSwaggerToAsciiDoc(
+                SwaggerSpecFixtures.resolveSchemaPath(spec));
+
+        final AsciiDocToXHtmlServiceImpl asciiDocToXHtmlService = new AsciiDocToXHtmlServiceImpl();
+
+        try {
+            xhtml = asciiDocToXHtmlService.convertAsciiDocToXHtml(asciiDoc);
+        } finally {
+            asciiDocToXHtmlService.shutdown();
+        }
+
+        swaggerConfluenceConfig = new SwaggerConfluenceConfig();
+        swaggerConfluenceConfig.setTitle("Benchmark API");
+        swaggerConfluenceConfig.setPaginationMode(paginationMode);
+
+        // None of the measured stages talk to Confluence
+        xHtmlToConfluenceService = new XHtmlToConfluenceServiceImpl(new RestTemplate());
+
+        document = XHtmlToConfluenceServiceImpl.parseXhtml(xhtml);
+        titleLinkMap = xHtmlToConfluenceService.buildTableOfContentsLinkMap(swaggerConfluenceConfig, document);
+    }
+
+    // Pagination and reformatting both modify the document they are given, so
+    // only they pay for a fresh copy on every invocation
+    @State(Scope.Thread)
+    public static class MutableDocument {
+
+        private Document document;
+
+        @Setup(Level.Invocation)
+        public void parseDocument(final XHtmlToConfluenceBenchmark benchmark) {
+            document = XHtmlToConfluenceServiceImpl.parseXhtml(benchmark.xhtml);
+        }
+
+    }
+
+    @Benchmark
+    public Document parseXhtml() {
+        return XHtmlToConfluenceServiceImpl.parseXhtml(xhtml);
+    }
+
+    @Benchmark
+    public Map<String, ConfluenceLink> buildTableOfContentsLinkMap() {
+        return xHtmlToConfluenceService.buildTableOfContentsLinkMap(swaggerConfluenceConfig, document);
+    }
+
+    @Benchmark
+    public List<ConfluencePage> handlePagination(final MutableDocument mutableDocument) {
+        return XHtmlToConfluenceServiceImpl.handlePagination(swaggerConfluenceConfig, mutableDocument.document,
+                titleLinkMap);
+    }
+
+    @Benchmark
+    public String reformatXHtml(final MutableDocument mutableDocument) {
+        return XHtmlToConfluenceServiceImpl.reformatXHtml(swaggerConfluenceConfig, mutableDocument.document,
+                titleLinkMap);
+    }
+
+}
@@ -16,16 +16,21 @@
 package net.slkdev.swagger.confluence.cli;
 
 import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
-import net.slkdev.swagger.confluence.context.SwaggerConfluenceContextConfig;
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceSpec;
+import net.slkdev.swagger.confluence.context.SwaggerConfluenceServiceFactory;
 import net.slkdev.swagger.confluence.exception.SwaggerConfluenceConfigurationException;
 import net.slkdev.swagger.confluence.service.SwaggerToConfluenceService;
 import org.apache.commons.cli.*;
-import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.File;
 
 import static org.apache.commons.lang3.Validate.notNull;
 
 public class SwaggerConfluence {
 
+    private static final String[] DAEMON_OPTIONS = {"daemon", "stop-daemon"};
+    private static final int MAX_PORT = 65535;
+
     private SwaggerToConfluenceService swaggerToConfluenceService;
 
     public SwaggerConfluence(final SwaggerToConfluenceService swaggerToConfluenceService){
@@ -34,19 +39,53 @@ public class SwaggerConfluence {
     }
 
     public static void main(final String[] args){
-        final SwaggerToConfluenceService swaggerToConfluenceService = bootSwaggerConfluence();
-        final SwaggerConfluence swaggerConfluence = new SwaggerConfluence(swaggerToConfluenceService);
-        swaggerConfluence.runCLI(args);
-    }
+        final CommandLine commandLine = parseCommandLineOptions(buildOptions(), args);
+        final int daemonPort = parseIntValue("daemon-port", commandLine.getOptionValue("daemon-port",
+                String.valueOf(SwaggerConfluenceDaemon.DEFAULT_PORT)), 1, MAX_PORT);
+
+        // Client invocations hand the job to an already warmed daemon, so they
+        // never boot Spring or Asciidoctor themselves
+        if(commandLine.hasOption("client")){
+            System.out.println(SwaggerConfluenceClient.submit(daemonPort, new File("."), args));
+            return;
+        }
+
+        if(commandLine.hasOption("stop-daemon")){
+            System.out.println(SwaggerConfluenceClient.stop(daemonPort));
+            return;
+        }
+
+        // The services are kept for the whole run so that the shared Asciidoctor
+        // engine is only booted once and torn down cleanly when we are finished.
+        // The connection pool is sized once for the run, or for every job a
+        // daemon accepts.
+        final int maxConnectionsPerRoute = parseIntOption(commandLine, "max-connections", "10", 1);
 
-    private static SwaggerToConfluenceService bootSwaggerConfluence(){
-        final AnnotationConfigApplicationContext annotationConfigApplicationContext =
-                new AnnotationConfigApplicationContext(SwaggerConfluenceContextConfig.class);
-        final SwaggerToConfluenceService swaggerToConfluenceService =
-                annotationConfigApplicationContext.getBean(SwaggerToConfluenceService.class);
-        annotationConfigApplicationContext.close();
+        try (final SwaggerConfluenceServiceFactory swaggerConfluenceServiceFactory =
+                     new SwaggerConfluenceServiceFactory(true, maxConnectionsPerRoute)) {
+            final SwaggerToConfluenceService swaggerToConfluenceService =
+                    swaggerConfluenceServiceFactory.getSwaggerToConfluenceService();
 
-        return swaggerToConfluenceService;
+            if(commandLine.hasOption("daemon")){
+                // Closing the daemon removes its token file, which must happen
+                // however the daemon goes away, including when it is killed
+                try (final SwaggerConfluenceDaemon swaggerConfluenceDaemon =
+                             new SwaggerConfluenceDaemon(swaggerToConfluenceService, daemonPort)) {
+                    Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            swaggerConfluenceDaemon.close();
+                        }
+                    }, "swagger-confluence-daemon-shutdown"));
+
+                    swaggerConfluenceDaemon.run();
+                }
+            }
+            else {
+                final SwaggerConfluence swaggerConfluence = new SwaggerConfluence(swaggerToConfluenceService);
+                swaggerConfluence.runCLI(args);
+            }
+        }
     }
 
     public void runCLI(final String[] args){
@@ -64,11 +103,27 @@ public class SwaggerConfluence {
         }
     }
 
+    // Parses the arguments of a job forwarded by a client, which must describe a
+    // publish rather than another daemon invocation
+    static SwaggerConfluenceConfig parseSwaggerConfluenceConfig(final String[] args){
+        final CommandLine commandLine = parseCommandLineOptions(buildOptions(), args);
+
+        for(final String daemonOption : DAEMON_OPTIONS){
+            if(commandLine.hasOption(daemonOption)){
+                throw new SwaggerConfluenceConfigurationException(
+                        String.format("Option <%s> Cannot Be Used in a Daemon Job", daemonOption));
+            }
+        }
+
+        return buildSwaggerConfluenceConfig(commandLine);
+    }
+
     private static Options buildOptions(){
         final Options options = new Options();
 
         options.addOption("a", "ancestor-id", true, "ancestor id to use for the published api doc");
         options.addOption("b", "authentication", true, "base64 encoded user:pass pair for authentication");
+        options.addOption("c", "publish-parallelism", true, "Number of pages to publish concurrently");
         options.addOption("g", "generate-numeric-prefixes", true, "boolean flag to indicate whether to " +
                 "generate numeric prefixes for titles");
         options.addOption("h", "help", false, "Print help message with usage information");
@@ -79,6 +134,40 @@ public class SwaggerConfluence {
         options.addOption("p", "prefix", true, "Prefix to use for article titles to ensure uniqueness");
         options.addOption("t", "title", true, "Base title to use for the root article of the API doc");
         options.addOption("u", "confluence-rest-api-url", true, "URL to the confluence REST API");
+        options.addOption(null, "bulk-page-lookup", true, "boolean flag to indicate whether to look up all " +
+                "existing pages with batched searches before publishing");
+        options.addOption(null, "cache-dir", true, "Directory to cache conversion output in between runs, " +
+                "keyed on the schema and every local file it references; schemas with remote $refs are not cached");
+        options.addOption(null, "client", false, "Submit the publish to a running daemon instead of " +
+                "publishing in this process");
+        options.addOption(null, "connect-timeout", true, "Connect timeout in milliseconds for Confluence REST calls");
+        options.addOption(null, "read-timeout", true, "Read timeout in milliseconds for Confluence REST calls");
+        options.addOption(null, "skip-unchanged", true, "boolean flag to indicate whether to skip " +
+                "updating pages whose content has not changed");
+        options.addOption(null, "daemon", false, "Run as a daemon on localhost that keeps the publishing " +
+                "pipeline warm and accepts jobs from --client invocations by the same user");
+        options.addOption(null, "daemon-port", true, "Localhost port the daemon listens on, defaults to " +
+                SwaggerConfluenceDaemon.DEFAULT_PORT);
+        options.addOption(null, "dry-run", true, "boolean flag to indicate whether to only look up existing " +
+                "pages and report what would be created, updated, moved or deleted, without writing");
+        options.addOption(null, "metrics-report", true, "File to write a JSON report of publish metrics to");
+        options.addOption(null, "plan", true, "File to write the JSON plan of a dry run to");
+        options.addOption(null, "receipt", true, "File to write a JSON receipt of the published pages to, " +
+                "stale pages recorded in the previous receipt are deleted on the next publish");
+        options.addOption(null, "max-connections", true, "Maximum pooled connections to the Confluence server, " +
+                "fixed when a daemon starts");
+        options.addOption(null, "max-requests-per-second", true, "Maximum Confluence REST calls per second, " +
+                "0 for no limit");
+        options.addOption(null, "max-retries", true, "Number of times to retry a throttled or failed " +
+                "Confluence REST call");
+        options.addOption(null, "retry-backoff", true, "Base delay in milliseconds between retries, " +
+                "doubled on each attempt");
+        options.addOption(null, "space-cache-ttl", true, "Seconds to reuse the looked up space home page " +
+                "across runs in the same JVM, 0 to look it up once per run");
+        options.addOption(null, "spec", true, "Spec to publish instead of -s, may be repeated: " +
+                "schema=<path>[,title=<title>][,ancestor-id=<id>][,prefix=<prefix>]");
+        options.addOption(null, "spec-parallelism", true, "Number of specs to convert and publish concurrently");
+        options.addOption(null, "stop-daemon", false, "Stop a running daemon once its current jobs finish");
 
         return options;
     }
@@ -104,12 +193,35 @@ public class SwaggerConfluence {
             ancestorId = null;
         }
         else {
-            ancestorId = Integer.valueOf(ancestorIdString);
+            ancestorId = parseIntValue("ancestor-id", ancestorIdString, 1, Integer.MAX_VALUE);
         }
 
         swaggerConfluenceConfig.setAncestorId(ancestorId);
         swaggerConfluenceConfig.setAuthentication(commandLine.getOptionValue("b"));
+        swaggerConfluenceConfig.setBulkPageLookup(
+                Boolean.valueOf(commandLine.getOptionValue("bulk-page-lookup", "false"))
+        );
+        swaggerConfluenceConfig.setCacheDirectory(commandLine.getOptionValue("cache-dir"));
         swaggerConfluenceConfig.setConfluenceRestApiUrl(commandLine.getOptionValue("u"));
+        swaggerConfluenceConfig.setConnectTimeout(
+                parseIntOption(commandLine, "connect-timeout", "10000", 0)
+        );
+        swaggerConfluenceConfig.setReadTimeout(
+                parseIntOption(commandLine, "read-timeout", "60000", 0)
+        );
+        swaggerConfluenceConfig.setMaxConnectionsPerRoute(
+                parseIntOption(commandLine, "max-connections", "10", 1)
+        );
+        swaggerConfluenceConfig.setMaxRequestsPerSecond(
+                parseDoubleOption(commandLine, "max-requests-per-second", "0")
+        );
+        swaggerConfluenceConfig.setMaxRetries(
+                parseIntOption(commandLine, "max-retries", "3", 0)
+        );
+        swaggerConfluenceConfig.setMetricsReportPath(commandLine.getOptionValue("metrics-report"));
+        swaggerConfluenceConfig.setDryRun(
+                Boolean.valueOf(commandLine.getOptionValue("dry-run", "false"))
+        );
         swaggerConfluenceConfig.setGenerateNumericPrefixes(
                 Boolean.valueOf(commandLine.getOptionValue("g", "true"))
         );
@@ -117,6 +229,15 @@ public class SwaggerConfluence {
                 Boolean.valueOf(commandLine.getOptionValue("i", "true"))
         );
         swaggerConfluenceConfig.setPaginationMode(commandLine.getOptionValue("m","single"));
+        swaggerConfluenceConfig.setPublishParallelism(
+                parseIntOption(commandLine, "publish-parallelism", "1", 1)
+        );
+
+        swaggerConfluenceConfig.setPlanPath(commandLine.getOptionValue("plan"));
+        swaggerConfluenceConfig.setReceiptPath(commandLine.getOptionValue("receipt"));
+        swaggerConfluenceConfig.setRetryBackoffMillis(
+                parseIntOption(commandLine, "retry-backoff", "500", 0)
+        );
 
         final String prefix = commandLine.getOptionValue("p");
 
@@ -124,11 +245,120 @@ public class SwaggerConfluence {
             swaggerConfluenceConfig.setPrefix(prefix);
         }
 
+        swaggerConfluenceConfig.setSkipUnchangedPages(
+                Boolean.valueOf(commandLine.getOptionValue("skip-unchanged", "false"))
+        );
+        swaggerConfluenceConfig.setSpaceCacheTtlSeconds(
+                parseIntOption(commandLine, "space-cache-ttl", "0", 0)
+        );
         swaggerConfluenceConfig.setSpaceKey(commandLine.getOptionValue("k"));
+        swaggerConfluenceConfig.setSpecParallelism(
+                parseIntOption(commandLine, "spec-parallelism", "1", 1)
+        );
+
+        final String[] specs = commandLine.getOptionValues("spec");
+
+        if(specs != null){
+            // Specs replace the single schema rather than add to it, so asking for
+            // both would silently drop one of them
+            if(commandLine.hasOption("s")){
+                throw new SwaggerConfluenceConfigurationException(
+                        "Option <swagger-schema> Cannot Be Used Together with <spec>, Add It as a Spec Instead");
+            }
+
+            for(final String spec : specs){
+                swaggerConfluenceConfig.addSpec(parseSpec(spec));
+            }
+        }
+
         swaggerConfluenceConfig.setSwaggerSchema(commandLine.getOptionValue("s"));
         swaggerConfluenceConfig.setTitle(commandLine.getOptionValue("t"));
 
         return swaggerConfluenceConfig;
     }
 
+    private static SwaggerConfluenceSpec parseSpec(final String specString){
+        final SwaggerConfluenceSpec spec = new SwaggerConfluenceSpec();
+
+        for(final String specEntry : specString.split(",")){
+            final int separatorIndex = specEntry.indexOf('=');
+
+            if(separatorIndex < 0){
+                throw new SwaggerConfluenceConfigurationException(
+                        String.format("Invalid Spec Entry <%s>", specEntry));
+            }
+
+            final String key = specEntry.substring(0, separatorIndex).trim();
+            final String value = specEntry.substring(separatorIndex + 1).trim();
+
+            switch(key){
+                case "schema":
+                    spec.setSwaggerSchema(value);
+                    break;
+                case "title":
+                    spec.setTitle(value);
+                    break;
+                case "ancestor-id":
+                    spec.setAncestorId(parseIntValue("spec ancestor-id", value, 1, Integer.MAX_VALUE));
+                    break;
+                case "prefix":
+                    spec.setPrefix(value);
+                    break;
+                default:
+                    throw new SwaggerConfluenceConfigurationException(
+                            String.format("Unknown Spec Entry <%s>", key));
+            }
+        }
+
+        return spec;
+    }
+
+    // Numeric options are checked here so that a bad value names the option it
+    // was given for, rather than surfacing as a bare NumberFormatException
+    private static int parseIntOption(final CommandLine commandLine, final String option,
+                                      final String defaultValue, final int minimum){
+        return parseIntValue(option, commandLine.getOptionValue(option, defaultValue), minimum, Integer.MAX_VALUE);
+    }
+
+    private static int parseIntValue(final String option, final String value, final int minimum,
+                                     final int maximum){
+        final int parsedValue;
+
+        try {
+            parsedValue = Integer.parseInt(value.trim());
+        } catch (final NumberFormatException e) {
+            throw new SwaggerConfluenceConfigurationException(
+                    String.format("Invalid Value <%s> for Option <%s>, Expected a Whole Number", value, option), e);
+        }
+
+        if(parsedValue < minimum || parsedValue > maximum){
+            throw new SwaggerConfluenceConfigurationException(maximum == Integer.MAX_VALUE ?
+                    String.format("Invalid Value <%s> for Option <%s>, Must Be at Least %d", value, option, minimum) :
+                    String.format("Invalid Value <%s> for Option <%s>, Must Be Between %d and %d", value, option,
+                            minimum, maximum));
+        }
+
+        return parsedValue;
+    }
+
+    private static double parseDoubleOption(final CommandLine commandLine, final String option,
+                                            final String defaultValue){
+        final String value = commandLine.getOptionValue(option, defaultValue);
+        final double parsedValue;
+
+        try {
+            parsedValue = Double.parseDouble(value.trim());
+        } catch (final NumberFormatException e) {
+            throw new SwaggerConfluenceConfigurationException(
+                    String.format("Invalid Value <%s> for Option <%s>, Expected a Number", value, option), e);
+        }
+
+        if(Double.isNaN(parsedValue) || Double.isInfinite(parsedValue) || parsedValue < 0){
+            throw new SwaggerConfluenceConfigurationException(
+                    String.format("Invalid Value <%s> for Option <%s>, Must Be at Least 0", value, option));
+        }
+
+        return parsedValue;
+    }
+
 }
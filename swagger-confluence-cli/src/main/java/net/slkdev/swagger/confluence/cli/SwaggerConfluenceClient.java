@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.cli;
+
+import net.slkdev.swagger.confluence.exception.SwaggerConfluenceInternalSystemException;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+// Hands jobs to a resident SwaggerConfluenceDaemon; deliberately free of Spring so
+// that a client invocation only pays for JVM start up
+public final class SwaggerConfluenceClient {
+
+    private SwaggerConfluenceClient(){
+        // Static utility class
+    }
+
+    public static String submit(final int port, final File workingDirectory, final String[] args){
+        return submit(port, SwaggerConfluenceDaemon.getDefaultTokenDirectory(), workingDirectory, args);
+    }
+
+    static String submit(final int port, final File tokenDirectory, final File workingDirectory,
+                         final String[] args){
+        return exchange(port, tokenDirectory, SwaggerConfluenceDaemon.PUBLISH_COMMAND, workingDirectory, args);
+    }
+
+    public static String stop(final int port){
+        return stop(port, SwaggerConfluenceDaemon.getDefaultTokenDirectory());
+    }
+
+    static String stop(final int port, final File tokenDirectory){
+        return exchange(port, tokenDirectory, SwaggerConfluenceDaemon.STOP_COMMAND, null, null);
+    }
+
+    private static String exchange(final int port, final File tokenDirectory, final String command,
+                                   final File workingDirectory, final String[] args){
+        final File tokenFile = SwaggerConfluenceDaemon.getTokenFile(tokenDirectory, port);
+        final String token;
+
+        try {
+            token = SwaggerConfluenceDaemon.readToken(tokenFile);
+        } catch (final IOException e) {
+            throw new SwaggerConfluenceInternalSystemException(
+                    String.format("Unable to Read Swagger Confluence Daemon Token <%s>", tokenFile), e);
+        }
+
+        final boolean success;
+        final String message;
+
+        try (final Socket socket = new Socket(InetAddress.getByName(null), port)) {
+            final DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+            output.writeUTF(token);
+            output.writeUTF(command);
+
+            if(args != null){
+                output.writeUTF(workingDirectory.getAbsolutePath());
+                output.writeInt(args.length);
+
+                for(final String arg : args){
+                    output.writeUTF(arg);
+                }
+            }
+
+            output.flush();
+
+            final DataInputStream input = new DataInputStream(socket.getInputStream());
+            success = input.readBoolean();
+            message = SwaggerConfluenceDaemon.readMessage(input);
+
+        } catch (final IOException e) {
+            throw new SwaggerConfluenceInternalSystemException(
+                    String.format("Unable to Reach Swagger Confluence Daemon on Port <%d>", port), e);
+        }
+
+        if(!success){
+            throw new SwaggerConfluenceInternalSystemException(
+                    String.format("Swagger Confluence Daemon Job Failed: %s", message));
+        }
+
+        return message;
+    }
+
+}
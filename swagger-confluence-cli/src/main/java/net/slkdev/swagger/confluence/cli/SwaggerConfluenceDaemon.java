@@ -0,0 +1,395 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.cli;
+
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceSpec;
+import net.slkdev.swagger.confluence.exception.SwaggerConfluenceInternalSystemException;
+import net.slkdev.swagger.confluence.service.SwaggerToConfluenceService;
+import net.slkdev.swagger.confluence.util.HashUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+public class SwaggerConfluenceDaemon implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SwaggerConfluenceDaemon.class);
+
+    static final int DEFAULT_PORT = 7713;
+    static final String PUBLISH_COMMAND = "PUBLISH";
+    static final String STOP_COMMAND = "STOP";
+
+    private static final int MAX_JOB_ARGUMENTS = 256;
+    private static final int MAX_MESSAGE_BYTES = 16 * 1024 * 1024;
+    private static final int READ_TIMEOUT_MILLIS = 30000;
+
+    private final SwaggerToConfluenceService swaggerToConfluenceService;
+    private final ServerSocket serverSocket;
+    private final ExecutorService jobExecutor;
+    private final File tokenFile;
+    private final byte[] token;
+
+    public SwaggerConfluenceDaemon(final SwaggerToConfluenceService swaggerToConfluenceService,
+                                   final int port){
+        this(swaggerToConfluenceService, port, getDefaultTokenDirectory());
+    }
+
+    SwaggerConfluenceDaemon(final SwaggerToConfluenceService swaggerToConfluenceService,
+                            final int port, final File tokenDirectory){
+        notNull(swaggerToConfluenceService, "SwaggerToConfluenceService Cannot Be Null!");
+        this.swaggerToConfluenceService = swaggerToConfluenceService;
+
+        // Jobs carry credentials and local paths, so only the loopback interface is
+        // ever listened on
+        try {
+            serverSocket = new ServerSocket(port, 50, InetAddress.getByName(null));
+        } catch (final IOException e) {
+            throw new SwaggerConfluenceInternalSystemException(
+                    String.format("Unable to Bind Swagger Confluence Daemon to Port <%d>", port), e);
+        }
+
+        // Loopback is shared by every user on the machine, so jobs must also present
+        // a secret that only the user who started the daemon can read
+        final String tokenValue = generateToken();
+        tokenFile = getTokenFile(tokenDirectory, getPort());
+        token = tokenValue.getBytes(StandardCharsets.UTF_8);
+
+        try {
+            writeToken(tokenFile, tokenValue);
+        } catch (final IOException | RuntimeException e) {
+            try {
+                serverSocket.close();
+            } catch (final IOException closeException) {
+                LOG.debug("Error Closing Swagger Confluence Daemon Socket!", closeException);
+            }
+
+            throw new SwaggerConfluenceInternalSystemException(
+                    String.format("Unable to Write Swagger Confluence Daemon Token <%s>", tokenFile), e);
+        }
+
+        jobExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                new JobThreadFactory());
+    }
+
+    public int getPort(){
+        return serverSocket.getLocalPort();
+    }
+
+    // Accepts jobs until the daemon is stopped by a client or closed
+    public void run(){
+        LOG.info("Swagger Confluence Daemon Listening on Port <{}>!", getPort());
+
+        while(!serverSocket.isClosed()){
+            final Socket socket;
+
+            try {
+                socket = serverSocket.accept();
+            } catch (final IOException e) {
+                if(!serverSocket.isClosed()){
+                    LOG.warn("Error Accepting Swagger Confluence Daemon Connection!", e);
+                }
+                continue;
+            }
+
+            jobExecutor.execute(new JobHandler(socket));
+        }
+
+        // Let jobs that were already accepted finish before the resident pipeline
+        // is torn down by our caller
+        jobExecutor.shutdown();
+
+        try {
+            jobExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        LOG.info("Swagger Confluence Daemon Stopped!");
+    }
+
+    @Override
+    public void close(){
+        try {
+            serverSocket.close();
+        } catch (final IOException e) {
+            LOG.warn("Error Closing Swagger Confluence Daemon Socket!", e);
+        }
+
+        if(tokenFile.exists() && !tokenFile.delete()){
+            LOG.warn("Unable to Delete Swagger Confluence Daemon Token <{}>!", tokenFile);
+        }
+
+        jobExecutor.shutdown();
+    }
+
+    static File getDefaultTokenDirectory(){
+        return new File(System.getProperty("user.home"), ".swagger-confluence");
+    }
+
+    static File getTokenFile(final File tokenDirectory, final int port){
+        return new File(tokenDirectory, String.format("daemon-%d.token", port));
+    }
+
+    // A response can carry a whole failure message, which may be far beyond
+    // the 64K that writeUTF allows, so it is sent as length prefixed UTF-8
+    static void writeMessage(final DataOutputStream output, final String message) throws IOException {
+        final byte[] messageBytes = message.getBytes(StandardCharsets.UTF_8);
+
+        output.writeInt(messageBytes.length);
+        output.write(messageBytes);
+    }
+
+    static String readMessage(final DataInputStream input) throws IOException {
+        final int messageLength = input.readInt();
+
+        if(messageLength < 0 || messageLength > MAX_MESSAGE_BYTES){
+            throw new IOException(String.format("Invalid Swagger Confluence Daemon Message Length <%d>",
+                    messageLength));
+        }
+
+        final byte[] messageBytes = new byte[messageLength];
+        input.readFully(messageBytes);
+
+        return new String(messageBytes, StandardCharsets.UTF_8);
+    }
+
+    static String readToken(final File tokenFile) throws IOException {
+        return new String(Files.readAllBytes(tokenFile.toPath()), StandardCharsets.UTF_8).trim();
+    }
+
+    private static String generateToken(){
+        final byte[] randomBytes = new byte[32];
+        new SecureRandom().nextBytes(randomBytes);
+
+        return HashUtils.sha256Hex(randomBytes);
+    }
+
+    // The token is created owner only from the start rather than tightened after
+    // the fact, so there is no window in which another user could read it
+    private static void writeToken(final File tokenFile, final String tokenValue) throws IOException {
+        final Path tokenPath = tokenFile.toPath();
+        final Path tokenDirectory = tokenPath.getParent();
+        final boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+
+        if(!Files.isDirectory(tokenDirectory)){
+            if(posix){
+                Files.createDirectories(tokenDirectory, PosixFilePermissions.asFileAttribute(
+                        PosixFilePermissions.fromString("rwx------")));
+            }
+            else {
+                Files.createDirectories(tokenDirectory);
+            }
+        }
+
+        Files.deleteIfExists(tokenPath);
+
+        if(posix){
+            Files.createFile(tokenPath, PosixFilePermissions.asFileAttribute(
+                    PosixFilePermissions.fromString("rw-------")));
+        }
+        else {
+            Files.createFile(tokenPath);
+            tokenFile.setReadable(false, false);
+            tokenFile.setWritable(false, false);
+            tokenFile.setReadable(true, true);
+            tokenFile.setWritable(true, true);
+        }
+
+        Files.write(tokenPath, tokenValue.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String runJob(final String workingDirectory, final String[] args){
+        final SwaggerConfluenceConfig swaggerConfluenceConfig =
+                SwaggerConfluence.parseSwaggerConfluenceConfig(args);
+
+        resolvePaths(swaggerConfluenceConfig, new File(workingDirectory));
+        swaggerToConfluenceService.convertSwaggerToConfluence(swaggerConfluenceConfig);
+
+        return "Publish Complete!";
+    }
+
+    // Relative paths are given relative to the client's working directory rather
+    // than the daemon's, so they are anchored there before the job runs
+    static void resolvePaths(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                             final File workingDirectory){
+        swaggerConfluenceConfig.setSwaggerSchema(
+                resolveSchemaPath(swaggerConfluenceConfig.getSwaggerSchema(), workingDirectory));
+
+        for(final SwaggerConfluenceSpec spec : swaggerConfluenceConfig.getSpecs()){
+            spec.setSwaggerSchema(resolveSchemaPath(spec.getSwaggerSchema(), workingDirectory));
+        }
+
+        swaggerConfluenceConfig.setCacheDirectory(
+                resolveOutputPath(swaggerConfluenceConfig.getCacheDirectory(), workingDirectory));
+        swaggerConfluenceConfig.setMetricsReportPath(
+                resolveOutputPath(swaggerConfluenceConfig.getMetricsReportPath(), workingDirectory));
+        swaggerConfluenceConfig.setPlanPath(
+                resolveOutputPath(swaggerConfluenceConfig.getPlanPath(), workingDirectory));
+        swaggerConfluenceConfig.setReceiptPath(
+                resolveOutputPath(swaggerConfluenceConfig.getReceiptPath(), workingDirectory));
+    }
+
+    // Schemas that do not exist relative to the client are left alone so that
+    // classpath locations keep working
+    private static String resolveSchemaPath(final String path, final File workingDirectory){
+        if(path == null || new File(path).isAbsolute()){
+            return path;
+        }
+
+        final File resolvedFile = new File(workingDirectory, path);
+
+        return resolvedFile.exists() ? resolvedFile.getPath() : path;
+    }
+
+    private static String resolveOutputPath(final String path, final File workingDirectory){
+        if(path == null || new File(path).isAbsolute()){
+            return path;
+        }
+
+        return new File(workingDirectory, path).getPath();
+    }
+
+    private class JobHandler implements Runnable {
+
+        private final Socket socket;
+
+        JobHandler(final Socket socket){
+            this.socket = socket;
+        }
+
+        @Override
+        public void run(){
+            try {
+                // Only reading the request is timed; a publish may legitimately run
+                // for much longer before the response is written
+                socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+
+                final DataInputStream input = new DataInputStream(socket.getInputStream());
+                final DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+                final byte[] presentedToken = input.readUTF().getBytes(StandardCharsets.UTF_8);
+
+                if(!MessageDigest.isEqual(token, presentedToken)){
+                    LOG.warn("Rejected Swagger Confluence Client With an Invalid Token!");
+                    writeResponse(output, false, "Invalid Swagger Confluence Daemon Token");
+                    return;
+                }
+
+                final String command = input.readUTF();
+
+                if(STOP_COMMAND.equals(command)){
+                    writeResponse(output, true, "Swagger Confluence Daemon Stopping!");
+                    close();
+                }
+                else if(PUBLISH_COMMAND.equals(command)){
+                    final String workingDirectory = input.readUTF();
+                    final int argumentCount = input.readInt();
+
+                    if(argumentCount < 0 || argumentCount > MAX_JOB_ARGUMENTS){
+                        writeResponse(output, false,
+                                String.format("Invalid Daemon Job Argument Count <%d>", argumentCount));
+                        return;
+                    }
+
+                    final String[] args = new String[argumentCount];
+
+                    for(int i = 0; i < args.length; i++){
+                        args[i] = input.readUTF();
+                    }
+
+                    handlePublish(output, workingDirectory, args);
+                }
+                else {
+                    writeResponse(output, false, String.format("Unknown Daemon Command <%s>", command));
+                }
+            } catch (final IOException e) {
+                LOG.warn("Error Communicating with Swagger Confluence Client!", e);
+            } finally {
+                try {
+                    socket.close();
+                } catch (final IOException e) {
+                    LOG.debug("Error Closing Swagger Confluence Client Socket!", e);
+                }
+            }
+        }
+
+        private void handlePublish(final DataOutputStream output, final String workingDirectory,
+                                   final String[] args) throws IOException {
+            final long startTime = System.nanoTime();
+            final String message;
+            boolean success = false;
+
+            try {
+                message = runJob(workingDirectory, args);
+                success = true;
+            } catch (final RuntimeException e) {
+                LOG.error("Publish Job Failed!", e);
+                writeResponse(output, false, String.valueOf(e.getMessage()));
+                return;
+            } finally {
+                LOG.info("Publish Job {} in {}ms!", success ? "Completed" : "Failed",
+                        (System.nanoTime() - startTime) / 1000000L);
+            }
+
+            writeResponse(output, true, message);
+        }
+
+        private void writeResponse(final DataOutputStream output, final boolean success,
+                                   final String message) throws IOException {
+            output.writeBoolean(success);
+            writeMessage(output, message);
+            output.flush();
+        }
+
+    }
+
+    private static class JobThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable,
+                    String.format("swagger-confluence-daemon-%d", threadCount.getAndIncrement()));
+            thread.setDaemon(true);
+
+            return thread;
+        }
+
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.cli;
+
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import net.slkdev.swagger.confluence.exception.SwaggerConfluenceConfigurationException;
+import net.slkdev.swagger.confluence.exception.SwaggerConfluenceInternalSystemException;
+import net.slkdev.swagger.confluence.service.SwaggerToConfluenceService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SwaggerConfluenceDaemonTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private SwaggerToConfluenceService swaggerToConfluenceService;
+
+    private SwaggerConfluenceDaemon swaggerConfluenceDaemon;
+
+    private Thread daemonThread;
+
+    private File tokenDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        tokenDirectory = temporaryFolder.newFolder("tokens");
+        swaggerConfluenceDaemon = new SwaggerConfluenceDaemon(swaggerToConfluenceService, 0, tokenDirectory);
+
+        daemonThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                swaggerConfluenceDaemon.run();
+            }
+        });
+        daemonThread.start();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        swaggerConfluenceDaemon.close();
+        daemonThread.join(5000L);
+    }
+
+    @Test
+    public void testSubmittedJobIsPublishedRelativeToClientDirectory() throws Exception {
+        final File workingDirectory = temporaryFolder.getRoot();
+        final File schemaFile = temporaryFolder.newFile("swagger.yaml");
+
+        final String[] args = new String[]{
+                "--client", "-k", "DOC", "-s", "swagger.yaml", "-t", "Swagger Pet Store",
+                "--receipt", "build/receipt.json"
+        };
+
+        final String message = SwaggerConfluenceClient.submit(
+                swaggerConfluenceDaemon.getPort(), tokenDirectory, workingDirectory, args);
+
+        assertEquals("Unexpected Daemon Response!", "Publish Complete!", message);
+
+        final ArgumentCaptor<SwaggerConfluenceConfig> swaggerConfluenceConfigArgumentCaptor =
+                ArgumentCaptor.forClass(SwaggerConfluenceConfig.class);
+
+        verify(swaggerToConfluenceService).convertSwaggerToConfluence(
+                swaggerConfluenceConfigArgumentCaptor.capture());
+
+        final SwaggerConfluenceConfig swaggerConfluenceConfig =
+                swaggerConfluenceConfigArgumentCaptor.getValue();
+
+        assertEquals("Space Key Parsed Incorrectly!", "DOC", swaggerConfluenceConfig.getSpaceKey());
+        assertEquals("Title Parsed Incorrectly!", "Swagger Pet Store", swaggerConfluenceConfig.getTitle());
+        assertEquals("Schema Not Resolved Against Client Directory!", schemaFile.getPath(),
+                swaggerConfluenceConfig.getSwaggerSchema());
+        assertEquals("Receipt Not Resolved Against Client Directory!",
+                new File(workingDirectory, "build/receipt.json").getPath(),
+                swaggerConfluenceConfig.getReceiptPath());
+    }
+
+    @Test
+    public void testFailedJobIsReportedToClient(){
+        doThrow(new SwaggerConfluenceConfigurationException("Space Key Cannot Be Null!"))
+                .when(swaggerToConfluenceService).convertSwaggerToConfluence(any(SwaggerConfluenceConfig.class));
+
+        try {
+            SwaggerConfluenceClient.submit(swaggerConfluenceDaemon.getPort(), tokenDirectory,
+                    temporaryFolder.getRoot(), new String[]{"--client", "-t", "Swagger Pet Store"});
+            fail("Expected Failed Job to Be Reported!");
+        } catch (final SwaggerConfluenceInternalSystemException e) {
+            assertTrue("Job Failure Not Relayed to Client!",
+                    e.getMessage().contains("Space Key Cannot Be Null!"));
+        }
+    }
+
+    @Test
+    public void testLargeFailureMessageIsRelayedToClient(){
+        final StringBuilder failureMessage = new StringBuilder();
+
+        // Well past the 64K limit of a modified UTF-8 string, with multi byte characters
+        while(failureMessage.length() < 100000){
+            failureMessage.append("Schema Error \u00e9 ");
+        }
+
+        doThrow(new SwaggerConfluenceConfigurationException(failureMessage.toString()))
+                .when(swaggerToConfluenceService).convertSwaggerToConfluence(any(SwaggerConfluenceConfig.class));
+
+        try {
+            SwaggerConfluenceClient.submit(swaggerConfluenceDaemon.getPort(), tokenDirectory,
+                    temporaryFolder.getRoot(), new String[]{"--client", "-t", "Swagger Pet Store"});
+            fail("Expected Failed Job to Be Reported!");
+        } catch (final SwaggerConfluenceInternalSystemException e) {
+            assertTrue("Large Job Failure Not Relayed to Client in Full!",
+                    e.getMessage().endsWith(failureMessage.toString()));
+        }
+    }
+
+    @Test
+    public void testDaemonOptionsAreRejectedInJobs(){
+        try {
+            SwaggerConfluenceClient.submit(swaggerConfluenceDaemon.getPort(), tokenDirectory,
+                    temporaryFolder.getRoot(), new String[]{"--daemon"});
+            fail("Expected Daemon Option to Be Rejected!");
+        } catch (final SwaggerConfluenceInternalSystemException e) {
+            assertTrue("Unexpected Failure Message!", e.getMessage().contains("Option <daemon>"));
+        }
+
+        verifyZeroInteractions(swaggerToConfluenceService);
+    }
+
+    @Test
+    public void testClasspathSchemaIsNotResolved(){
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = new SwaggerConfluenceConfig();
+        swaggerConfluenceConfig.setSwaggerSchema("swagger-petstore-example.yaml");
+
+        SwaggerConfluenceDaemon.resolvePaths(swaggerConfluenceConfig, temporaryFolder.getRoot());
+
+        assertEquals("Classpath Schema Should Be Left Alone!", "swagger-petstore-example.yaml",
+                swaggerConfluenceConfig.getSwaggerSchema());
+    }
+
+    @Test
+    public void testStopShutsDownDaemon() throws InterruptedException {
+        SwaggerConfluenceClient.stop(swaggerConfluenceDaemon.getPort(), tokenDirectory);
+
+        daemonThread.join(5000L);
+
+        assertFalse("Daemon Still Running After Stop!", daemonThread.isAlive());
+        assertFalse("Token Not Removed After Stop!",
+                SwaggerConfluenceDaemon.getTokenFile(tokenDirectory, swaggerConfluenceDaemon.getPort()).exists());
+    }
+
+    @Test
+    public void testTokenIsOnlyReadableByOwner() throws IOException {
+        final Path tokenPath = SwaggerConfluenceDaemon.getTokenFile(
+                tokenDirectory, swaggerConfluenceDaemon.getPort()).toPath();
+
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+
+        assertEquals("Token Should Be Owner Only!", PosixFilePermissions.fromString("rw-------"),
+                Files.getPosixFilePermissions(tokenPath));
+    }
+
+    @Test
+    public void testInvalidTokenIsRejected() throws IOException {
+        final File tokenFile = SwaggerConfluenceDaemon.getTokenFile(tokenDirectory, swaggerConfluenceDaemon.getPort());
+        Files.write(tokenFile.toPath(), "guessed".getBytes(StandardCharsets.UTF_8));
+
+        try {
+            SwaggerConfluenceClient.stop(swaggerConfluenceDaemon.getPort(), tokenDirectory);
+            fail("Expected Invalid Token to Be Rejected!");
+        } catch (final SwaggerConfluenceInternalSystemException e) {
+            assertTrue("Unexpected Failure Message!", e.getMessage().contains("Invalid Swagger Confluence Daemon Token"));
+        }
+
+        assertTrue("Daemon Stopped by an Unauthenticated Client!", daemonThread.isAlive());
+    }
+
+    @Test
+    public void testOversizedArgumentCountIsRejected() throws IOException {
+        final String token = SwaggerConfluenceDaemon.readToken(
+                SwaggerConfluenceDaemon.getTokenFile(tokenDirectory, swaggerConfluenceDaemon.getPort()));
+
+        try (final Socket socket = new Socket(InetAddress.getByName(null), swaggerConfluenceDaemon.getPort())) {
+            final DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+            output.writeUTF(token);
+            output.writeUTF(SwaggerConfluenceDaemon.PUBLISH_COMMAND);
+            output.writeUTF(temporaryFolder.getRoot().getAbsolutePath());
+            output.writeInt(Integer.MAX_VALUE);
+            output.flush();
+
+            final DataInputStream input = new DataInputStream(socket.getInputStream());
+
+            assertFalse("Oversized Argument Count Should Be Rejected!", input.readBoolean());
+            assertTrue("Unexpected Failure Message!",
+                    SwaggerConfluenceDaemon.readMessage(input).contains("Argument Count"));
+        }
+
+        verifyZeroInteractions(swaggerToConfluenceService);
+    }
+
+}
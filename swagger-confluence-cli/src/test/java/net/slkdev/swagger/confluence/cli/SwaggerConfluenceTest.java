@@ -16,7 +16,9 @@
 package net.slkdev.swagger.confluence.cli;
 
 import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceSpec;
 import net.slkdev.swagger.confluence.constants.PaginationMode;
+import net.slkdev.swagger.confluence.exception.SwaggerConfluenceConfigurationException;
 import net.slkdev.swagger.confluence.service.SwaggerToConfluenceService;
 import org.junit.Before;
 import org.junit.Test;
@@ -25,7 +27,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.verify;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -47,7 +54,8 @@ public class SwaggerConfluenceTest {
                 "-b", "c3RhcmxpZ2h0a25pZ2h0OnRyb2wsb2NrNw==",
                 "-g", "false", "-p", "[CLI]", "-i", "false",
                 "-k", "DOC", "-s", "swagger-petstore-example.yaml",
-                "-t", "Swagger Pet Store", "-m", "single"
+                "-t", "Swagger Pet Store", "-m", "single",
+                "-c", "4"
         };
 
         final ArgumentCaptor<SwaggerConfluenceConfig> swaggerConfluenceConfigArgumentCaptor =
@@ -77,6 +85,107 @@ public class SwaggerConfluenceTest {
                 swaggerConfluenceConfig.getTitle());
         assertEquals("Pagination Mode Parsed Incorrectly!", PaginationMode.SINGLE_PAGE,
                 swaggerConfluenceConfig.getPaginationMode());
+        assertEquals("Publish Parallelism Parsed Incorrectly!", Integer.parseInt(args[17]),
+                swaggerConfluenceConfig.getPublishParallelism());
+    }
+
+    @Test
+    public void testRunCLIWithSpecs(){
+        final String[] args = new String[]{
+                "-b", "c3RhcmxpZ2h0a25pZ2h0OnRyb2wsb2NrNw==", "-k", "DOC",
+                "--spec", "schema=pets.yaml,title=Pets,ancestor-id=42,prefix=[PETS]",
+                "--spec", "schema=stores.yaml",
+                "--spec-parallelism", "2"
+        };
+
+        final ArgumentCaptor<SwaggerConfluenceConfig> swaggerConfluenceConfigArgumentCaptor =
+                ArgumentCaptor.forClass(SwaggerConfluenceConfig.class);
+
+        swaggerConfluence.runCLI(args);
+
+        verify(swaggerToConfluenceService).convertSwaggerToConfluence(
+                swaggerConfluenceConfigArgumentCaptor.capture());
+
+        final SwaggerConfluenceConfig swaggerConfluenceConfig =
+                swaggerConfluenceConfigArgumentCaptor.getValue();
+        final List<SwaggerConfluenceSpec> specs = swaggerConfluenceConfig.getSpecs();
+
+        assertEquals("Spec Parallelism Parsed Incorrectly!", 2,
+                swaggerConfluenceConfig.getSpecParallelism());
+        assertEquals("Specs Parsed Incorrectly!", 2, specs.size());
+        assertEquals("Spec Schema Parsed Incorrectly!", "pets.yaml", specs.get(0).getSwaggerSchema());
+        assertEquals("Spec Title Parsed Incorrectly!", "Pets", specs.get(0).getTitle());
+        assertEquals("Spec Ancestor Id Parsed Incorrectly!", Integer.valueOf(42),
+                specs.get(0).getAncestorId());
+        assertEquals("Spec Prefix Parsed Incorrectly!", "[PETS] ", specs.get(0).getPrefix());
+        assertEquals("Spec Schema Parsed Incorrectly!", "stores.yaml", specs.get(1).getSwaggerSchema());
+        assertNull("Spec Title Should Not Be Set!", specs.get(1).getTitle());
+    }
+
+    @Test
+    public void testRunCLIWithDryRun(){
+        final String[] args = new String[]{
+                "-b", "c3RhcmxpZ2h0a25pZ2h0OnRyb2wsb2NrNw==", "-k", "DOC",
+                "-s", "swagger-petstore-example.yaml", "--dry-run", "true", "--plan", "build/plan.json"
+        };
+
+        final ArgumentCaptor<SwaggerConfluenceConfig> swaggerConfluenceConfigArgumentCaptor =
+                ArgumentCaptor.forClass(SwaggerConfluenceConfig.class);
+
+        swaggerConfluence.runCLI(args);
+
+        verify(swaggerToConfluenceService).convertSwaggerToConfluence(
+                swaggerConfluenceConfigArgumentCaptor.capture());
+
+        final SwaggerConfluenceConfig swaggerConfluenceConfig =
+                swaggerConfluenceConfigArgumentCaptor.getValue();
+
+        assertTrue("Dry Run Parsed Incorrectly!", swaggerConfluenceConfig.isDryRun());
+        assertEquals("Plan Path Parsed Incorrectly!", "build/plan.json",
+                swaggerConfluenceConfig.getPlanPath());
+    }
+
+    @Test(expected = SwaggerConfluenceConfigurationException.class)
+    public void testRunCLIWithSchemaAndSpecs(){
+        swaggerConfluence.runCLI(new String[]{
+                "-s", "swagger-petstore-example.yaml", "--spec", "schema=pets.yaml"
+        });
+    }
+
+    @Test(expected = SwaggerConfluenceConfigurationException.class)
+    public void testRunCLIWithInvalidSpec(){
+        swaggerConfluence.runCLI(new String[]{"--spec", "schema=pets.yaml,colour=blue"});
+    }
+
+    @Test
+    public void testRunCLIWithNonNumericOption(){
+        assertRejectedOption("publish-parallelism", "-c", "four");
+    }
+
+    @Test
+    public void testRunCLIWithZeroParallelism(){
+        assertRejectedOption("spec-parallelism", "--spec-parallelism", "0");
+    }
+
+    @Test
+    public void testRunCLIWithNegativeOptions(){
+        assertRejectedOption("read-timeout", "--read-timeout", "-1");
+        assertRejectedOption("max-requests-per-second", "--max-requests-per-second", "-2.5");
+        assertRejectedOption("max-retries", "--max-retries", "-1");
+    }
+
+    @Test
+    public void testRunCLIWithInvalidSpecAncestorId(){
+        assertRejectedOption("ancestor-id", "--spec", "schema=pets.yaml,ancestor-id=pets");
+    }
+
+    private void assertRejectedOption(final String optionName, final String option, final String value){
+        try {
+            swaggerConfluence.runCLI(new String[]{"-k", "DOC", option, value});
+            fail(String.format("Expected Option <%s> to Be Rejected!", optionName));
+        } catch (final SwaggerConfluenceConfigurationException e) {
+            assertTrue("Rejected Option Not Named in the Failure!", e.getMessage().contains(optionName));
+        }
     }
 
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ConversionCache {
+
+    private final int maxEntries;
+    private final long maxCharacters;
+
+    // Access ordered, so iteration starts from the least recently used entry
+    private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalCharacters;
+
+    public ConversionCache(final int maxEntries, final long maxCharacters) {
+        this.maxEntries = maxEntries;
+        this.maxCharacters = maxCharacters;
+    }
+
+    public synchronized String get(final String key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(final String key, final String value) {
+        // A value that can never fit would just flush everything else out
+        if (value.length() > maxCharacters) {
+            return;
+        }
+
+        final String previousValue = entries.put(key, value);
+
+        if (previousValue != null) {
+            totalCharacters -= previousValue.length();
+        }
+
+        totalCharacters += value.length();
+
+        evict();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalCharacters = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getTotalCharacters() {
+        return totalCharacters;
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<String, String>> iterator = entries.entrySet().iterator();
+
+        while ((entries.size() > maxEntries || totalCharacters > maxCharacters) && iterator.hasNext()) {
+            totalCharacters -= iterator.next().getValue().length();
+            iterator.remove();
+        }
+    }
+
+}
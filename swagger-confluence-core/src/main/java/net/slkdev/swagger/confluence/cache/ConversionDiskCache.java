@@ -0,0 +1,189 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.cache;
+
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import net.minidev.json.JSONValue;
+import net.minidev.json.parser.ParseException;
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import net.slkdev.swagger.confluence.constants.PageType;
+import net.slkdev.swagger.confluence.exception.SwaggerConfluenceInternalSystemException;
+import net.slkdev.swagger.confluence.model.ConfluencePage;
+import net.slkdev.swagger.confluence.model.ConfluencePageBuilder;
+import net.slkdev.swagger.confluence.util.HashUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ConversionDiskCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConversionDiskCache.class);
+
+    // Bumped whenever the cached output format or the conversion itself changes,
+    // so that entries written by an older version are never picked up
+    private static final String CACHE_FORMAT_VERSION = "1";
+
+    private static final String ASCII_DOC_EXTENSION = ".adoc";
+    private static final String XHTML_EXTENSION = ".xhtml";
+    private static final String PAGES_EXTENSION = ".pages.json";
+
+    private static final String CONFLUENCE_TITLE = "confluenceTitle";
+    private static final String ORIGINAL_TITLE = "originalTitle";
+    private static final String PAGE_TYPE = "pageType";
+    private static final String XHTML = "xhtml";
+
+    private final Path cacheDirectory;
+
+    public ConversionDiskCache(final File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory.toPath();
+
+        try {
+            Files.createDirectories(this.cacheDirectory);
+        } catch (final IOException e) {
+            throw new SwaggerConfluenceInternalSystemException(
+                    String.format("Unable to Create Cache Directory <%s>", cacheDirectory), e);
+        }
+    }
+
+    public static String buildPagesKey(final String schemaHash,
+                                       final SwaggerConfluenceConfig swaggerConfluenceConfig) {
+        // Only the settings that affect how pages are split, titled and linked matter
+        // here. Cross page links name both the target title and the space key, so
+        // the space is part of the key; where in it the pages are published is not.
+        final StringBuilder keyBuilder = new StringBuilder();
+        keyBuilder.append(CACHE_FORMAT_VERSION).append('\n');
+        keyBuilder.append(schemaHash).append('\n');
+        keyBuilder.append(swaggerConfluenceConfig.getPaginationMode()).append('\n');
+        keyBuilder.append(swaggerConfluenceConfig.getSpaceKey()).append('\n');
+        keyBuilder.append(swaggerConfluenceConfig.getTitle()).append('\n');
+        keyBuilder.append(swaggerConfluenceConfig.getPrefix()).append('\n');
+        keyBuilder.append(swaggerConfluenceConfig.isGenerateNumericPrefixes()).append('\n');
+        keyBuilder.append(swaggerConfluenceConfig.isIncludeTableOfContentsOnSinglePage());
+
+        return HashUtils.sha256Hex(keyBuilder.toString());
+    }
+
+    public String getAsciiDoc(final String schemaHash) {
+        return read(schemaHash + ASCII_DOC_EXTENSION);
+    }
+
+    public void putAsciiDoc(final String schemaHash, final String asciiDoc) {
+        write(schemaHash + ASCII_DOC_EXTENSION, asciiDoc);
+    }
+
+    public String getXHtml(final String schemaHash) {
+        return read(schemaHash + XHTML_EXTENSION);
+    }
+
+    public void putXHtml(final String schemaHash, final String xhtml) {
+        write(schemaHash + XHTML_EXTENSION, xhtml);
+    }
+
+    public List<ConfluencePage> getConfluencePages(final String pagesKey) {
+        final String pagesJson = read(pagesKey + PAGES_EXTENSION);
+
+        if (pagesJson == null) {
+            return null;
+        }
+
+        try {
+            final JSONArray pagesArray = (JSONArray) JSONValue.parseWithException(pagesJson);
+            final List<ConfluencePage> confluencePages = new ArrayList<>(pagesArray.size());
+
+            for (final Object pageObject : pagesArray) {
+                final JSONObject pageJson = (JSONObject) pageObject;
+
+                confluencePages.add(ConfluencePageBuilder.aConfluencePage()
+                        .withPageType(PageType.valueOf((String) pageJson.get(PAGE_TYPE)))
+                        .withOriginalTitle((String) pageJson.get(ORIGINAL_TITLE))
+                        .withConfluenceTitle((String) pageJson.get(CONFLUENCE_TITLE))
+                        .withXhtml((String) pageJson.get(XHTML))
+                        .build());
+            }
+
+            return confluencePages;
+        } catch (final ParseException | ClassCastException | IllegalArgumentException e) {
+            LOG.warn("Ignoring Unreadable Cached Pages <{}>!", pagesKey, e);
+            return null;
+        }
+    }
+
+    public void putConfluencePages(final String pagesKey, final List<ConfluencePage> confluencePages) {
+        final JSONArray pagesArray = new JSONArray();
+
+        for (final ConfluencePage confluencePage : confluencePages) {
+            final JSONObject pageJson = new JSONObject();
+            pageJson.put(PAGE_TYPE, confluencePage.getPageType().name());
+            pageJson.put(ORIGINAL_TITLE, confluencePage.getOriginalTitle());
+            pageJson.put(CONFLUENCE_TITLE, confluencePage.getConfluenceTitle());
+            pageJson.put(XHTML, confluencePage.getXhtml());
+            pagesArray.add(pageJson);
+        }
+
+        write(pagesKey + PAGES_EXTENSION, pagesArray.toJSONString());
+    }
+
+    private String read(final String fileName) {
+        final Path cacheFile = cacheDirectory.resolve(fileName);
+
+        try {
+            return new String(Files.readAllBytes(cacheFile), StandardCharsets.UTF_8);
+        } catch (final NoSuchFileException e) {
+            return null;
+        } catch (final IOException e) {
+            LOG.warn("Unable to Read Cache File <{}>!", cacheFile, e);
+            return null;
+        }
+    }
+
+    private void write(final String fileName, final String content) {
+        final Path cacheFile = cacheDirectory.resolve(fileName);
+
+        // Failing to cache should never fail a publish, so errors are only logged
+        try {
+            // Written alongside then moved into place, so a concurrent or
+            // interrupted build never sees a partially written entry
+            final Path temporaryFile = Files.createTempFile(cacheDirectory, fileName, ".tmp");
+
+            try {
+                Files.write(temporaryFile, content.getBytes(StandardCharsets.UTF_8));
+
+                try {
+                    Files.move(temporaryFile, cacheFile, StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING);
+                } catch (final AtomicMoveNotSupportedException e) {
+                    Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+        } catch (final IOException e) {
+            LOG.warn("Unable to Write Cache File <{}>!", cacheFile, e);
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Remembers the home page id of each Confluence space, which is the parent that
+// orphan prevention falls back to, so that runs published in quick succession
+// from one JVM do not each have to ask the server for it again
+public class SpaceMetadataCache {
+
+    private final Map<String, CachedHomePage> entries = new ConcurrentHashMap<>();
+
+    public Integer getHomePageId(final String key) {
+        final CachedHomePage cachedHomePage = entries.get(key);
+
+        if (cachedHomePage == null) {
+            return null;
+        }
+
+        if (cachedHomePage.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+
+        return cachedHomePage.homePageId;
+    }
+
+    public void putHomePageId(final String key, final Integer homePageId, final long ttlMillis) {
+        if (ttlMillis <= 0) {
+            return;
+        }
+
+        entries.put(key, new CachedHomePage(homePageId, System.currentTimeMillis() + ttlMillis));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class CachedHomePage {
+
+        private final Integer homePageId;
+        private final long expiresAt;
+
+        private CachedHomePage(final Integer homePageId, final long expiresAt) {
+            this.homePageId = homePageId;
+            this.expiresAt = expiresAt;
+        }
+
+    }
+
+}
@@ -19,23 +19,51 @@ import net.slkdev.swagger.confluence.constants.PaginationMode;
 import net.slkdev.swagger.confluence.exception.SwaggerConfluenceConfigurationException;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class SwaggerConfluenceConfig {
 
     private Integer ancestorId;
     private String authentication;
+    private boolean bulkPageLookup;
+    private String cacheDirectory;
     private String confluenceRestApiUrl;
+    private int connectTimeout;
+    private boolean dryRun;
     private boolean generateNumericPrefixes;
     private boolean includeTableOfContentsOnSinglePage;
+    private int maxConnectionsPerRoute;
+    private double maxRequestsPerSecond;
+    private int maxRetries;
+    private String metricsReportPath;
     private PaginationMode paginationMode;
+    private String planPath;
     private String prefix;
+    private int publishParallelism;
+    private int readTimeout;
+    private String receiptPath;
+    private int retryBackoffMillis;
+    private boolean skipUnchangedPages;
+    private int spaceCacheTtlSeconds;
     private String spaceKey;
+    private int specParallelism;
+    private List<SwaggerConfluenceSpec> specs;
     private String swaggerSchema;
     private String title;
 
     public SwaggerConfluenceConfig() {
+        connectTimeout = 10000;
         generateNumericPrefixes = true;
         includeTableOfContentsOnSinglePage = true;
+        maxConnectionsPerRoute = 10;
+        maxRetries = 3;
         paginationMode = PaginationMode.SINGLE_PAGE;
+        publishParallelism = 1;
+        readTimeout = 60000;
+        retryBackoffMillis = 500;
+        specParallelism = 1;
+        specs = new ArrayList<>();
     }
 
     public Integer getAncestorId() {
@@ -54,6 +82,22 @@ public class SwaggerConfluenceConfig {
         this.authentication = authentication;
     }
 
+    public boolean isBulkPageLookup() {
+        return bulkPageLookup;
+    }
+
+    public void setBulkPageLookup(final boolean bulkPageLookup) {
+        this.bulkPageLookup = bulkPageLookup;
+    }
+
+    public String getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    public void setCacheDirectory(final String cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
     public String getConfluenceRestApiUrl() {
         return confluenceRestApiUrl;
     }
@@ -62,6 +106,28 @@ public class SwaggerConfluenceConfig {
         this.confluenceRestApiUrl = confluenceRestApiUrl;
     }
 
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(final int connectTimeout) {
+        if (connectTimeout < 0) {
+            throw new SwaggerConfluenceConfigurationException(
+                    String.format("Invalid Connect Timeout <%d>", connectTimeout)
+            );
+        }
+
+        this.connectTimeout = connectTimeout;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public void setDryRun(final boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
     public boolean isGenerateNumericPrefixes() {
         return generateNumericPrefixes;
     }
@@ -78,6 +144,57 @@ public class SwaggerConfluenceConfig {
         this.includeTableOfContentsOnSinglePage = includeTableOfContentsOnSinglePage;
     }
 
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public void setMaxConnectionsPerRoute(final int maxConnectionsPerRoute) {
+        if (maxConnectionsPerRoute < 1) {
+            throw new SwaggerConfluenceConfigurationException(
+                    String.format("Invalid Max Connections Per Route <%d>", maxConnectionsPerRoute)
+            );
+        }
+
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    public double getMaxRequestsPerSecond() {
+        return maxRequestsPerSecond;
+    }
+
+    // Zero leaves requests unthrottled until Confluence itself asks us to slow down
+    public void setMaxRequestsPerSecond(final double maxRequestsPerSecond) {
+        if (maxRequestsPerSecond < 0) {
+            throw new SwaggerConfluenceConfigurationException(
+                    String.format("Invalid Max Requests Per Second <%s>", maxRequestsPerSecond)
+            );
+        }
+
+        this.maxRequestsPerSecond = maxRequestsPerSecond;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(final int maxRetries) {
+        if (maxRetries < 0) {
+            throw new SwaggerConfluenceConfigurationException(
+                    String.format("Invalid Max Retries <%d>", maxRetries)
+            );
+        }
+
+        this.maxRetries = maxRetries;
+    }
+
+    public String getMetricsReportPath() {
+        return metricsReportPath;
+    }
+
+    public void setMetricsReportPath(final String metricsReportPath) {
+        this.metricsReportPath = metricsReportPath;
+    }
+
     public PaginationMode getPaginationMode() {
         return paginationMode;
     }
@@ -104,6 +221,14 @@ public class SwaggerConfluenceConfig {
         }
     }
 
+    public String getPlanPath() {
+        return planPath;
+    }
+
+    public void setPlanPath(final String planPath) {
+        this.planPath = planPath;
+    }
+
     public String getPrefix() {
         return prefix;
     }
@@ -118,6 +243,80 @@ public class SwaggerConfluenceConfig {
         }
     }
 
+    public int getPublishParallelism() {
+        return publishParallelism;
+    }
+
+    public void setPublishParallelism(final int publishParallelism) {
+        if (publishParallelism < 1) {
+            throw new SwaggerConfluenceConfigurationException(
+                    String.format("Invalid Publish Parallelism <%d>", publishParallelism)
+            );
+        }
+
+        this.publishParallelism = publishParallelism;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(final int readTimeout) {
+        if (readTimeout < 0) {
+            throw new SwaggerConfluenceConfigurationException(
+                    String.format("Invalid Read Timeout <%d>", readTimeout)
+            );
+        }
+
+        this.readTimeout = readTimeout;
+    }
+
+    public String getReceiptPath() {
+        return receiptPath;
+    }
+
+    public void setReceiptPath(final String receiptPath) {
+        this.receiptPath = receiptPath;
+    }
+
+    public int getRetryBackoffMillis() {
+        return retryBackoffMillis;
+    }
+
+    public void setRetryBackoffMillis(final int retryBackoffMillis) {
+        if (retryBackoffMillis < 0) {
+            throw new SwaggerConfluenceConfigurationException(
+                    String.format("Invalid Retry Backoff <%d>", retryBackoffMillis)
+            );
+        }
+
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+
+    public boolean isSkipUnchangedPages() {
+        return skipUnchangedPages;
+    }
+
+    public void setSkipUnchangedPages(final boolean skipUnchangedPages) {
+        this.skipUnchangedPages = skipUnchangedPages;
+    }
+
+    public int getSpaceCacheTtlSeconds() {
+        return spaceCacheTtlSeconds;
+    }
+
+    // Zero keeps the space lookup to the current run, while a positive value
+    // lets later runs in the same JVM reuse it until it expires
+    public void setSpaceCacheTtlSeconds(final int spaceCacheTtlSeconds) {
+        if (spaceCacheTtlSeconds < 0) {
+            throw new SwaggerConfluenceConfigurationException(
+                    String.format("Invalid Space Cache TTL <%d>", spaceCacheTtlSeconds)
+            );
+        }
+
+        this.spaceCacheTtlSeconds = spaceCacheTtlSeconds;
+    }
+
     public String getSpaceKey() {
         return spaceKey;
     }
@@ -126,6 +325,82 @@ public class SwaggerConfluenceConfig {
         this.spaceKey = spaceKey;
     }
 
+    public int getSpecParallelism() {
+        return specParallelism;
+    }
+
+    public void setSpecParallelism(final int specParallelism) {
+        if (specParallelism < 1) {
+            throw new SwaggerConfluenceConfigurationException(
+                    String.format("Invalid Spec Parallelism <%d>", specParallelism)
+            );
+        }
+
+        this.specParallelism = specParallelism;
+    }
+
+    public List<SwaggerConfluenceSpec> getSpecs() {
+        return specs;
+    }
+
+    public void setSpecs(final List<SwaggerConfluenceSpec> specs) {
+        this.specs = specs == null ? new ArrayList<SwaggerConfluenceSpec>() : specs;
+    }
+
+    public void addSpec(final SwaggerConfluenceSpec spec) {
+        specs.add(spec);
+    }
+
+    // A shallow copy that can be adjusted for one publish, e.g. to resolve its
+    // report paths, without touching the config it was taken from
+    public SwaggerConfluenceConfig copy() {
+        final SwaggerConfluenceConfig config = new SwaggerConfluenceConfig();
+
+        config.ancestorId = ancestorId;
+        config.authentication = authentication;
+        config.bulkPageLookup = bulkPageLookup;
+        config.cacheDirectory = cacheDirectory;
+        config.confluenceRestApiUrl = confluenceRestApiUrl;
+        config.connectTimeout = connectTimeout;
+        config.dryRun = dryRun;
+        config.generateNumericPrefixes = generateNumericPrefixes;
+        config.includeTableOfContentsOnSinglePage = includeTableOfContentsOnSinglePage;
+        config.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        config.maxRequestsPerSecond = maxRequestsPerSecond;
+        config.maxRetries = maxRetries;
+        config.metricsReportPath = metricsReportPath;
+        config.paginationMode = paginationMode;
+        config.planPath = planPath;
+        config.prefix = prefix;
+        config.publishParallelism = publishParallelism;
+        config.readTimeout = readTimeout;
+        config.receiptPath = receiptPath;
+        config.retryBackoffMillis = retryBackoffMillis;
+        config.skipUnchangedPages = skipUnchangedPages;
+        config.spaceCacheTtlSeconds = spaceCacheTtlSeconds;
+        config.spaceKey = spaceKey;
+        config.specParallelism = specParallelism;
+        config.specs = new ArrayList<>(specs);
+        config.swaggerSchema = swaggerSchema;
+        config.title = title;
+
+        return config;
+    }
+
+    // Builds the standalone config used to publish a single spec of a multi-spec
+    // run, with the spec's own settings taking precedence over the shared ones
+    public SwaggerConfluenceConfig forSpec(final SwaggerConfluenceSpec spec) {
+        final SwaggerConfluenceConfig specConfig = copy();
+
+        specConfig.ancestorId = spec.getAncestorId() == null ? ancestorId : spec.getAncestorId();
+        specConfig.prefix = spec.getPrefix() == null ? prefix : spec.getPrefix();
+        specConfig.specs = new ArrayList<>();
+        specConfig.swaggerSchema = spec.getSwaggerSchema();
+        specConfig.title = spec.getTitle() == null ? title : spec.getTitle();
+
+        return specConfig;
+    }
+
     public String getSwaggerSchema() {
         return swaggerSchema;
     }
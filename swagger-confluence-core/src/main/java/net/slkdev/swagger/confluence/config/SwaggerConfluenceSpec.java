@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.config;
+
+import org.apache.commons.lang3.StringUtils;
+
+// One Swagger schema to publish as part of a multi-spec run. Anything left
+// unset falls back to the value on the enclosing SwaggerConfluenceConfig.
+public class SwaggerConfluenceSpec {
+
+    private Integer ancestorId;
+    private String prefix;
+    private String swaggerSchema;
+    private String title;
+
+    public Integer getAncestorId() {
+        return ancestorId;
+    }
+
+    public void setAncestorId(final Integer ancestorId) {
+        this.ancestorId = ancestorId;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    // Null leaves the prefix unset, so the enclosing config's prefix applies
+    public void setPrefix(final String prefix) {
+        if (StringUtils.isNotEmpty(prefix) && !prefix.endsWith(" ")) {
+            this.prefix = prefix + ' ';
+        } else {
+            this.prefix = prefix;
+        }
+    }
+
+    public String getSwaggerSchema() {
+        return swaggerSchema;
+    }
+
+    public void setSwaggerSchema(final String swaggerSchema) {
+        this.swaggerSchema = swaggerSchema;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(final String title) {
+        this.title = title;
+    }
+
+}
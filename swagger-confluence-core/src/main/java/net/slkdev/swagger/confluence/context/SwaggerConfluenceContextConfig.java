@@ -15,6 +15,7 @@
  */
 package net.slkdev.swagger.confluence.context;
 
+import net.slkdev.swagger.confluence.http.ConfluenceClientHttpRequestFactory;
 import net.slkdev.swagger.confluence.service.AsciiDocToXHtmlService;
 import net.slkdev.swagger.confluence.service.SwaggerToAsciiDocService;
 import net.slkdev.swagger.confluence.service.SwaggerToConfluenceService;
@@ -35,14 +36,25 @@ public class SwaggerConfluenceContextConfig {
         return new SwaggerToAsciiDocServiceImpl();
     }
 
-    @Bean
+    @Bean(destroyMethod = "shutdown")
     public AsciiDocToXHtmlService asciiDocToXHtmlServiceImpl() {
-        return new AsciiDocToXHtmlServiceImpl();
+        final AsciiDocToXHtmlServiceImpl asciiDocToXHtmlService = new AsciiDocToXHtmlServiceImpl();
+
+        // Boot the Asciidoctor engine in the background while the schema is
+        // still being converted, so the JRuby start-up cost is mostly hidden
+        asciiDocToXHtmlService.warmUp();
+
+        return asciiDocToXHtmlService;
+    }
+
+    @Bean
+    public ConfluenceClientHttpRequestFactory confluenceClientHttpRequestFactory() {
+        return new ConfluenceClientHttpRequestFactory();
     }
 
     @Bean
     public RestTemplate restTemplate() {
-        return new RestTemplate();
+        return new RestTemplate(confluenceClientHttpRequestFactory());
     }
 
     @Bean
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.context;
+
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import net.slkdev.swagger.confluence.http.ConfluenceClientHttpRequestFactory;
+import net.slkdev.swagger.confluence.service.SwaggerToConfluenceService;
+import net.slkdev.swagger.confluence.service.XHtmlToConfluenceService;
+import net.slkdev.swagger.confluence.service.impl.AsciiDocToXHtmlServiceImpl;
+import net.slkdev.swagger.confluence.service.impl.SwaggerToAsciiDocServiceImpl;
+import net.slkdev.swagger.confluence.service.impl.SwaggerToConfluenceServiceImpl;
+import net.slkdev.swagger.confluence.service.impl.XHtmlToConfluenceServiceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.Closeable;
+
+// Wires the same service graph as SwaggerConfluenceContextConfig with plain
+// constructors, so that the CLI and the Gradle plugin do not pay for booting an
+// application context just to connect four services. Spring users should keep
+// importing SwaggerConfluenceContextConfig instead.
+public class SwaggerConfluenceServiceFactory implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SwaggerConfluenceServiceFactory.class);
+
+    private final ConfluenceClientHttpRequestFactory confluenceClientHttpRequestFactory;
+    private final AsciiDocToXHtmlServiceImpl asciiDocToXHtmlService;
+    private final XHtmlToConfluenceService xHtmlToConfluenceService;
+    private final SwaggerToConfluenceService swaggerToConfluenceService;
+
+    public SwaggerConfluenceServiceFactory() {
+        this(true);
+    }
+
+    public SwaggerConfluenceServiceFactory(final boolean warmUpAsciidoctor) {
+        this(warmUpAsciidoctor, new SwaggerConfluenceConfig().getMaxConnectionsPerRoute());
+    }
+
+    // The connection pool is shared by every publish made through this factory,
+    // so its size is fixed here rather than per publish
+    public SwaggerConfluenceServiceFactory(final boolean warmUpAsciidoctor, final int maxConnectionsPerRoute) {
+        asciiDocToXHtmlService = new AsciiDocToXHtmlServiceImpl();
+
+        // As in the Spring configuration, the JRuby start-up cost is mostly hidden
+        // by booting the engine while the schema is still being converted
+        if (warmUpAsciidoctor) {
+            asciiDocToXHtmlService.warmUp();
+        }
+
+        confluenceClientHttpRequestFactory = new ConfluenceClientHttpRequestFactory(maxConnectionsPerRoute);
+        xHtmlToConfluenceService = new XHtmlToConfluenceServiceImpl(
+                new RestTemplate(confluenceClientHttpRequestFactory));
+        swaggerToConfluenceService = new SwaggerToConfluenceServiceImpl(new SwaggerToAsciiDocServiceImpl(),
+                asciiDocToXHtmlService, xHtmlToConfluenceService);
+    }
+
+    public SwaggerToConfluenceService getSwaggerToConfluenceService() {
+        return swaggerToConfluenceService;
+    }
+
+    public XHtmlToConfluenceService getXHtmlToConfluenceService() {
+        return xHtmlToConfluenceService;
+    }
+
+    @Override
+    public void close() {
+        asciiDocToXHtmlService.shutdown();
+
+        // Spring would release the pooled connections as a disposable bean
+        try {
+            confluenceClientHttpRequestFactory.destroy();
+        } catch (final Exception e) {
+            LOG.warn("Error Closing Confluence HTTP Client!", e);
+        }
+    }
+
+}
@@ -17,6 +17,10 @@ package net.slkdev.swagger.confluence.exception;
 
 public class SwaggerConfluenceInternalSystemException extends RuntimeException {
 
+    public SwaggerConfluenceInternalSystemException(String message) {
+        super(message);
+    }
+
     public SwaggerConfluenceInternalSystemException(String message, Throwable cause) {
         super(message, cause);
     }
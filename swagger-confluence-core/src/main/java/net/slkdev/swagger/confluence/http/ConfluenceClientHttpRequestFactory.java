@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.http;
+
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.net.URI;
+
+public class ConfluenceClientHttpRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private static final int DEFAULT_MAX_TOTAL_CONNECTIONS = 20;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    public ConfluenceClientHttpRequestFactory() {
+        this(new SwaggerConfluenceConfig().getMaxConnectionsPerRoute());
+    }
+
+    public ConfluenceClientHttpRequestFactory(final int maxConnectionsPerRoute) {
+        this(new PoolingHttpClientConnectionManager(), maxConnectionsPerRoute);
+    }
+
+    private ConfluenceClientHttpRequestFactory(final PoolingHttpClientConnectionManager connectionManager,
+                                               final int maxConnectionsPerRoute) {
+        // A pooled keep-alive client lets the many publishing calls reuse their
+        // TCP/TLS connections. The builder also enables gzip/deflate decoding
+        // and, through the system properties, honours any configured proxy.
+        super(HttpClientBuilder.create()
+                .setConnectionManager(connectionManager)
+                .useSystemProperties()
+                .build());
+
+        this.connectionManager = connectionManager;
+
+        // The pool is shared by every publish made through this factory, so it is
+        // sized once here rather than by whichever publish happened to start last
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setMaxTotal(Math.max(DEFAULT_MAX_TOTAL_CONNECTIONS, maxConnectionsPerRoute));
+
+        final SwaggerConfluenceConfig defaultConfig = new SwaggerConfluenceConfig();
+        setConnectTimeout(defaultConfig.getConnectTimeout());
+        setReadTimeout(defaultConfig.getReadTimeout());
+    }
+
+    // Gives a publish its own timeouts on top of the shared client and pool.
+    // They are applied to each request it makes, so publishes running at the
+    // same time never see one another's settings.
+    public ClientHttpRequestFactory forConfig(final SwaggerConfluenceConfig swaggerConfluenceConfig) {
+        final RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(swaggerConfluenceConfig.getConnectTimeout())
+                .setSocketTimeout(swaggerConfluenceConfig.getReadTimeout())
+                .build();
+
+        return new PublishRequestFactory(getHttpClient(), requestConfig);
+    }
+
+    PoolingHttpClientConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+
+    private static class PublishRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+        private final RequestConfig requestConfig;
+
+        PublishRequestFactory(final HttpClient httpClient, final RequestConfig requestConfig) {
+            super(httpClient);
+            this.requestConfig = requestConfig;
+        }
+
+        @Override
+        protected HttpUriRequest createHttpUriRequest(final HttpMethod httpMethod, final URI uri) {
+            final HttpUriRequest httpUriRequest = super.createHttpUriRequest(httpMethod, uri);
+
+            if (httpUriRequest instanceof HttpRequestBase) {
+                ((HttpRequestBase) httpUriRequest).setConfig(requestConfig);
+            }
+
+            return httpUriRequest;
+        }
+
+        // The client belongs to the factory this view was made from
+        @Override
+        public void destroy() {
+        }
+
+    }
+
+}
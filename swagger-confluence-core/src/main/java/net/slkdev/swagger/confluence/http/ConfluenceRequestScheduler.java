@@ -0,0 +1,197 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.http;
+
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import net.slkdev.swagger.confluence.exception.SwaggerConfluenceInternalSystemException;
+import net.slkdev.swagger.confluence.metrics.PublishStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+// Every Confluence REST call of a publish run goes through one scheduler, which
+// throttles the calls and retries those that were throttled or failed in passing.
+// Failed attempts are recorded here, successful ones are left to the caller
+// as only it knows whether it needs the response body.
+public class ConfluenceRequestScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConfluenceRequestScheduler.class);
+
+    private static final String RETRY_AFTER = "Retry-After";
+    private static final String RETRY_AFTER_DATE_FORMAT = "EEE, dd MMM yyyy HH:mm:ss zzz";
+
+    private static final long MAX_BACKOFF_MILLIS = 30000L;
+
+    // Only these can safely be sent again after a failure that may have come
+    // after the server acted on the request
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = EnumSet.of(HttpMethod.GET, HttpMethod.HEAD,
+            HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.OPTIONS);
+
+    private final RestTemplate restTemplate;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final int maxRetries;
+    private final long retryBackoffMillis;
+    private final Random random;
+
+    public ConfluenceRequestScheduler(final RestTemplate restTemplate,
+                                      final SwaggerConfluenceConfig swaggerConfluenceConfig) {
+        this(restTemplate, new TokenBucketRateLimiter(swaggerConfluenceConfig.getMaxRequestsPerSecond()),
+                swaggerConfluenceConfig.getMaxRetries(), swaggerConfluenceConfig.getRetryBackoffMillis(),
+                new Random());
+    }
+
+    ConfluenceRequestScheduler(final RestTemplate restTemplate, final TokenBucketRateLimiter rateLimiter,
+                               final int maxRetries, final long retryBackoffMillis, final Random random) {
+        this.restTemplate = restTemplate;
+        this.rateLimiter = rateLimiter;
+        this.maxRetries = maxRetries;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.random = random;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public ResponseEntity<String> exchange(final URI targetUrl, final HttpMethod httpMethod,
+                                           final HttpEntity<String> requestEntity,
+                                           final PublishStatistics publishStatistics) {
+        int attempt = 0;
+
+        while (true) {
+            rateLimiter.acquire();
+
+            try {
+                final ResponseEntity<String> responseEntity =
+                        restTemplate.exchange(targetUrl, httpMethod, requestEntity, String.class);
+
+                rateLimiter.recordSuccess();
+
+                return responseEntity;
+            } catch (final HttpStatusCodeException e) {
+                final HttpStatus statusCode = e.getStatusCode();
+
+                publishStatistics.recordRequest(httpMethod.name(), statusCode.value(),
+                        requestEntity.getBody(), e.getResponseBodyAsString());
+
+                if (attempt >= maxRetries || !isRetryable(httpMethod, statusCode)) {
+                    throw e;
+                }
+
+                final Long retryAfterMillis = parseRetryAfter(e.getResponseHeaders() == null ?
+                        null : e.getResponseHeaders().getFirst(RETRY_AFTER));
+                final long delayMillis = retryAfterMillis == null ? getBackoffMillis(attempt) : retryAfterMillis;
+
+                LOG.warn("Confluence Responded {} to {} {}, Retrying in {}ms!", statusCode.value(),
+                        httpMethod, targetUrl, delayMillis);
+
+                if (isThrottled(statusCode)) {
+                    // Everyone waits out a throttle, not just the thread that was told
+                    rateLimiter.pause(delayMillis);
+                } else {
+                    sleep(delayMillis);
+                }
+            } catch (final ResourceAccessException e) {
+                if (attempt >= maxRetries || !IDEMPOTENT_METHODS.contains(httpMethod)) {
+                    throw e;
+                }
+
+                final long delayMillis = getBackoffMillis(attempt);
+
+                LOG.warn("Error Calling Confluence for {} {}, Retrying in {}ms!", httpMethod, targetUrl,
+                        delayMillis, e);
+
+                sleep(delayMillis);
+            }
+
+            attempt++;
+            publishStatistics.recordRetry(httpMethod.name());
+        }
+    }
+
+    // Exponential backoff with equal jitter, so that threads which failed
+    // together do not all come back at the same moment
+    long getBackoffMillis(final int attempt) {
+        final long exponentialMillis = Math.min(MAX_BACKOFF_MILLIS, retryBackoffMillis << Math.min(attempt, 16));
+        final long halfMillis = exponentialMillis / 2;
+
+        return halfMillis + (long) (random.nextDouble() * (exponentialMillis - halfMillis));
+    }
+
+    static Long parseRetryAfter(final String retryAfter) {
+        if (retryAfter == null || retryAfter.trim().isEmpty()) {
+            return null;
+        }
+
+        final String value = retryAfter.trim();
+
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(0L, Long.parseLong(value)));
+        } catch (final NumberFormatException e) {
+            LOG.debug("Retry-After <{}> Is Not a Number of Seconds", value);
+        }
+
+        final SimpleDateFormat dateFormat = new SimpleDateFormat(RETRY_AFTER_DATE_FORMAT, Locale.US);
+        dateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+        try {
+            return Math.max(0L, dateFormat.parse(value).getTime() - System.currentTimeMillis());
+        } catch (final ParseException e) {
+            LOG.warn("Ignoring Unrecognised Retry-After <{}>!", value);
+            return null;
+        }
+    }
+
+    private static boolean isRetryable(final HttpMethod httpMethod, final HttpStatus statusCode) {
+        // A throttled call was turned away before anything was done with it
+        if (statusCode == HttpStatus.TOO_MANY_REQUESTS) {
+            return true;
+        }
+
+        return IDEMPOTENT_METHODS.contains(httpMethod) && (statusCode == HttpStatus.BAD_GATEWAY ||
+                statusCode == HttpStatus.SERVICE_UNAVAILABLE || statusCode == HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    private static boolean isThrottled(final HttpStatus statusCode) {
+        return statusCode == HttpStatus.TOO_MANY_REQUESTS || statusCode == HttpStatus.SERVICE_UNAVAILABLE;
+    }
+
+    private static void sleep(final long delayMillis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(delayMillis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SwaggerConfluenceInternalSystemException("Interrupted While Waiting to Retry!", e);
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.http;
+
+import net.slkdev.swagger.confluence.exception.SwaggerConfluenceInternalSystemException;
+
+import java.util.concurrent.TimeUnit;
+
+// A token bucket shared by every thread of a publish run. The rate backs off
+// whenever Confluence throttles us and creeps back up as calls succeed, while a
+// throttling pause holds back every thread rather than only the one that hit it.
+public class TokenBucketRateLimiter {
+
+    // The rate is never backed off below this fraction of the configured maximum
+    private static final double MIN_RATE_FRACTION = 0.1;
+
+    // Each successful call wins back this fraction of the configured maximum
+    private static final double RECOVERY_FRACTION = 0.05;
+
+    private final double maxPermitsPerSecond;
+    private final double capacity;
+
+    private double permitsPerSecond;
+    private double tokens;
+    private long lastRefillNanos;
+    private long pausedUntilNanos;
+
+    // A rate of zero or less leaves calls unthrottled apart from pauses
+    public TokenBucketRateLimiter(final double maxPermitsPerSecond) {
+        this.maxPermitsPerSecond = maxPermitsPerSecond;
+        this.capacity = Math.max(1.0, maxPermitsPerSecond);
+        this.permitsPerSecond = maxPermitsPerSecond;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public void acquire() {
+        long waitNanos = reserve();
+
+        while (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SwaggerConfluenceInternalSystemException(
+                        "Interrupted While Waiting to Call Confluence!", e);
+            }
+
+            waitNanos = reserve();
+        }
+    }
+
+    public synchronized void pause(final long delayMillis) {
+        pausedUntilNanos = Math.max(pausedUntilNanos,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis));
+
+        if (isLimited()) {
+            permitsPerSecond = Math.max(permitsPerSecond / 2, maxPermitsPerSecond * MIN_RATE_FRACTION);
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        if (isLimited()) {
+            permitsPerSecond = Math.min(maxPermitsPerSecond,
+                    permitsPerSecond + maxPermitsPerSecond * RECOVERY_FRACTION);
+        }
+    }
+
+    public synchronized double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    // Takes a token when one is available, otherwise returns how long to wait
+    // before trying again
+    private synchronized long reserve() {
+        final long now = System.nanoTime();
+
+        if (now < pausedUntilNanos) {
+            return pausedUntilNanos - now;
+        }
+
+        if (!isLimited()) {
+            return 0;
+        }
+
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * permitsPerSecond / 1e9);
+        lastRefillNanos = now;
+
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+
+        return (long) Math.ceil((1 - tokens) / permitsPerSecond * 1e9);
+    }
+
+    private boolean isLimited() {
+        return maxPermitsPerSecond > 0;
+    }
+
+}
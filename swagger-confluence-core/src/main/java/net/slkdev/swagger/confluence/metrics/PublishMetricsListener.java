@@ -0,0 +1,35 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.metrics;
+
+public interface PublishMetricsListener {
+    void stageCompleted(final PublishStage stage, final long durationMillis);
+
+    void requestCompleted(final String method, final int statusCode, final long bytesSent,
+                          final long bytesReceived);
+
+    void requestRetried(final String method);
+
+    void pageCreated(final String title);
+
+    void pageUpdated(final String title);
+
+    void pageDeleted(final String title);
+
+    void pageMoved(final String title);
+
+    void pageSkipped(final String title);
+}
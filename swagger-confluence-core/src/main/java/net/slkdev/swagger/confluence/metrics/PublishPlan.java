@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.metrics;
+
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import net.slkdev.swagger.confluence.constants.PageAction;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// What a dry run found each page would need, with the size of the content that
+// would be sent for it, so that specs can be checked without writing anything
+public class PublishPlan {
+
+    private final ConcurrentMap<String, JSONObject> pages = new ConcurrentHashMap<>();
+
+    public void recordPage(final String title, final String id, final PageAction pageAction,
+                           final String content) {
+        recordPage(title, id, pageAction, null, content);
+    }
+
+    // The parent is the id of the page it would be filed under, or the title
+    // of a page the same plan would create first, as that has no id yet
+    public void recordPage(final String title, final String id, final PageAction pageAction,
+                           final String parent, final String content) {
+        final JSONObject page = new JSONObject();
+        page.put("title", title);
+        page.put("id", id);
+        page.put("action", pageAction.name());
+
+        if (parent != null) {
+            page.put("parent", parent);
+        }
+
+        page.put("bytes", PublishStatistics.utf8Length(content));
+
+        pages.put(title, page);
+    }
+
+    public int size() {
+        return pages.size();
+    }
+
+    public int getPageCount(final PageAction pageAction) {
+        int count = 0;
+
+        for (final JSONObject page : pages.values()) {
+            if (pageAction.name().equals(page.get("action"))) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    public long getBytes() {
+        long bytes = 0;
+
+        for (final JSONObject page : pages.values()) {
+            bytes += (Long) page.get("bytes");
+        }
+
+        return bytes;
+    }
+
+    public String toJson() {
+        // Sorted by title so the same plan always reads the same way
+        final JSONArray pageArray = new JSONArray();
+
+        for (final Map.Entry<String, JSONObject> page : new TreeMap<>(pages).entrySet()) {
+            pageArray.add(page.getValue());
+        }
+
+        final JSONObject summary = new JSONObject();
+
+        for (final PageAction pageAction : PageAction.values()) {
+            summary.put(pageAction.name(), getPageCount(pageAction));
+        }
+
+        summary.put("bytes", getBytes());
+
+        final JSONObject plan = new JSONObject();
+        plan.put("summary", summary);
+        plan.put("pages", pageArray);
+
+        return plan.toJSONString();
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.metrics;
+
+import com.jayway.jsonpath.JsonPath;
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import net.slkdev.swagger.confluence.constants.PageAction;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// The pages a run left in Confluence, with a hash of the content each one was
+// published with, so that build tools can treat it as the output of a publish
+public class PublishReceipt {
+
+    private final ConcurrentMap<String, JSONObject> pages = new ConcurrentHashMap<>();
+
+    public void recordPage(final String title, final Integer id, final PageAction pageAction,
+                           final String contentHash) {
+        final JSONObject page = new JSONObject();
+        page.put("title", title);
+        page.put("id", id == null ? null : String.valueOf(id));
+        page.put("action", pageAction == null ? null : pageAction.name());
+        page.put("contentHash", contentHash);
+
+        pages.put(title, page);
+    }
+
+    public int size() {
+        return pages.size();
+    }
+
+    public String toJson() {
+        // Sorted by title so the same publish always produces the same receipt
+        final JSONArray pageArray = new JSONArray();
+
+        for (final Map.Entry<String, JSONObject> page : new TreeMap<>(pages).entrySet()) {
+            pageArray.add(page.getValue());
+        }
+
+        final JSONObject receipt = new JSONObject();
+        receipt.put("pages", pageArray);
+
+        return receipt.toJSONString();
+    }
+
+    // The ids of every page a previous receipt records, which is how a later
+    // run knows which of the pages it finds in Confluence it put there
+    public static Set<String> readPageIds(final String json) {
+        final List<Object> ids = JsonPath.read(json, "$.pages[*].id");
+        final Set<String> pageIds = new HashSet<>();
+
+        for (final Object id : ids) {
+            if (id != null) {
+                pageIds.add(String.valueOf(id));
+            }
+        }
+
+        return pageIds;
+    }
+
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.metrics;
+
+import net.minidev.json.JSONObject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Aggregates the metrics of one run, and passes every event on to any
+// registered listeners so that they can be exported elsewhere
+public class PublishStatistics {
+
+    private final AtomicInteger pagesCreated = new AtomicInteger();
+    private final AtomicInteger pagesUpdated = new AtomicInteger();
+    private final AtomicInteger pagesDeleted = new AtomicInteger();
+    private final AtomicInteger pagesMoved = new AtomicInteger();
+    private final AtomicInteger pagesSkipped = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger retries = new AtomicInteger();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    private final ConcurrentMap<PublishStage, AtomicLong> stageMillis = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> requestsByVerbAndStatus = new ConcurrentHashMap<>();
+
+    private final List<PublishMetricsListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final PublishReceipt receipt = new PublishReceipt();
+    private final PublishPlan plan = new PublishPlan();
+
+    public void addListener(final PublishMetricsListener listener) {
+        listeners.add(listener);
+    }
+
+    public void recordStage(final PublishStage stage, final long startNanos) {
+        final long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        AtomicLong millis = stageMillis.get(stage);
+
+        if (millis == null) {
+            final AtomicLong newMillis = new AtomicLong();
+            millis = stageMillis.putIfAbsent(stage, newMillis);
+
+            if (millis == null) {
+                millis = newMillis;
+            }
+        }
+
+        millis.addAndGet(durationMillis);
+
+        for (final PublishMetricsListener listener : listeners) {
+            listener.stageCompleted(stage, durationMillis);
+        }
+    }
+
+    public void recordPageCreated(final String title) {
+        pagesCreated.incrementAndGet();
+
+        for (final PublishMetricsListener listener : listeners) {
+            listener.pageCreated(title);
+        }
+    }
+
+    public void recordPageUpdated(final String title) {
+        pagesUpdated.incrementAndGet();
+
+        for (final PublishMetricsListener listener : listeners) {
+            listener.pageUpdated(title);
+        }
+    }
+
+    public void recordPageDeleted(final String title) {
+        pagesDeleted.incrementAndGet();
+
+        for (final PublishMetricsListener listener : listeners) {
+            listener.pageDeleted(title);
+        }
+    }
+
+    public void recordPageMoved(final String title) {
+        pagesMoved.incrementAndGet();
+
+        for (final PublishMetricsListener listener : listeners) {
+            listener.pageMoved(title);
+        }
+    }
+
+    public void recordPageSkipped(final String title) {
+        pagesSkipped.incrementAndGet();
+
+        for (final PublishMetricsListener listener : listeners) {
+            listener.pageSkipped(title);
+        }
+    }
+
+    public void recordRequest(final String method, final int statusCode,
+                              final String requestBody, final String responseBody) {
+        final long requestBytes = utf8Length(requestBody);
+        final long responseBytes = utf8Length(responseBody);
+
+        requests.incrementAndGet();
+        bytesSent.addAndGet(requestBytes);
+        bytesReceived.addAndGet(responseBytes);
+
+        final String verbAndStatus = String.format("%s %d", method, statusCode);
+
+        AtomicInteger count = requestsByVerbAndStatus.get(verbAndStatus);
+
+        if (count == null) {
+            final AtomicInteger newCount = new AtomicInteger();
+            count = requestsByVerbAndStatus.putIfAbsent(verbAndStatus, newCount);
+
+            if (count == null) {
+                count = newCount;
+            }
+        }
+
+        count.incrementAndGet();
+
+        for (final PublishMetricsListener listener : listeners) {
+            listener.requestCompleted(method, statusCode, requestBytes, responseBytes);
+        }
+    }
+
+    public void recordRetry(final String method) {
+        retries.incrementAndGet();
+
+        for (final PublishMetricsListener listener : listeners) {
+            listener.requestRetried(method);
+        }
+    }
+
+    public int getPagesCreated() {
+        return pagesCreated.get();
+    }
+
+    public int getPagesUpdated() {
+        return pagesUpdated.get();
+    }
+
+    public int getPagesDeleted() {
+        return pagesDeleted.get();
+    }
+
+    public int getPagesMoved() {
+        return pagesMoved.get();
+    }
+
+    public int getPagesSkipped() {
+        return pagesSkipped.get();
+    }
+
+    public int getRequests() {
+        return requests.get();
+    }
+
+    public int getRequests(final String method, final int statusCode) {
+        final AtomicInteger count = requestsByVerbAndStatus.get(String.format("%s %d", method, statusCode));
+        return count == null ? 0 : count.get();
+    }
+
+    public int getRetries() {
+        return retries.get();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public long getStageMillis(final PublishStage stage) {
+        final AtomicLong millis = stageMillis.get(stage);
+        return millis == null ? 0 : millis.get();
+    }
+
+    public PublishReceipt getReceipt() {
+        return receipt;
+    }
+
+    public PublishPlan getPlan() {
+        return plan;
+    }
+
+    public String toJson() {
+        final JSONObject stages = new JSONObject();
+
+        for (final Map.Entry<PublishStage, AtomicLong> stage : stageMillis.entrySet()) {
+            stages.put(stage.getKey().name(), stage.getValue().get());
+        }
+
+        final Map<String, Integer> byVerbAndStatus = new TreeMap<>();
+
+        for (final Map.Entry<String, AtomicInteger> count : requestsByVerbAndStatus.entrySet()) {
+            byVerbAndStatus.put(count.getKey(), count.getValue().get());
+        }
+
+        final JSONObject requestMetrics = new JSONObject();
+        requestMetrics.put("total", getRequests());
+        requestMetrics.put("byVerbAndStatus", new JSONObject(byVerbAndStatus));
+        requestMetrics.put("retries", getRetries());
+        requestMetrics.put("bytesSent", getBytesSent());
+        requestMetrics.put("bytesReceived", getBytesReceived());
+
+        final JSONObject pages = new JSONObject();
+        pages.put("created", getPagesCreated());
+        pages.put("updated", getPagesUpdated());
+        pages.put("deleted", getPagesDeleted());
+        pages.put("moved", getPagesMoved());
+        pages.put("skipped", getPagesSkipped());
+
+        final JSONObject report = new JSONObject();
+        report.put("stageMillis", stages);
+        report.put("requests", requestMetrics);
+        report.put("pages", pages);
+
+        return report.toJSONString();
+    }
+
+    static long utf8Length(final String value) {
+        if (value == null) {
+            return 0;
+        }
+
+        // Counted directly rather than encoding, as bodies can be several MB
+        long length = 0;
+
+        for (int i = 0; i < value.length(); i++) {
+            final char character = value.charAt(i);
+
+            if (character < 0x80) {
+                length += 1;
+            } else if (character < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(character)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+
+        return length;
+    }
+
+}
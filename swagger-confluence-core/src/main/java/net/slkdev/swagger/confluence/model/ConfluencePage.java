@@ -15,6 +15,7 @@
  */
 package net.slkdev.swagger.confluence.model;
 
+import net.slkdev.swagger.confluence.constants.PageAction;
 import net.slkdev.swagger.confluence.constants.PageType;
 
 public class ConfluencePage {
@@ -22,8 +23,10 @@ public class ConfluencePage {
     private Integer ancestorId;
     private String confluenceTitle;
     private Boolean exists;
+    private String existingContentHash;
     private String id;
     private String originalTitle;
+    private PageAction pageAction;
     private PageType pageType;
     private Integer version;
     private String xhtml;
@@ -52,6 +55,14 @@ public class ConfluencePage {
         this.exists = exists;
     }
 
+    public String getExistingContentHash() {
+        return existingContentHash;
+    }
+
+    public void setExistingContentHash(String existingContentHash) {
+        this.existingContentHash = existingContentHash;
+    }
+
     public String getId() {
         return id;
     }
@@ -68,6 +79,14 @@ public class ConfluencePage {
         this.originalTitle = originalTitle;
     }
 
+    public PageAction getPageAction() {
+        return pageAction;
+    }
+
+    public void setPageAction(PageAction pageAction) {
+        this.pageAction = pageAction;
+    }
+
     public PageType getPageType() {
         return pageType;
     }
@@ -15,14 +15,17 @@
  */
 package net.slkdev.swagger.confluence.model;
 
+import net.slkdev.swagger.confluence.constants.PageAction;
 import net.slkdev.swagger.confluence.constants.PageType;
 
 public class ConfluencePageBuilder {
     private Integer ancestorId;
     private String confluenceTitle;
     private Boolean exists;
+    private String existingContentHash;
     private String id;
     private String originalTitle;
+    private PageAction pageAction;
     private PageType pageType;
     private Integer version;
     private String xhtml;
@@ -49,6 +52,11 @@ public class ConfluencePageBuilder {
         return this;
     }
 
+    public ConfluencePageBuilder withExistingContentHash(String existingContentHash) {
+        this.existingContentHash = existingContentHash;
+        return this;
+    }
+
     public ConfluencePageBuilder withId(String id) {
         this.id = id;
         return this;
@@ -59,6 +67,11 @@ public class ConfluencePageBuilder {
         return this;
     }
 
+    public ConfluencePageBuilder withPageAction(PageAction pageAction) {
+        this.pageAction = pageAction;
+        return this;
+    }
+
     public ConfluencePageBuilder withPageType(PageType pageType) {
         this.pageType = pageType;
         return this;
@@ -79,8 +92,10 @@ public class ConfluencePageBuilder {
         confluencePage.setAncestorId(ancestorId);
         confluencePage.setConfluenceTitle(confluenceTitle);
         confluencePage.setExists(exists);
+        confluencePage.setExistingContentHash(existingContentHash);
         confluencePage.setId(id);
         confluencePage.setOriginalTitle(originalTitle);
+        confluencePage.setPageAction(pageAction);
         confluencePage.setPageType(pageType);
         confluencePage.setVersion(version);
         confluencePage.setXhtml(xhtml);
@@ -16,7 +16,29 @@
 package net.slkdev.swagger.confluence.service;
 
 import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import net.slkdev.swagger.confluence.http.ConfluenceRequestScheduler;
+import net.slkdev.swagger.confluence.metrics.PublishStatistics;
+import net.slkdev.swagger.confluence.model.ConfluencePage;
+
+import java.util.List;
 
 public interface XHtmlToConfluenceService {
     void postXHtmlToConfluence(final SwaggerConfluenceConfig swaggerConfluenceConfig, final String xhtml);
+
+    List<ConfluencePage> buildConfluencePages(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                              final String xhtml);
+
+    void publishConfluencePages(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                final List<ConfluencePage> confluencePages);
+
+    void publishConfluencePages(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                final List<ConfluencePage> confluencePages,
+                                final PublishStatistics publishStatistics);
+
+    void publishConfluencePages(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                final List<ConfluencePage> confluencePages,
+                                final PublishStatistics publishStatistics,
+                                final ConfluenceRequestScheduler requestScheduler);
+
+    ConfluenceRequestScheduler createRequestScheduler(final SwaggerConfluenceConfig swaggerConfluenceConfig);
 }
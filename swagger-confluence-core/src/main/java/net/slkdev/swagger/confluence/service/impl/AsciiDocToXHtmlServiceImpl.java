@@ -15,6 +15,7 @@
  */
 package net.slkdev.swagger.confluence.service.impl;
 
+import net.slkdev.swagger.confluence.exception.SwaggerConfluenceInternalSystemException;
 import net.slkdev.swagger.confluence.service.AsciiDocToXHtmlService;
 import org.asciidoctor.Asciidoctor;
 import org.asciidoctor.AttributesBuilder;
@@ -31,12 +32,23 @@ public class AsciiDocToXHtmlServiceImpl implements AsciiDocToXHtmlService {
 
     private static final Logger LOG = LoggerFactory.getLogger(AsciiDocToXHtmlServiceImpl.class);
 
+    // Booting the JRuby runtime behind Asciidoctor takes several seconds and a
+    // significant chunk of heap, so a single engine is created lazily and reused
+    // for every conversion until the service is shut down.
+    private volatile Asciidoctor asciidoctor;
+
+    // Only one engine is ever booted at a time. The boot itself happens outside
+    // the lock on this service, so that shutting down never waits on it.
+    private final Object bootLock = new Object();
+
+    // Guarded by this service. Once shut down, a warm up never boots an engine,
+    // but an explicit conversion still reopens the service.
+    private boolean closed;
+
     @Override
     public String convertAsciiDocToXHtml(final String asciiDoc) {
         LOG.info("Converting AsciiDoc to XHTML5...");
 
-        final Asciidoctor asciidoctor = create();
-
         final Map<String, Object> attributes = AttributesBuilder.attributes()
                 .unsetStyleSheet()
                 .tableOfContents(Placement.TOP)
@@ -47,9 +59,102 @@ public class AsciiDocToXHtmlServiceImpl implements AsciiDocToXHtmlService {
                 .backend("xhtml5")
                 .asMap();
 
+        final String xhtml = getAsciidoctor().render(asciiDoc, options);
+
         LOG.info("XHTML5 Conversion Complete!");
 
-        return asciidoctor.render(asciiDoc, options);
+        return xhtml;
+    }
+
+    public void warmUp() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+        }
+
+        final Thread warmUpThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    bootEngine(true);
+                } catch (final RuntimeException e) {
+                    LOG.warn("Unable to Warm Up Asciidoctor Engine!", e);
+                }
+            }
+        }, "asciidoctor-warm-up");
+
+        warmUpThread.setDaemon(true);
+        warmUpThread.start();
+    }
+
+    public void shutdown() {
+        final Asciidoctor engine;
+
+        synchronized (this) {
+            closed = true;
+            engine = asciidoctor;
+            asciidoctor = null;
+        }
+
+        // An engine still booting is shut down by its own boot, once it sees
+        // that the service was closed in the meantime
+        if (engine != null) {
+            LOG.info("Shutting Down Asciidoctor Engine...");
+            engine.shutdown();
+        }
+    }
+
+    boolean isBooted() {
+        return asciidoctor != null;
+    }
+
+    private Asciidoctor getAsciidoctor() {
+        return bootEngine(false);
+    }
+
+    private Asciidoctor bootEngine(final boolean warmUp) {
+        Asciidoctor engine = asciidoctor;
+
+        if (engine != null) {
+            return engine;
+        }
+
+        synchronized (bootLock) {
+            synchronized (this) {
+                engine = asciidoctor;
+
+                if (engine != null) {
+                    return engine;
+                }
+
+                if (warmUp && closed) {
+                    return null;
+                }
+
+                closed = false;
+            }
+
+            LOG.info("Booting Asciidoctor Engine...");
+            engine = create();
+
+            synchronized (this) {
+                if (!closed) {
+                    asciidoctor = engine;
+                    return engine;
+                }
+            }
+
+            LOG.info("Asciidoctor Engine Booted After Shutdown, Shutting It Down!");
+            engine.shutdown();
+
+            if (warmUp) {
+                return null;
+            }
+
+            throw new SwaggerConfluenceInternalSystemException(
+                    "Asciidoctor Engine Was Shut Down While Converting!");
+        }
     }
 
 }
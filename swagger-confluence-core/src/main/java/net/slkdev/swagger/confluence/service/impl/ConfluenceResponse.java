@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.service.impl;
+
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import net.minidev.json.parser.JSONParser;
+import net.minidev.json.parser.ParseException;
+import net.slkdev.swagger.confluence.exception.ConfluenceAPIException;
+
+// A Confluence REST response, parsed once however many values are read from it.
+// The paths are compiled once up front rather than on every read.
+final class ConfluenceResponse {
+
+    private static final JsonPath RESULTS = JsonPath.compile("$.results");
+    private static final JsonPath NEXT_LINK = JsonPath.compile("$._links.next");
+    private static final JsonPath ID = JsonPath.compile("$.id");
+    private static final JsonPath HOMEPAGE_ID = JsonPath.compile("$.homepage.id");
+    private static final JsonPath VERSION_NUMBER = JsonPath.compile("$.version.number");
+
+    private final DocumentContext documentContext;
+
+    private ConfluenceResponse(final DocumentContext documentContext) {
+        this.documentContext = documentContext;
+    }
+
+    static ConfluenceResponse parse(final String json) {
+        if (json == null || json.isEmpty()) {
+            throw new ConfluenceAPIException("Empty Response from Confluence!");
+        }
+
+        // json-smart is permissive by default and would read an HTML login or
+        // proxy error page as a bare string, so the response is parsed strictly
+        final Object document;
+
+        try {
+            document = new JSONParser(JSONParser.MODE_RFC4627).parse(json);
+        } catch (final ParseException e) {
+            throw new ConfluenceAPIException("Error Parsing JSON Response from Confluence!", e);
+        }
+
+        if (!(document instanceof JSONObject) && !(document instanceof JSONArray)) {
+            throw new ConfluenceAPIException("Unexpected Non JSON Response from Confluence!");
+        }
+
+        return new ConfluenceResponse(JsonPath.parse(document));
+    }
+
+    // The reads below throw PathNotFoundException when the value is missing,
+    // leaving it to the caller to decide whether that is an error
+
+    JSONArray getResults() {
+        return documentContext.read(RESULTS);
+    }
+
+    boolean hasNextLink() {
+        try {
+            documentContext.read(NEXT_LINK);
+            return true;
+        } catch (final PathNotFoundException e) {
+            return false;
+        }
+    }
+
+    Integer getId() {
+        return readInteger(ID);
+    }
+
+    Integer getHomePageId() {
+        return readInteger(HOMEPAGE_ID);
+    }
+
+    Integer getVersionNumber() {
+        return readInteger(VERSION_NUMBER);
+    }
+
+    // Confluence sends ids as strings but numbers as numbers
+    private Integer readInteger(final JsonPath jsonPath) {
+        final Object value = documentContext.read(jsonPath);
+        return Integer.valueOf(String.valueOf(value));
+    }
+
+}
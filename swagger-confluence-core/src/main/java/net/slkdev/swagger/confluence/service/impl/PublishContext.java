@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.service.impl;
+
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import net.slkdev.swagger.confluence.http.ConfluenceRequestScheduler;
+import net.slkdev.swagger.confluence.metrics.PublishStatistics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// The state of a single publish run. It is handed explicitly from call to call,
+// including onto the publishing threads, so that concurrent runs in one JVM
+// never see each other's state and nothing outlives the run that created it.
+final class PublishContext {
+
+    private final SwaggerConfluenceConfig swaggerConfluenceConfig;
+    private final PublishStatistics publishStatistics;
+    private final ConfluenceRequestScheduler requestScheduler;
+    private final Set<String> pageTitles;
+
+    private final Map<String, Map<String, Object>> existingSubtree = new ConcurrentHashMap<>();
+    private final Set<String> existingSubtreeIds =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Set<String> existingSubtreeRootIds =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private final AtomicInteger nextPlannedPageId = new AtomicInteger();
+    private final Map<Integer, String> plannedPageTitles = new ConcurrentHashMap<>();
+
+    private volatile Map<String, Map<String, Object>> existingPageIndex;
+    private volatile Integer spaceHomePageId;
+
+    PublishContext(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                   final PublishStatistics publishStatistics,
+                   final ConfluenceRequestScheduler requestScheduler,
+                   final Set<String> pageTitles) {
+        this.swaggerConfluenceConfig = swaggerConfluenceConfig;
+        this.publishStatistics = publishStatistics;
+        this.requestScheduler = requestScheduler;
+        this.pageTitles = pageTitles;
+    }
+
+    SwaggerConfluenceConfig getSwaggerConfluenceConfig() {
+        return swaggerConfluenceConfig;
+    }
+
+    PublishStatistics getPublishStatistics() {
+        return publishStatistics;
+    }
+
+    // Shared by every thread, and every spec, of the run, so that they are all
+    // throttled together
+    ConfluenceRequestScheduler getRequestScheduler() {
+        return requestScheduler;
+    }
+
+    // The Confluence titles of every page in this run, which tells still
+    // current pages apart from those left over from an earlier publish
+    Set<String> getPageTitles() {
+        return pageTitles;
+    }
+
+    // The pages found beneath an already published root page, keyed by title,
+    // which is the existing tree that the new pages are reconciled against
+    void addExistingSubtreeRoot(final String rootId) {
+        existingSubtreeIds.add(rootId);
+        existingSubtreeRootIds.add(rootId);
+    }
+
+    void addExistingSubtreePage(final String id, final String title, final Map<String, Object> existingPage) {
+        existingSubtreeIds.add(id);
+        existingSubtree.put(title, existingPage);
+    }
+
+    Map<String, Object> getExistingSubtreePage(final String title) {
+        return existingSubtree.get(title);
+    }
+
+    boolean isExistingSubtreeRoot(final String id) {
+        return existingSubtreeRootIds.contains(id);
+    }
+
+    boolean isInExistingSubtree(final String id) {
+        return existingSubtreeIds.contains(id);
+    }
+
+    List<Map<String, Object>> getExistingSubtreePages() {
+        return new ArrayList<>(existingSubtree.values());
+    }
+
+    // Null unless a bulk lookup was performed, in which case pages are looked
+    // up in the index rather than individually
+    Map<String, Map<String, Object>> getExistingPageIndex() {
+        return existingPageIndex;
+    }
+
+    void setExistingPageIndex(final Map<String, Map<String, Object>> existingPageIndex) {
+        this.existingPageIndex = existingPageIndex;
+    }
+
+    // A page a dry run would create has no id yet, so it is handed a negative
+    // placeholder for its children to be planned under. Being set, it also
+    // keeps orphan prevention from filing those children under the home page.
+    Integer addPlannedPage(final String title) {
+        final Integer placeholderId = nextPlannedPageId.decrementAndGet();
+        plannedPageTitles.put(placeholderId, title);
+
+        return placeholderId;
+    }
+
+    String getPlannedPageTitle(final Integer placeholderId) {
+        return placeholderId == null ? null : plannedPageTitles.get(placeholderId);
+    }
+
+    // Null until orphan prevention first needs the space home page, after which
+    // every other new page without a parent in this run reuses it
+    Integer getSpaceHomePageId() {
+        return spaceHomePageId;
+    }
+
+    void setSpaceHomePageId(final Integer spaceHomePageId) {
+        this.spaceHomePageId = spaceHomePageId;
+    }
+
+}
@@ -18,10 +18,11 @@ package net.slkdev.swagger.confluence.service.impl;
 import io.github.swagger2markup.*;
 import io.github.swagger2markup.builder.Swagger2MarkupConfigBuilder;
 import io.github.swagger2markup.markup.builder.MarkupLanguage;
+import net.slkdev.swagger.confluence.cache.ConversionCache;
 import net.slkdev.swagger.confluence.exception.SwaggerConfluenceConfigurationException;
 import net.slkdev.swagger.confluence.exception.SwaggerConfluenceInternalSystemException;
 import net.slkdev.swagger.confluence.service.SwaggerToAsciiDocService;
-import org.apache.commons.io.FileUtils;
+import net.slkdev.swagger.confluence.util.HashUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,51 +32,153 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class SwaggerToAsciiDocServiceImpl implements SwaggerToAsciiDocService {
 
     private static final Logger LOG = LoggerFactory.getLogger(SwaggerToAsciiDocServiceImpl.class);
 
+    // The configuration never varies, so it is built once rather than per call
+    private static final Swagger2MarkupConfig SWAGGER2MARKUP_CONFIG = new Swagger2MarkupConfigBuilder()
+            .withMarkupLanguage(MarkupLanguage.ASCIIDOC)
+            .withOutputLanguage(Language.EN)
+            .withPathsGroupedBy(GroupBy.AS_IS)
+            .withOperationOrdering(OrderBy.AS_IS)
+            .build();
+
+    // Shared across instances so that repeated publishes within one JVM, such as
+    // a Gradle daemon publishing one schema to several spaces, convert it once
+    private static final ConversionCache ASCII_DOC_CACHE = new ConversionCache(32, 50000000L);
+
+    // Matches both "$ref": "..." in JSON and $ref: ... in YAML schemas
+    private static final Pattern REF_PATTERN = Pattern.compile(
+            "[\"']?\\$ref[\"']?\\s*:\\s*[\"']?([^\"'\\s,}]+)");
+    private static final Pattern REMOTE_REF_PATTERN = Pattern.compile("^[a-zA-Z][a-zA-Z0-9+.-]*:");
+
     @Override
     public String convertSwaggerToAsciiDoc(final String swaggerSchemaPath) {
-        final File swaggerSchemaFile;
-
         LOG.info("Converting Swagger Schema to Ascii Doc...");
 
-        try {
-            swaggerSchemaFile = getSchemaFile(swaggerSchemaPath);
-        } catch (final FileNotFoundException | URISyntaxException e) {
-            throw new SwaggerConfluenceConfigurationException("Error Locating Swagger Schema", e);
-        }
+        final File swaggerSchemaFile = locateSchemaFile(swaggerSchemaPath);
+        final String schemaHash = hashResolvedSchema(swaggerSchemaFile);
+
+        final String cachedAsciiDoc = schemaHash == null ? null : ASCII_DOC_CACHE.get(schemaHash);
 
+        if (cachedAsciiDoc != null) {
+            LOG.info("Swagger Schema Unchanged, Using Cached AsciiDoc Conversion!");
+            return cachedAsciiDoc;
+        }
 
         final String swaggerAsciiDoc;
 
         try {
-            final Swagger2MarkupConfig config = new Swagger2MarkupConfigBuilder()
-                    .withMarkupLanguage(MarkupLanguage.ASCIIDOC)
-                    .withOutputLanguage(Language.EN)
-                    .withPathsGroupedBy(GroupBy.AS_IS)
-                    .withOperationOrdering(OrderBy.AS_IS)
-                    .build();
-
-            final String swaggerSchema = FileUtils.readFileToString(swaggerSchemaFile, StandardCharsets.UTF_8);
-
-            swaggerAsciiDoc = Swagger2MarkupConverter.from(swaggerSchema)
-                    .withConfig(config)
+            // Parsing from the file avoids holding the whole schema as a String
+            // alongside the Swagger model built from it
+            swaggerAsciiDoc = Swagger2MarkupConverter.from(swaggerSchemaFile.toPath())
+                    .withConfig(SWAGGER2MARKUP_CONFIG)
                     .build()
                     .toString();
 
-        } catch (IOException e) {
+        } catch (IllegalArgumentException e) {
             throw new SwaggerConfluenceInternalSystemException(
                     "Error Converting Swagger Schema to AsciiDoc", e);
         }
 
+        if (schemaHash == null) {
+            LOG.info("Swagger Schema Has Remote References, Not Caching Its AsciiDoc Conversion!");
+        } else {
+            ASCII_DOC_CACHE.put(schemaHash, swaggerAsciiDoc);
+        }
+
         LOG.info("AsciiDoc Conversion Complete!");
 
         return swaggerAsciiDoc;
     }
 
+    static void clearCache() {
+        ASCII_DOC_CACHE.clear();
+    }
+
+    static File locateSchemaFile(final String swaggerSchemaPath) {
+        try {
+            return getSchemaFile(swaggerSchemaPath);
+        } catch (final FileNotFoundException | URISyntaxException e) {
+            throw new SwaggerConfluenceConfigurationException("Error Locating Swagger Schema", e);
+        }
+    }
+
+    private static String hashSchemaFile(final File swaggerSchemaFile) {
+        try {
+            return HashUtils.sha256Hex(swaggerSchemaFile);
+        } catch (final IOException e) {
+            throw new SwaggerConfluenceInternalSystemException(
+                    "Error Reading Swagger Schema", e);
+        }
+    }
+
+    // Hashes the schema together with every local file it pulls in through an
+    // external $ref, so that editing any of them invalidates cached conversions.
+    // Remote references can change without notice, so a schema with any of them
+    // has no hash, and is never cached.
+    static String hashResolvedSchema(final File swaggerSchemaFile) {
+        final Set<File> visitedFiles = new LinkedHashSet<>();
+
+        try {
+            if (!collectReferencedFiles(swaggerSchemaFile.getCanonicalFile(), visitedFiles)) {
+                return null;
+            }
+        } catch (final IOException e) {
+            throw new SwaggerConfluenceInternalSystemException(
+                    "Error Reading Swagger Schema", e);
+        }
+
+        final File schemaDirectory = swaggerSchemaFile.getAbsoluteFile().getParentFile();
+        final StringBuilder keyBuilder = new StringBuilder();
+
+        for (final File visitedFile : visitedFiles) {
+            keyBuilder.append(schemaDirectory.toPath().relativize(visitedFile.toPath())).append('\n');
+            keyBuilder.append(visitedFile.isFile() ? hashSchemaFile(visitedFile) : "missing").append('\n');
+        }
+
+        return HashUtils.sha256Hex(keyBuilder.toString());
+    }
+
+    private static boolean collectReferencedFiles(final File schemaFile, final Set<File> visitedFiles)
+            throws IOException {
+        if (!visitedFiles.add(schemaFile) || !schemaFile.isFile()) {
+            return true;
+        }
+
+        final String schema = new String(Files.readAllBytes(schemaFile.toPath()), StandardCharsets.UTF_8);
+        final Matcher refMatcher = REF_PATTERN.matcher(schema);
+
+        while (refMatcher.find()) {
+            final String ref = refMatcher.group(1);
+            final int fragmentIndex = ref.indexOf('#');
+            final String refPath = fragmentIndex < 0 ? ref : ref.substring(0, fragmentIndex);
+
+            if (refPath.isEmpty()) {
+                continue;
+            }
+
+            if (REMOTE_REF_PATTERN.matcher(refPath).find()) {
+                return false;
+            }
+
+            final File refFile = new File(schemaFile.getParentFile(), refPath).getCanonicalFile();
+
+            if (!collectReferencedFiles(refFile, visitedFiles)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     private static File getSchemaFile(final String swaggerSchemaPath) throws FileNotFoundException, URISyntaxException {
         // First we'll try to find the file directly
         File swaggerFile = new File(swaggerSchemaPath);
@@ -15,8 +15,15 @@
  */
 package net.slkdev.swagger.confluence.service.impl;
 
+import net.slkdev.swagger.confluence.cache.ConversionDiskCache;
 import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
-import net.slkdev.swagger.confluence.constants.PaginationMode;
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceSpec;
+import net.slkdev.swagger.confluence.exception.SwaggerConfluenceInternalSystemException;
+import net.slkdev.swagger.confluence.http.ConfluenceRequestScheduler;
+import net.slkdev.swagger.confluence.metrics.PublishMetricsListener;
+import net.slkdev.swagger.confluence.metrics.PublishStage;
+import net.slkdev.swagger.confluence.metrics.PublishStatistics;
+import net.slkdev.swagger.confluence.model.ConfluencePage;
 import net.slkdev.swagger.confluence.service.AsciiDocToXHtmlService;
 import net.slkdev.swagger.confluence.service.SwaggerToAsciiDocService;
 import net.slkdev.swagger.confluence.service.SwaggerToConfluenceService;
@@ -24,6 +31,22 @@ import net.slkdev.swagger.confluence.service.XHtmlToConfluenceService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.apache.commons.lang3.Validate.notNull;
 
 public class SwaggerToConfluenceServiceImpl implements SwaggerToConfluenceService {
@@ -34,6 +57,8 @@ public class SwaggerToConfluenceServiceImpl implements SwaggerToConfluenceServic
     private final AsciiDocToXHtmlService asciiDocToXHtmlService;
     private final XHtmlToConfluenceService xHtmlToConfluenceService;
 
+    private final List<PublishMetricsListener> metricsListeners = new CopyOnWriteArrayList<>();
+
     public SwaggerToConfluenceServiceImpl(final SwaggerToAsciiDocService swaggerToAsciiDocService,
                                           final AsciiDocToXHtmlService asciiDocToXHtmlService,
                                           final XHtmlToConfluenceService xHtmlToConfluenceService) {
@@ -44,22 +69,108 @@ public class SwaggerToConfluenceServiceImpl implements SwaggerToConfluenceServic
 
     @Override
     public void convertSwaggerToConfluence(final SwaggerConfluenceConfig swaggerConfluenceConfig) {
-        final String swaggerSchema = swaggerConfluenceConfig.getSwaggerSchema();
         final String confluenceRestApiUrl = swaggerConfluenceConfig.getConfluenceRestApiUrl();
         final String spaceKey = swaggerConfluenceConfig.getSpaceKey();
-        final String prefix = swaggerConfluenceConfig.getPrefix();
-        final PaginationMode paginationMode = swaggerConfluenceConfig.getPaginationMode();
+        final List<SwaggerConfluenceSpec> specs = swaggerConfluenceConfig.getSpecs();
+
+        if (specs.isEmpty()) {
+            notNull(swaggerConfluenceConfig.getSwaggerSchema(), "Swagger Schema Cannot Be Null!");
+        }
 
-        notNull(swaggerSchema, "Swagger Schema Cannot Be Null!");
         notNull(confluenceRestApiUrl, "Confluence REST API URL Cannot Be Null!");
         notNull(swaggerConfluenceConfig.getAuthentication(), "Confluence Authentication Cannot Be Null!");
         notNull(spaceKey, "Confluence Space Key Cannot Be Null!");
 
-        LOG.info("Publishing Swagger API Documentation to Confluence...");
-        LOG.info("Swagger Schema: {}", swaggerSchema);
+        for (final SwaggerConfluenceSpec spec : specs) {
+            notNull(spec.getSwaggerSchema(), "Swagger Spec Schema Cannot Be Null!");
+        }
+
+        if (swaggerConfluenceConfig.isDryRun()) {
+            LOG.info("Dry Run: Planning Changes Without Writing to Confluence...");
+        } else {
+            LOG.info("Publishing Swagger API Documentation to Confluence...");
+        }
+
         LOG.info("Confluence REST API URL: {}", confluenceRestApiUrl);
         LOG.info("Confluence Space Key: {}", spaceKey);
-        LOG.info("Confluence PaginationMode: {}", paginationMode);
+        LOG.info("Confluence PaginationMode: {}", swaggerConfluenceConfig.getPaginationMode());
+        LOG.info("Confluence Generate Numeric Prefixes: {}",
+                swaggerConfluenceConfig.isGenerateNumericPrefixes());
+
+        final PublishStatistics publishStatistics = new PublishStatistics();
+
+        for (final PublishMetricsListener metricsListener : metricsListeners) {
+            publishStatistics.addListener(metricsListener);
+        }
+
+        // Specs published side by side share one scheduler, so the configured
+        // request rate and any throttling pause apply to the run as a whole
+        final ConfluenceRequestScheduler requestScheduler =
+                xHtmlToConfluenceService.createRequestScheduler(swaggerConfluenceConfig);
+
+        try {
+            if (specs.isEmpty()) {
+                publishSpec(swaggerConfluenceConfig, publishStatistics, requestScheduler);
+            } else {
+                publishSpecs(swaggerConfluenceConfig, publishStatistics, requestScheduler);
+            }
+
+            // Only a publish that succeeded gets a receipt, and a dry run, which
+            // leaves Confluence untouched, reports its plan instead
+            if (swaggerConfluenceConfig.isDryRun()) {
+                writePlan(swaggerConfluenceConfig, publishStatistics);
+            } else {
+                writeReceipt(swaggerConfluenceConfig, publishStatistics);
+            }
+        } finally {
+            reportMetrics(swaggerConfluenceConfig, publishStatistics);
+        }
+    }
+
+    public void addMetricsListener(final PublishMetricsListener metricsListener) {
+        metricsListeners.add(metricsListener);
+    }
+
+    private void publishSpecs(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                              final PublishStatistics publishStatistics,
+                              final ConfluenceRequestScheduler requestScheduler) {
+        final List<SwaggerConfluenceSpec> specs = swaggerConfluenceConfig.getSpecs();
+        final int specParallelism = Math.min(swaggerConfluenceConfig.getSpecParallelism(), specs.size());
+
+        LOG.info("Publishing {} Swagger Specs with Spec Parallelism {}", specs.size(), specParallelism);
+
+        // Every spec shares this service, and with it the Asciidoctor engine and
+        // the pooled HTTP client, so only the per-spec work runs on the workers
+        final ExecutorService executorService = Executors.newFixedThreadPool(specParallelism,
+                new SpecThreadFactory());
+
+        try {
+            final List<Future<?>> specFutures = new ArrayList<>();
+
+            for (final SwaggerConfluenceSpec spec : specs) {
+                final SwaggerConfluenceConfig specConfig = swaggerConfluenceConfig.forSpec(spec);
+
+                specFutures.add(executorService.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        publishSpec(specConfig, publishStatistics, requestScheduler);
+                    }
+                }));
+            }
+
+            awaitSpecs(specFutures);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void publishSpec(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                             final PublishStatistics publishStatistics,
+                             final ConfluenceRequestScheduler requestScheduler) {
+        final String swaggerSchema = swaggerConfluenceConfig.getSwaggerSchema();
+        final String prefix = swaggerConfluenceConfig.getPrefix();
+
+        LOG.info("Swagger Schema: {}", swaggerSchema);
 
         if (prefix == null) {
             LOG.info("Confluence Title Prefix: No Prefix Supplied");
@@ -67,12 +178,219 @@ public class SwaggerToConfluenceServiceImpl implements SwaggerToConfluenceServic
             LOG.info("Confluence Title Prefix: {}", prefix);
         }
 
-        LOG.info("Confluence Generate Numeric Prefixes: {}",
-                swaggerConfluenceConfig.isGenerateNumericPrefixes());
+        final String cacheDirectory = swaggerConfluenceConfig.getCacheDirectory();
+
+        // The cache outlives the JVM, so it is keyed on the schema together with
+        // every file it references; a schema with remote references is never cached
+        final String schemaHash = cacheDirectory == null ? null : SwaggerToAsciiDocServiceImpl.hashResolvedSchema(
+                SwaggerToAsciiDocServiceImpl.locateSchemaFile(swaggerSchema));
+
+        if (cacheDirectory != null && schemaHash == null) {
+            LOG.info("Swagger Schema Has Remote References, Not Using the Conversion Cache!");
+        }
+
+        if (schemaHash == null) {
+            // Each stage's output is handed straight to the next, so no reference to
+            // an earlier, already consumed, stage output outlives its conversion.
+            publishPages(swaggerConfluenceConfig, publishStatistics, requestScheduler,
+                    buildPages(swaggerConfluenceConfig, publishStatistics,
+                            convertAsciiDocToXHtml(publishStatistics,
+                                    convertSwaggerToAsciiDoc(publishStatistics, swaggerSchema))));
+            return;
+        }
+
+        LOG.info("Confluence Conversion Cache Directory: {}", cacheDirectory);
+
+        final ConversionDiskCache conversionDiskCache = new ConversionDiskCache(new File(cacheDirectory));
+        final String pagesKey = ConversionDiskCache.buildPagesKey(schemaHash, swaggerConfluenceConfig);
+
+        List<ConfluencePage> confluencePages = conversionDiskCache.getConfluencePages(pagesKey);
+
+        if (confluencePages == null) {
+            confluencePages = buildPages(swaggerConfluenceConfig, publishStatistics,
+                    convertSwaggerToXHtml(conversionDiskCache, publishStatistics, schemaHash, swaggerSchema));
+            conversionDiskCache.putConfluencePages(pagesKey, confluencePages);
+        } else {
+            LOG.info("Swagger Schema Unchanged, Using Cached Confluence Pages!");
+        }
+
+        publishPages(swaggerConfluenceConfig, publishStatistics, requestScheduler, confluencePages);
+    }
+
+    private String convertSwaggerToXHtml(final ConversionDiskCache conversionDiskCache,
+                                         final PublishStatistics publishStatistics,
+                                         final String schemaHash, final String swaggerSchema) {
+        final String cachedXHtml = conversionDiskCache.getXHtml(schemaHash);
+
+        if (cachedXHtml != null) {
+            LOG.info("Swagger Schema Unchanged, Using Cached XHTML Conversion!");
+            return cachedXHtml;
+        }
 
+        String asciiDoc = conversionDiskCache.getAsciiDoc(schemaHash);
+
+        if (asciiDoc == null) {
+            asciiDoc = convertSwaggerToAsciiDoc(publishStatistics, swaggerSchema);
+            conversionDiskCache.putAsciiDoc(schemaHash, asciiDoc);
+        } else {
+            LOG.info("Swagger Schema Unchanged, Using Cached AsciiDoc Conversion!");
+        }
+
+        final String xhtml = convertAsciiDocToXHtml(publishStatistics, asciiDoc);
+        conversionDiskCache.putXHtml(schemaHash, xhtml);
+
+        return xhtml;
+    }
+
+    private String convertSwaggerToAsciiDoc(final PublishStatistics publishStatistics,
+                                            final String swaggerSchema) {
+        final long startNanos = System.nanoTime();
         final String asciiDoc = swaggerToAsciiDocService.convertSwaggerToAsciiDoc(swaggerSchema);
+        publishStatistics.recordStage(PublishStage.SWAGGER_TO_ASCII_DOC, startNanos);
+
+        return asciiDoc;
+    }
+
+    private String convertAsciiDocToXHtml(final PublishStatistics publishStatistics, final String asciiDoc) {
+        final long startNanos = System.nanoTime();
         final String xhtml = asciiDocToXHtmlService.convertAsciiDocToXHtml(asciiDoc);
-        xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
+        publishStatistics.recordStage(PublishStage.ASCII_DOC_TO_XHTML, startNanos);
+
+        return xhtml;
+    }
+
+    private List<ConfluencePage> buildPages(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                            final PublishStatistics publishStatistics, final String xhtml) {
+        final long startNanos = System.nanoTime();
+        final List<ConfluencePage> confluencePages =
+                xHtmlToConfluenceService.buildConfluencePages(swaggerConfluenceConfig, xhtml);
+        publishStatistics.recordStage(PublishStage.BUILD_PAGES, startNanos);
+
+        return confluencePages;
+    }
+
+    private void publishPages(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                              final PublishStatistics publishStatistics,
+                              final ConfluenceRequestScheduler requestScheduler,
+                              final List<ConfluencePage> confluencePages) {
+        final long startNanos = System.nanoTime();
+        xHtmlToConfluenceService.publishConfluencePages(swaggerConfluenceConfig, confluencePages,
+                publishStatistics, requestScheduler);
+        publishStatistics.recordStage(PublishStage.PUBLISH_PAGES, startNanos);
+    }
+
+    private static void awaitSpecs(final List<Future<?>> specFutures) {
+        // Every spec is given the chance to finish before the first failure is
+        // reported, so one broken schema does not abandon the others half-published
+        RuntimeException failure = null;
+
+        for (final Future<?> specFuture : specFutures) {
+            try {
+                specFuture.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SwaggerConfluenceInternalSystemException("Interrupted While Publishing Specs!", e);
+            } catch (final ExecutionException e) {
+                final Throwable cause = e.getCause();
+
+                LOG.error("Error Publishing Swagger Spec!", cause);
+
+                if (failure == null) {
+                    failure = cause instanceof RuntimeException ? (RuntimeException) cause :
+                            new SwaggerConfluenceInternalSystemException("Error Publishing Specs!", cause);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static void reportMetrics(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                      final PublishStatistics publishStatistics) {
+        final String metricsReport = publishStatistics.toJson();
+
+        LOG.info("Publish Metrics: {}", metricsReport);
+
+        final String metricsReportPath = swaggerConfluenceConfig.getMetricsReportPath();
+
+        if (metricsReportPath == null) {
+            return;
+        }
+
+        // A failure to write the report should never fail the publish itself
+        try {
+            final Path reportPath = Paths.get(metricsReportPath).toAbsolutePath();
+            Files.createDirectories(reportPath.getParent());
+            Files.write(reportPath, metricsReport.getBytes(StandardCharsets.UTF_8));
+
+            LOG.info("Publish Metrics Report Written to {}", reportPath);
+        } catch (final IOException e) {
+            LOG.warn("Unable to Write Publish Metrics Report <{}>!", metricsReportPath, e);
+        }
+    }
+
+    private static void writeReceipt(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                     final PublishStatistics publishStatistics) {
+        final String receiptPath = swaggerConfluenceConfig.getReceiptPath();
+
+        if (receiptPath == null) {
+            return;
+        }
+
+        // Unlike the metrics report, build tools rely on the receipt being
+        // there, so failing to write it fails the publish
+        try {
+            final Path path = Paths.get(receiptPath).toAbsolutePath();
+            Files.createDirectories(path.getParent());
+            Files.write(path, publishStatistics.getReceipt().toJson().getBytes(StandardCharsets.UTF_8));
+
+            LOG.info("Publish Receipt Written to {}", path);
+        } catch (final IOException e) {
+            throw new SwaggerConfluenceInternalSystemException(
+                    String.format("Unable to Write Publish Receipt <%s>", receiptPath), e);
+        }
+    }
+
+    private static void writePlan(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                  final PublishStatistics publishStatistics) {
+        final String plan = publishStatistics.getPlan().toJson();
+
+        LOG.info("Publish Plan: {}", plan);
+
+        final String planPath = swaggerConfluenceConfig.getPlanPath();
+
+        if (planPath == null) {
+            return;
+        }
+
+        // As with the receipt, builds validating specs rely on the plan being there
+        try {
+            final Path path = Paths.get(planPath).toAbsolutePath();
+            Files.createDirectories(path.getParent());
+            Files.write(path, plan.getBytes(StandardCharsets.UTF_8));
+
+            LOG.info("Publish Plan Written to {}", path);
+        } catch (final IOException e) {
+            throw new SwaggerConfluenceInternalSystemException(
+                    String.format("Unable to Write Publish Plan <%s>", planPath), e);
+        }
+    }
+
+    private static class SpecThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable,
+                    String.format("swagger-confluence-spec-%d", threadCount.getAndIncrement()));
+            thread.setDaemon(true);
+
+            return thread;
+        }
+
     }
 
 }
@@ -15,39 +15,56 @@
  */
 package net.slkdev.swagger.confluence.service.impl;
 
-import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.PathNotFoundException;
 import net.minidev.json.JSONArray;
 import net.minidev.json.JSONObject;
-import net.minidev.json.parser.JSONParser;
-import net.minidev.json.parser.ParseException;
+import net.slkdev.swagger.confluence.cache.SpaceMetadataCache;
 import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import net.slkdev.swagger.confluence.constants.PageAction;
 import net.slkdev.swagger.confluence.constants.PageType;
 import net.slkdev.swagger.confluence.constants.PaginationMode;
 import net.slkdev.swagger.confluence.exception.ConfluenceAPIException;
 import net.slkdev.swagger.confluence.exception.SwaggerConfluenceConfigurationException;
+import net.slkdev.swagger.confluence.exception.SwaggerConfluenceInternalSystemException;
+import net.slkdev.swagger.confluence.http.ConfluenceClientHttpRequestFactory;
+import net.slkdev.swagger.confluence.http.ConfluenceRequestScheduler;
+import net.slkdev.swagger.confluence.metrics.PublishPlan;
+import net.slkdev.swagger.confluence.metrics.PublishReceipt;
+import net.slkdev.swagger.confluence.metrics.PublishStatistics;
 import net.slkdev.swagger.confluence.model.ConfluenceLink;
 import net.slkdev.swagger.confluence.model.ConfluenceLinkBuilder;
 import net.slkdev.swagger.confluence.model.ConfluencePage;
 import net.slkdev.swagger.confluence.model.ConfluencePageBuilder;
 import net.slkdev.swagger.confluence.service.XHtmlToConfluenceService;
+import net.slkdev.swagger.confluence.util.HashUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
 import org.jsoup.parser.Parser;
 import org.jsoup.select.Elements;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
-import static net.minidev.json.parser.JSONParser.DEFAULT_PERMISSIVE_MODE;
 import static net.slkdev.swagger.confluence.constants.PageType.INDIVIDUAL;
 import static net.slkdev.swagger.confluence.constants.PaginationMode.INDIVIDUAL_PAGES;
 import static net.slkdev.swagger.confluence.constants.PaginationMode.SINGLE_PAGE;
@@ -59,11 +76,19 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
 
     private static final String EXPAND = "expand";
     private static final String ID = "id";
+    private static final String LIMIT = "limit";
     private static final String SPACE_KEY = "spaceKey";
+    private static final String START = "start";
     private static final String TITLE = "title";
 
-    private static final ThreadLocal<SwaggerConfluenceConfig> SWAGGER_CONFLUENCE_CONFIG = new ThreadLocal<>();
-    private static final ThreadLocal<Document> SWAGGER_DOCUMENT = new ThreadLocal<>();
+    private static final int BULK_LOOKUP_BATCH_SIZE = 25;
+    private static final int CHILD_LOOKUP_PAGE_SIZE = 50;
+
+    private static final Pattern INTER_TAG_WHITESPACE = Pattern.compile(">\\s+<");
+
+    // Shared across instances so that, when a TTL is configured, later runs in
+    // the same JVM publishing to the same space skip the home page lookup
+    private static final SpaceMetadataCache SPACE_METADATA_CACHE = new SpaceMetadataCache();
 
     private RestTemplate restTemplate;
 
@@ -73,13 +98,120 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
 
     @Override
     public void postXHtmlToConfluence(final SwaggerConfluenceConfig swaggerConfluenceConfig, final String xhtml) {
+        publishConfluencePages(swaggerConfluenceConfig, buildConfluencePages(swaggerConfluenceConfig, xhtml));
+    }
+
+    @Override
+    public List<ConfluencePage> buildConfluencePages(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                                     final String xhtml) {
+        LOG.info("Building Confluence Pages from XHTML...");
+
+        // The parsed DOM is only ever referenced from this call, so once every
+        // page holds its own formatted XHTML the full document can be collected
+        final Document swaggerDocument = parseXhtml(xhtml);
+        final Map<String, ConfluenceLink> titleLinkMap =
+                buildTableOfContentsLinkMap(swaggerConfluenceConfig, swaggerDocument);
+
+        return handlePagination(swaggerConfluenceConfig, swaggerDocument, titleLinkMap);
+    }
+
+    @Override
+    public void publishConfluencePages(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                       final List<ConfluencePage> confluencePages) {
+        publishConfluencePages(swaggerConfluenceConfig, confluencePages, new PublishStatistics());
+    }
+
+    @Override
+    public void publishConfluencePages(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                       final List<ConfluencePage> confluencePages,
+                                       final PublishStatistics publishStatistics) {
+        publishConfluencePages(swaggerConfluenceConfig, confluencePages, publishStatistics,
+                createRequestScheduler(swaggerConfluenceConfig));
+    }
+
+    @Override
+    public void publishConfluencePages(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                       final List<ConfluencePage> confluencePages,
+                                       final PublishStatistics publishStatistics,
+                                       final ConfluenceRequestScheduler requestScheduler) {
         LOG.info("Posting XHTML to Confluence...");
 
-        SWAGGER_CONFLUENCE_CONFIG.set(swaggerConfluenceConfig);
-        SWAGGER_DOCUMENT.set(parseXhtml(xhtml));
+        final Set<String> pageTitles = new HashSet<>();
+
+        for (final ConfluencePage confluencePage : confluencePages) {
+            pageTitles.add(confluencePage.getConfluenceTitle());
+        }
+
+        final PublishContext publishContext = new PublishContext(swaggerConfluenceConfig, publishStatistics,
+                requestScheduler, pageTitles);
+
+        final boolean dryRun = swaggerConfluenceConfig.isDryRun();
+
+        // A dry run always uses the batched lookup, as reads are all it makes
+        if (swaggerConfluenceConfig.isBulkPageLookup() || dryRun) {
+            publishContext.setExistingPageIndex(lookupExistingPages(publishContext, confluencePages));
+        }
+
+        final int publishParallelism = swaggerConfluenceConfig.getPublishParallelism();
+
+        if (publishParallelism > 1 && confluencePages.size() > 1 && !dryRun) {
+            publishPagesConcurrently(publishContext, confluencePages, publishParallelism);
+        } else {
+            publishPagesSequentially(publishContext, confluencePages);
+        }
+
+        deleteStalePages(publishContext);
+
+        if (dryRun) {
+            final PublishPlan publishPlan = publishStatistics.getPlan();
 
-        final Map<String, ConfluenceLink> titleLinkMap = buildTableOfContentsLinkMap();
-        final List<ConfluencePage> confluencePages = handlePagination();
+            LOG.info("Dry Run Complete! Pages to Create: {}, Update: {}, Move: {}, Delete: {}, " +
+                            "Skip as Unchanged: {}, Bytes to Send: {}", publishPlan.getPageCount(PageAction.CREATE),
+                    publishPlan.getPageCount(PageAction.UPDATE), publishPlan.getPageCount(PageAction.MOVE),
+                    publishPlan.getPageCount(PageAction.DELETE), publishPlan.getPageCount(PageAction.SKIP),
+                    publishPlan.getBytes());
+            return;
+        }
+
+        LOG.info("Publishing Complete! Pages Created: {}, Updated: {}, Moved: {}, Deleted: {}, " +
+                        "Skipped as Unchanged: {}", publishStatistics.getPagesCreated(),
+                publishStatistics.getPagesUpdated(), publishStatistics.getPagesMoved(),
+                publishStatistics.getPagesDeleted(), publishStatistics.getPagesSkipped());
+        LOG.info("Confluence REST Requests: {}, Bytes Sent: {}, Bytes Received: {}",
+                publishStatistics.getRequests(), publishStatistics.getBytesSent(),
+                publishStatistics.getBytesReceived());
+    }
+
+    // One scheduler, and with it one rate limit, is meant to be shared by every
+    // publish of a run, however many specs it publishes at once
+    @Override
+    public ConfluenceRequestScheduler createRequestScheduler(final SwaggerConfluenceConfig swaggerConfluenceConfig) {
+        return new ConfluenceRequestScheduler(buildPublishRestTemplate(swaggerConfluenceConfig),
+                swaggerConfluenceConfig);
+    }
+
+    // Each publish talks through its own RestTemplate, sharing the pooled client
+    // but carrying its own timeouts, as publishes may run side by side
+    private RestTemplate buildPublishRestTemplate(final SwaggerConfluenceConfig swaggerConfluenceConfig) {
+        final ClientHttpRequestFactory requestFactory = restTemplate.getRequestFactory();
+
+        if (!(requestFactory instanceof ConfluenceClientHttpRequestFactory)) {
+            return restTemplate;
+        }
+
+        final RestTemplate publishRestTemplate = new RestTemplate(
+                ((ConfluenceClientHttpRequestFactory) requestFactory).forConfig(swaggerConfluenceConfig));
+        publishRestTemplate.setMessageConverters(restTemplate.getMessageConverters());
+        publishRestTemplate.setErrorHandler(restTemplate.getErrorHandler());
+        publishRestTemplate.setInterceptors(restTemplate.getInterceptors());
+        publishRestTemplate.setUriTemplateHandler(restTemplate.getUriTemplateHandler());
+
+        return publishRestTemplate;
+    }
+
+    private void publishPagesSequentially(final PublishContext publishContext,
+                                          final List<ConfluencePage> confluencePages) {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = publishContext.getSwaggerConfluenceConfig();
 
         Integer categoryAncestorId = null;
         Integer individualAncestorId = null;
@@ -87,48 +219,248 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
         for (final ConfluencePage confluencePage : confluencePages) {
             final PageType pageType = confluencePage.getPageType();
 
-            LOG.debug("PROCESSING PAGE: {} --> {}", confluencePage.getPageType(), confluencePage.getXhtml());
-
             switch (pageType) {
                 case ROOT:
-                    confluencePage.setAncestorId(swaggerConfluenceConfig.getAncestorId());
+                    publishPage(publishContext, confluencePage, swaggerConfluenceConfig.getAncestorId());
+                    categoryAncestorId = confluencePage.getAncestorId();
                     break;
                 case CATEGORY:
-                    confluencePage.setAncestorId(categoryAncestorId);
+                    publishPage(publishContext, confluencePage, categoryAncestorId);
+                    individualAncestorId = confluencePage.getAncestorId();
                     break;
                 case INDIVIDUAL:
-                    confluencePage.setAncestorId(individualAncestorId);
+                    publishPage(publishContext, confluencePage, individualAncestorId);
                     break;
                 default:
                     throw new SwaggerConfluenceConfigurationException("Unknown Page Type Encountered!");
             }
+        }
+    }
 
-            LOG.debug("ANCESTOR ID SET: <{}> -> {}", confluencePage.getConfluenceTitle(), confluencePage.getAncestorId());
+    private void publishPagesConcurrently(final PublishContext publishContext,
+                                          final List<ConfluencePage> confluencePages,
+                                          final int publishParallelism) {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = publishContext.getSwaggerConfluenceConfig();
 
-            addExistingPageData(confluencePage);
+        // Pages arrive as a flattened ROOT -> CATEGORY -> INDIVIDUAL tree, so we
+        // rebuild the tree in order to know which pages can be published together.
+        // Siblings only depend on the id of their parent, never on each other.
+        ConfluencePage rootPage = null;
+        final Map<ConfluencePage, List<ConfluencePage>> categoryPages = new LinkedHashMap<>();
+        List<ConfluencePage> individualPages = null;
 
-            if (confluencePage.exists()) {
-                updatePage(confluencePage, titleLinkMap);
+        for (final ConfluencePage confluencePage : confluencePages) {
+            switch (confluencePage.getPageType()) {
+                case ROOT:
+                    rootPage = confluencePage;
+                    break;
+                case CATEGORY:
+                    individualPages = new ArrayList<>();
+                    categoryPages.put(confluencePage, individualPages);
+                    break;
+                case INDIVIDUAL:
+                    if (individualPages == null) {
+                        throw new SwaggerConfluenceConfigurationException(
+                                "Individual Page Encountered Without a Category Page!");
+                    }
+                    individualPages.add(confluencePage);
+                    break;
+                default:
+                    throw new SwaggerConfluenceConfigurationException("Unknown Page Type Encountered!");
+            }
+        }
 
-                if(pageType == PageType.CATEGORY){
-                    cleanPages(confluencePage);
-                }
+        if (rootPage == null) {
+            throw new SwaggerConfluenceConfigurationException("No Root Page Encountered!");
+        }
+
+        LOG.info("Publishing {} Pages with Parallelism {}", confluencePages.size(), publishParallelism);
+
+        publishPage(publishContext, rootPage, swaggerConfluenceConfig.getAncestorId());
+
+        final Integer categoryAncestorId = rootPage.getAncestorId();
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(publishParallelism,
+                new PublishThreadFactory());
+
+        try {
+            final List<Future<?>> categoryFutures = new ArrayList<>();
+            final Queue<Future<?>> individualFutures = new ConcurrentLinkedQueue<>();
+
+            for (final Map.Entry<ConfluencePage, List<ConfluencePage>> categoryEntry : categoryPages.entrySet()) {
+                final ConfluencePage categoryPage = categoryEntry.getKey();
+                final List<ConfluencePage> childPages = categoryEntry.getValue();
+
+                categoryFutures.add(executorService.submit(new PublishPageTask(publishContext,
+                        categoryPage, categoryAncestorId) {
+                    @Override
+                    protected void afterPublish() {
+                        // Children are queued rather than awaited here so that a
+                        // bounded pool can never dead lock on its own tasks
+                        final Integer individualAncestorId = categoryPage.getAncestorId();
+
+                        for (final ConfluencePage childPage : childPages) {
+                            individualFutures.add(executorService.submit(new PublishPageTask(
+                                    publishContext, childPage, individualAncestorId)));
+                        }
+                    }
+                }));
+            }
+
+            // Every child task has been queued once all category tasks are done
+            awaitPublishTasks(categoryFutures);
+            awaitPublishTasks(individualFutures);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void publishPage(final PublishContext publishContext, final ConfluencePage confluencePage,
+                             final Integer ancestorId) {
+        final PublishStatistics publishStatistics = publishContext.getPublishStatistics();
+        final PageType pageType = confluencePage.getPageType();
+
+        LOG.debug("PROCESSING PAGE: {} --> {}", pageType, confluencePage.getXhtml());
+
+        confluencePage.setAncestorId(ancestorId);
+
+        LOG.debug("ANCESTOR ID SET: <{}> -> {}", confluencePage.getConfluenceTitle(), confluencePage.getAncestorId());
+
+        addExistingPageData(publishContext, confluencePage);
+
+        final String formattedXHtml = confluencePage.getXhtml();
+
+        if (publishContext.getSwaggerConfluenceConfig().isDryRun()) {
+            planPage(publishContext, confluencePage, formattedXHtml);
+            return;
+        }
+
+        if (confluencePage.getPageAction() == PageAction.MOVE) {
+            // A move is still a full update, as Confluence only re-parents on a PUT
+            updatePage(publishContext, confluencePage, formattedXHtml);
+            publishStatistics.recordPageMoved(confluencePage.getConfluenceTitle());
+        } else if (confluencePage.exists()) {
+            if (isUnchanged(publishContext.getSwaggerConfluenceConfig(), confluencePage, formattedXHtml)) {
+                LOG.info("Page <{} : {}> Is Unchanged, Skipping the Update!", confluencePage.getId(),
+                        confluencePage.getConfluenceTitle());
+
+                // Children still need this page's id as their ancestor
+                confluencePage.setAncestorId(Integer.valueOf(confluencePage.getId()));
+                confluencePage.setPageAction(PageAction.SKIP);
+                publishStatistics.recordPageSkipped(confluencePage.getConfluenceTitle());
             } else {
-                createPage(confluencePage, titleLinkMap);
+                updatePage(publishContext, confluencePage, formattedXHtml);
+                confluencePage.setPageAction(PageAction.UPDATE);
+                publishStatistics.recordPageUpdated(confluencePage.getConfluenceTitle());
             }
 
             if (pageType == PageType.ROOT) {
-                categoryAncestorId = confluencePage.getAncestorId();
-            } else if (pageType == PageType.CATEGORY) {
-                individualAncestorId = confluencePage.getAncestorId();
+                indexExistingSubtree(publishContext, confluencePage);
             }
+        } else {
+            createPage(publishContext, confluencePage, formattedXHtml);
+            confluencePage.setPageAction(PageAction.CREATE);
+            publishStatistics.recordPageCreated(confluencePage.getConfluenceTitle());
         }
+
+        // Once published, a page's ancestor id has become its own id, ready to
+        // be handed to its children
+        publishStatistics.getReceipt().recordPage(confluencePage.getConfluenceTitle(),
+                confluencePage.getAncestorId(), confluencePage.getPageAction(),
+                HashUtils.sha256Hex(formattedXHtml));
+
+        // Published content is no longer needed, so let it be collected
+        // while the remaining pages are still being published
+        confluencePage.setXhtml(null);
     }
 
-    private Map<String, ConfluenceLink> buildTableOfContentsLinkMap() {
+    private void planPage(final PublishContext publishContext, final ConfluencePage confluencePage,
+                          final String formattedXHtml) {
+        final PageAction pageAction;
+
+        if (confluencePage.getPageAction() == PageAction.MOVE) {
+            pageAction = PageAction.MOVE;
+        } else if (confluencePage.exists()) {
+            pageAction = isUnchanged(publishContext.getSwaggerConfluenceConfig(), confluencePage, formattedXHtml) ?
+                    PageAction.SKIP : PageAction.UPDATE;
+        } else {
+            pageAction = PageAction.CREATE;
+        }
+
+        LOG.info("Dry Run: Would {} Page <{}>!", pageAction, confluencePage.getConfluenceTitle());
+
+        confluencePage.setPageAction(pageAction);
+
+        final Integer parentId = confluencePage.getAncestorId();
+        final String plannedParentTitle = publishContext.getPlannedPageTitle(parentId);
+        final String parent = plannedParentTitle != null ? plannedParentTitle :
+                (parentId == null ? null : String.valueOf(parentId));
+
+        // Children are planned against the id their parent already has. A page
+        // that would be created has none yet, so it hands its children a
+        // placeholder instead, which keeps them planned beneath it.
+        if (confluencePage.exists()) {
+            confluencePage.setAncestorId(Integer.valueOf(confluencePage.getId()));
+
+            if (confluencePage.getPageType() == PageType.ROOT) {
+                indexExistingSubtree(publishContext, confluencePage);
+            }
+        } else {
+            confluencePage.setAncestorId(publishContext.addPlannedPage(confluencePage.getConfluenceTitle()));
+        }
+
+        publishContext.getPublishStatistics().getPlan().recordPage(confluencePage.getConfluenceTitle(),
+                confluencePage.getId(), pageAction, parent, formattedXHtml);
+
+        confluencePage.setXhtml(null);
+    }
+
+    private static boolean isUnchanged(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                       final ConfluencePage confluencePage, final String formattedXHtml) {
+        if (!swaggerConfluenceConfig.isSkipUnchangedPages() || confluencePage.getExistingContentHash() == null) {
+            return false;
+        }
+
+        return confluencePage.getExistingContentHash().equals(hashStorageXHtml(formattedXHtml));
+    }
+
+    private static String hashStorageXHtml(final String storageXHtml) {
+        // Confluence re-serializes the storage format it is given, so both sides
+        // are run through the same parser and stripped of inter-tag whitespace
+        // before hashing. A false mismatch only costs us an unnecessary update.
+        final Document document = Jsoup.parse(storageXHtml, "utf-8", Parser.xmlParser());
+        document.outputSettings().prettyPrint(false);
+        document.outputSettings().escapeMode(xhtml);
+        document.outputSettings().charset("UTF-8");
+
+        final String normalizedXHtml = INTER_TAG_WHITESPACE.matcher(document.html()).replaceAll("><").trim();
+
+        return HashUtils.sha256Hex(normalizedXHtml);
+    }
+
+    private static void awaitPublishTasks(final Collection<Future<?>> futures) {
+        for (final Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SwaggerConfluenceInternalSystemException("Interrupted While Publishing Pages!", e);
+            } catch (final ExecutionException e) {
+                final Throwable cause = e.getCause();
+
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+
+                throw new SwaggerConfluenceInternalSystemException("Error Publishing Pages!", cause);
+            }
+        }
+    }
+
+    Map<String, ConfluenceLink> buildTableOfContentsLinkMap(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                                            final Document document) {
         final Map<String, ConfluenceLink> titleLinkMap = new HashMap<>();
 
-        final Document document = SWAGGER_DOCUMENT.get();
         final Elements tocElements = document.select(".toc");
 
         final Elements tocCategoryElements = tocElements.select(".sectlevel1").first().children();
@@ -142,24 +474,25 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
 
         final Elements tocIndividualElements = tocElements.select(".sectlevel2");
 
-        addLinksByType(titleLinkMap, tocFilteredCategoryElements, PageType.CATEGORY, null);
+        addLinksByType(swaggerConfluenceConfig, titleLinkMap, tocFilteredCategoryElements,
+                PageType.CATEGORY, null);
 
         int categoryCount = 1;
 
         for (final Element tocIndividualElement : tocIndividualElements) {
             final Elements tocIndividualElementLinks = tocIndividualElement.select("a");
-            addLinksByType(titleLinkMap, tocIndividualElementLinks, INDIVIDUAL, categoryCount);
+            addLinksByType(swaggerConfluenceConfig, titleLinkMap, tocIndividualElementLinks,
+                    INDIVIDUAL, categoryCount);
             categoryCount++;
         }
 
         return titleLinkMap;
     }
 
-    private void addLinksByType(final Map<String, ConfluenceLink> confluenceLinkMap,
+    private void addLinksByType(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                final Map<String, ConfluenceLink> confluenceLinkMap,
                                 final Elements elements, final PageType pageType,
                                 final Integer numericPrefix) {
-        final SwaggerConfluenceConfig swaggerConfluenceConfig = SWAGGER_CONFLUENCE_CONFIG.get();
-
         int linkCount = 1;
 
         for (final Element element : elements) {
@@ -169,9 +502,9 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
             final String confluencePageTitle;
 
             if (pageType == INDIVIDUAL) {
-                confluencePageTitle = buildConfluenceTitle(text, numericPrefix, linkCount);
+                confluencePageTitle = buildConfluenceTitle(swaggerConfluenceConfig, text, numericPrefix, linkCount);
             } else {
-                confluencePageTitle = buildConfluenceTitle(text, linkCount, null);
+                confluencePageTitle = buildConfluenceTitle(swaggerConfluenceConfig, text, linkCount, null);
             }
 
             switch (swaggerConfluenceConfig.getPaginationMode()) {
@@ -180,12 +513,13 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
                     break;
 
                 case CATEGORY_PAGES:
-                    confluenceLinkMarkup = formatCategoryPageLink(text,
+                    confluenceLinkMarkup = formatCategoryPageLink(swaggerConfluenceConfig, text,
                             confluencePageTitle, pageType);
                     break;
 
                 case INDIVIDUAL_PAGES:
-                    confluenceLinkMarkup = formatIndividualPageLink(text, confluencePageTitle);
+                    confluenceLinkMarkup = formatIndividualPageLink(swaggerConfluenceConfig, text,
+                            confluencePageTitle);
                     break;
 
                 default:
@@ -211,11 +545,10 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
         return String.format("<ac:link ac:anchor=\"%s\" />", text);
     }
 
-    private static String formatCategoryPageLink(final String text,
+    private static String formatCategoryPageLink(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                                 final String text,
                                                  final String confluencePageTitle,
                                                  final PageType pageType){
-        final SwaggerConfluenceConfig swaggerConfluenceConfig = SWAGGER_CONFLUENCE_CONFIG.get();
-
         if (pageType == INDIVIDUAL) {
             final String definitionsPageTitle;
 
@@ -249,9 +582,8 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
         }
     }
 
-    private static String formatIndividualPageLink(final String text, final String confluencePageTitle){
-        final SwaggerConfluenceConfig swaggerConfluenceConfig = SWAGGER_CONFLUENCE_CONFIG.get();
-
+    private static String formatIndividualPageLink(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                                   final String text, final String confluencePageTitle){
         return String.format(
                 "<ac:link>\n" +
                         "<ri:page ri:content-title=\"%s\" ri:space-key=\"%s\"/>" +
@@ -262,7 +594,8 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
                 swaggerConfluenceConfig.getSpaceKey(), text
         );
     }
-    private static Document parseXhtml(final String inputXhtml) {
+
+    static Document parseXhtml(final String inputXhtml) {
         final Document originalDocument = Jsoup.parse(inputXhtml, "utf-8", Parser.xmlParser());
         originalDocument.outputSettings().prettyPrint(false);
         originalDocument.outputSettings().escapeMode(xhtml);
@@ -271,21 +604,56 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
         return originalDocument;
     }
 
-    private static List<ConfluencePage> handlePagination() {
-        final List<ConfluencePage> confluencePages = new ArrayList<>();
-        final SwaggerConfluenceConfig swaggerConfluenceConfig = SWAGGER_CONFLUENCE_CONFIG.get();
+    private static Document buildPageDocument(final List<Node> pageNodes) {
+        // Starting from an empty parse gives the page the same document setup as
+        // the original, so the moved nodes serialize exactly as they would have
+        // after a round trip through a String.
+        final Document pageDocument = parseXhtml("");
 
-        final PaginationMode paginationMode = swaggerConfluenceConfig.getPaginationMode();
+        for (final Node pageNode : pageNodes) {
+            pageDocument.appendChild(pageNode);
+        }
+
+        return pageDocument;
+    }
+
+    private static Document detachPageDocument(final Element pageElement) {
+        return buildPageDocument(new ArrayList<>(pageElement.childNodes()));
+    }
 
-        final Document originalDocument = SWAGGER_DOCUMENT.get();
-        final Document transformedDocument = originalDocument.clone();
+    private static Document copyPageDocument(final Elements pageElements) {
+        final List<Node> pageNodes = new ArrayList<>();
 
-        final Elements categoryElements = transformedDocument.select(".sect1");
+        for (final Element pageElement : pageElements) {
+            // Mirrors the newline Elements.html() places between each element
+            if (!pageNodes.isEmpty()) {
+                pageNodes.add(new TextNode("\n", ""));
+            }
+
+            for (final Node childNode : pageElement.childNodes()) {
+                pageNodes.add(childNode.clone());
+            }
+        }
+
+        return buildPageDocument(pageNodes);
+    }
 
-        // Remove ToC form the transformed document
-        final Elements toc = transformedDocument.select(".toc");
+    private static void removeTableOfContents(final Document document) {
+        final Elements toc = document.select(".toc");
         toc.html("");
         toc.unwrap();
+    }
+
+    static List<ConfluencePage> handlePagination(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                                 final Document swaggerDocument,
+                                                 final Map<String, ConfluenceLink> titleLinkMap) {
+        final List<ConfluencePage> confluencePages = new ArrayList<>();
+
+        final PaginationMode paginationMode = swaggerConfluenceConfig.getPaginationMode();
+
+        // Pages are built by detaching nodes from the one parsed document rather
+        // than from a full clone of it, so the table of contents pieces that are
+        // needed are taken before the ToC is stripped out of the document.
 
         // For Single Page Mode, the incoming XHTML can be used directly.
         if (paginationMode == SINGLE_PAGE) {
@@ -293,16 +661,16 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
                     .withPageType(PageType.ROOT)
                     .withOriginalTitle(swaggerConfluenceConfig.getTitle())
                     .withConfluenceTitle(
-                            buildConfluenceTitle(swaggerConfluenceConfig.getTitle(), null, null)
+                            buildConfluenceTitle(swaggerConfluenceConfig, swaggerConfluenceConfig.getTitle(),
+                                    null, null)
                     ).build();
 
-            if(swaggerConfluenceConfig.isIncludeTableOfContentsOnSinglePage()){
-                confluencePage.setXhtml(originalDocument.html());
-            }
-            else {
-                confluencePage.setXhtml(transformedDocument.html());
+            if(!swaggerConfluenceConfig.isIncludeTableOfContentsOnSinglePage()){
+                removeTableOfContents(swaggerDocument);
             }
 
+            confluencePage.setXhtml(reformatXHtml(swaggerConfluenceConfig, swaggerDocument, titleLinkMap));
+
             confluencePages.add(confluencePage);
 
             return confluencePages;
@@ -315,10 +683,10 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
 
         // From here on, if we're still proceeding then we know the meat of the document
         // will go in sub-pages. So for the master page, we will use the table of contents
-        final Elements tocElements = originalDocument.select(".toc");
+        final Elements tocElements = swaggerDocument.select(".toc");
 
         final List<String> innerTocXHtmlList = new ArrayList<>();
-        final Elements innerTocElements = originalDocument.select(".sectlevel2");
+        final Elements innerTocElements = swaggerDocument.select(".sectlevel2");
 
         for (final Element innerTocElement : innerTocElements) {
             // If we're in individual page mode, then we collect the inner ToCs
@@ -342,10 +710,16 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
         final ConfluencePage rootConfluencePage = ConfluencePageBuilder.aConfluencePage()
                 .withPageType(PageType.ROOT)
                 .withOriginalTitle(swaggerConfluenceConfig.getTitle())
-                .withConfluenceTitle(buildConfluenceTitle(swaggerConfluenceConfig.getTitle(), null, null))
-                .withXhtml(tocElements.html()).build();
+                .withConfluenceTitle(buildConfluenceTitle(swaggerConfluenceConfig,
+                        swaggerConfluenceConfig.getTitle(), null, null))
+                .withXhtml(reformatXHtml(swaggerConfluenceConfig, copyPageDocument(tocElements),
+                        titleLinkMap)).build();
         confluencePages.add(rootConfluencePage);
 
+        removeTableOfContents(swaggerDocument);
+
+        final Elements categoryElements = swaggerDocument.select(".sect1");
+
         int category = 1;
 
         // Now we process the category pages
@@ -360,8 +734,10 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
                 final ConfluencePage categoryConfluencePage = ConfluencePageBuilder.aConfluencePage()
                         .withPageType(PageType.CATEGORY)
                         .withOriginalTitle(categoryTitle)
-                        .withConfluenceTitle(buildConfluenceTitle(categoryTitle, category, null))
-                        .withXhtml(innerTocXHtmlList.get(category - 1)).build();
+                        .withConfluenceTitle(buildConfluenceTitle(swaggerConfluenceConfig, categoryTitle,
+                                category, null))
+                        .withXhtml(reformatXHtml(swaggerConfluenceConfig,
+                                parseXhtml(innerTocXHtmlList.get(category - 1)), titleLinkMap)).build();
                 confluencePages.add(categoryConfluencePage);
 
                 final Elements individualElements = categoryElement.getElementsByClass("sect2");
@@ -373,8 +749,10 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
                     final ConfluencePage individualConfluencePage = ConfluencePageBuilder.aConfluencePage()
                             .withPageType(INDIVIDUAL)
                             .withOriginalTitle(individualTitle)
-                            .withConfluenceTitle(buildConfluenceTitle(individualTitle, category, individual))
-                            .withXhtml(individualElement.html()).build();
+                            .withConfluenceTitle(buildConfluenceTitle(swaggerConfluenceConfig, individualTitle,
+                                    category, individual))
+                            .withXhtml(reformatXHtml(swaggerConfluenceConfig,
+                                    detachPageDocument(individualElement), titleLinkMap)).build();
                     confluencePages.add(individualConfluencePage);
 
                     individual++;
@@ -388,8 +766,9 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
             final ConfluencePage categoryConfluencePage = ConfluencePageBuilder.aConfluencePage()
                     .withPageType(PageType.CATEGORY)
                     .withOriginalTitle(categoryTitle)
-                    .withConfluenceTitle(buildConfluenceTitle(categoryTitle, category, null))
-                    .withXhtml(categoryElement.html()).build();
+                    .withConfluenceTitle(buildConfluenceTitle(swaggerConfluenceConfig, categoryTitle, category, null))
+                    .withXhtml(reformatXHtml(swaggerConfluenceConfig, detachPageDocument(categoryElement),
+                            titleLinkMap)).build();
             confluencePages.add(categoryConfluencePage);
 
             category++;
@@ -398,10 +777,9 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
         return confluencePages;
     }
 
-    private static String buildConfluenceTitle(final String originalTitle, final Integer category,
-                                        final Integer individual) {
-        final SwaggerConfluenceConfig swaggerConfluenceConfig = SWAGGER_CONFLUENCE_CONFIG.get();
-
+    private static String buildConfluenceTitle(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                               final String originalTitle, final Integer category,
+                                               final Integer individual) {
         final StringBuilder confluenceTitleBuilder = new StringBuilder();
 
         if (category != null && swaggerConfluenceConfig.isGenerateNumericPrefixes()) {
@@ -426,49 +804,154 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
         return confluenceTitleBuilder.toString();
     }
 
-    private void addExistingPageData(final ConfluencePage confluencePage) {
-        final SwaggerConfluenceConfig swaggerConfluenceConfig = SWAGGER_CONFLUENCE_CONFIG.get();
+    private Map<String, Map<String, Object>> lookupExistingPages(final PublishContext publishContext,
+                                                                 final List<ConfluencePage> confluencePages) {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = publishContext.getSwaggerConfluenceConfig();
 
         final HttpHeaders httpHeaders = buildHttpHeaders(swaggerConfluenceConfig.getAuthentication());
         final HttpEntity<String> requestEntity = new HttpEntity<>(httpHeaders);
 
-        final URI targetUrl = UriComponentsBuilder.fromUriString(swaggerConfluenceConfig.getConfluenceRestApiUrl())
-                .path("/content")
-                .queryParam(SPACE_KEY, swaggerConfluenceConfig.getSpaceKey())
-                .queryParam(TITLE, confluencePage.getConfluenceTitle())
-                .queryParam(EXPAND, "body.storage,version,ancestors")
-                .build()
-                .toUri();
+        final Map<String, Map<String, Object>> existingPageIndex = new HashMap<>();
+        final List<String> titles = new ArrayList<>();
 
-        final ResponseEntity<String> responseEntity = restTemplate.exchange(targetUrl,
-                HttpMethod.GET, requestEntity, String.class);
+        for (final ConfluencePage confluencePage : confluencePages) {
+            titles.add(confluencePage.getConfluenceTitle());
+        }
 
-        final String jsonBody = responseEntity.getBody();
+        // The storage body is only needed when comparing content to skip unchanged pages
+        final String expand = swaggerConfluenceConfig.isSkipUnchangedPages() ?
+                "body.storage,version,ancestors" : "version,ancestors";
+
+        int requestCount = 0;
+
+        // Titles are searched in batches to keep the CQL query within sane URL
+        // lengths, and each batch is paged through until Confluence reports that
+        // there are no further results.
+        for (int batchStart = 0; batchStart < titles.size(); batchStart += BULK_LOOKUP_BATCH_SIZE) {
+            final List<String> batchTitles = titles.subList(batchStart,
+                    Math.min(titles.size(), batchStart + BULK_LOOKUP_BATCH_SIZE));
+            final String cql = buildTitleSearchCql(swaggerConfluenceConfig.getSpaceKey(), batchTitles);
+
+            int start = 0;
+            boolean hasNext = true;
+
+            while (hasNext) {
+                final URI targetUrl = UriComponentsBuilder.fromUriString(swaggerConfluenceConfig.getConfluenceRestApiUrl())
+                        .path("/content/search")
+                        .queryParam("cql", cql)
+                        .queryParam(EXPAND, expand)
+                        .queryParam(START, start)
+                        .queryParam(LIMIT, BULK_LOOKUP_BATCH_SIZE)
+                        .build()
+                        .toUri();
+
+                final String jsonBody = exchangeForBody(publishContext, targetUrl, HttpMethod.GET, requestEntity);
+                requestCount++;
+
+                LOG.debug("SEARCH RESPONSE: {}", jsonBody);
+
+                final ConfluenceResponse response = ConfluenceResponse.parse(jsonBody);
+                final JSONArray results;
+
+                try {
+                    results = response.getResults();
+                } catch (final PathNotFoundException e) {
+                    throw new ConfluenceAPIException("Unexpected Search Response from Confluence!", e);
+                }
 
-        try {
-            LOG.debug("GET RESPONSE: {}", jsonBody);
+                for (final Object result : results) {
+                    final Map<String, Object> existingPage = (Map<String, Object>) result;
+                    existingPageIndex.put((String) existingPage.get(TITLE), existingPage);
+                }
 
-            final String id = JsonPath.read(jsonBody, "$.results[0].id");
-            final Integer version = JsonPath.read(jsonBody, "$.results[0].version.number");
+                start += results.size();
+                hasNext = !results.isEmpty() && response.hasNextLink();
+            }
+        }
+
+        LOG.info("Bulk Lookup Found {} of {} Pages Already Existing Using {} Requests",
+                existingPageIndex.size(), titles.size(), requestCount);
 
-            final JSONArray ancestors = JsonPath.read(jsonBody, "$.results[0].ancestors");
+        return existingPageIndex;
+    }
 
-            if (!ancestors.isEmpty()) {
+    private static String buildTitleSearchCql(final String spaceKey, final List<String> titles) {
+        final StringBuilder cqlBuilder = new StringBuilder();
+        cqlBuilder.append("space = ");
+        cqlBuilder.append(quoteCqlString(spaceKey));
+        cqlBuilder.append(" and type = page and title in (");
+
+        for (int i = 0; i < titles.size(); i++) {
+            if (i > 0) {
+                cqlBuilder.append(", ");
+            }
+
+            cqlBuilder.append(quoteCqlString(titles.get(i)));
+        }
+
+        cqlBuilder.append(')');
+
+        return cqlBuilder.toString();
+    }
+
+    private static String quoteCqlString(final String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    private void addExistingPageData(final PublishContext publishContext, final ConfluencePage confluencePage) {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = publishContext.getSwaggerConfluenceConfig();
+        final Map<String, Map<String, Object>> existingPageIndex = publishContext.getExistingPageIndex();
+
+        final Map<String, Object> existingSubtreePage =
+                publishContext.getExistingSubtreePage(confluencePage.getConfluenceTitle());
+        final Map<String, Object> existingPage;
+
+        if (existingSubtreePage != null) {
+            existingPage = existingSubtreePage;
+        } else if (existingPageIndex == null) {
+            // The storage body can be large, so it is only fetched when it is needed for diffing
+            existingPage = lookupExistingPage(publishContext, confluencePage.getConfluenceTitle(),
+                    swaggerConfluenceConfig.isSkipUnchangedPages());
+        } else {
+            existingPage = existingPageIndex.get(confluencePage.getConfluenceTitle());
+        }
+
+        if (existingPage != null) {
+            final String id = (String) existingPage.get(ID);
+            final Map<String, Object> version = (Map<String, Object>) existingPage.get("version");
+            final List<Object> ancestors = (List<Object>) existingPage.get("ancestors");
+
+            if (ancestors != null && !ancestors.isEmpty()) {
                 final Map<String, Object> lastAncestor = (Map<String, Object>) ancestors.get(ancestors.size() - 1);
                 final Integer ancestorId = Integer.valueOf((String) lastAncestor.get(ID));
 
-                LOG.debug("ANCESTORS: {} : {}, CHOSE -> {}", ancestors.getClass().getName(), ancestors, ancestorId);
-                confluencePage.setAncestorId(ancestorId);
+                // Existing pages are normally left wherever they live, so pages moved by
+                // hand stay put. A page still inside the previously published tree but
+                // under the wrong parent, such as an operation whose tag has changed,
+                // is moved to its new parent instead.
+                if (isMisplaced(publishContext, confluencePage, ancestorId)) {
+                    LOG.info("Page <{}> Has Moved From <{}> to <{}>!", confluencePage.getConfluenceTitle(),
+                            ancestorId, confluencePage.getAncestorId());
+                    confluencePage.setPageAction(PageAction.MOVE);
+                } else {
+                    LOG.debug("ANCESTORS: {} : {}, CHOSE -> {}", ancestors.getClass().getName(), ancestors, ancestorId);
+                    confluencePage.setAncestorId(ancestorId);
+                }
             }
 
             confluencePage.setId(id);
-            confluencePage.setVersion(version);
+            confluencePage.setVersion((Integer) version.get("number"));
             confluencePage.setExists(true);
 
+            final String existingStorageXHtml = getStorageXHtml(existingPage);
+
+            if (existingStorageXHtml != null && swaggerConfluenceConfig.isSkipUnchangedPages()) {
+                confluencePage.setExistingContentHash(hashStorageXHtml(existingStorageXHtml));
+            }
+
             LOG.info("Page <{} : {}> Already Exists, Performing an Update!", confluencePage.getId(),
                     confluencePage.getConfluenceTitle());
-
-        } catch (final PathNotFoundException e) {
+        } else {
             confluencePage.setExists(false);
 
             LOG.info("Page <{}> Does Not Exist, Creating a New Page!", confluencePage.getConfluenceTitle());
@@ -478,13 +961,7 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
             // does not do this automatically, and thus you would otherwise not be
             // able to navigate to the page unless you manually knew the URL
             if (confluencePage.getAncestorId() == null) {
-                final ConfluencePage spaceRootPage = ConfluencePageBuilder.aConfluencePage()
-                        .withConfluenceTitle(swaggerConfluenceConfig.getSpaceKey())
-                        .withOriginalTitle(swaggerConfluenceConfig.getSpaceKey())
-                        .build();
-                addExistingPageData(spaceRootPage);
-
-                final Integer spaceRootAncestorId = Integer.valueOf(spaceRootPage.getId());
+                final Integer spaceRootAncestorId = resolveSpaceHomePageId(publishContext);
 
                 LOG.info("ORPHAN PREVENTION FAIL SAFE: Using Space Root Ancestor Id {}",
                         spaceRootAncestorId);
@@ -494,6 +971,126 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
         }
     }
 
+    private Integer resolveSpaceHomePageId(final PublishContext publishContext) {
+        // Held for the lookup so that concurrent publishing threads needing the
+        // home page at the same moment still only ask the server for it once
+        synchronized (publishContext) {
+            Integer spaceHomePageId = publishContext.getSpaceHomePageId();
+
+            if (spaceHomePageId == null) {
+                spaceHomePageId = lookupSpaceHomePageId(publishContext);
+                publishContext.setSpaceHomePageId(spaceHomePageId);
+            }
+
+            return spaceHomePageId;
+        }
+    }
+
+    private Integer lookupSpaceHomePageId(final PublishContext publishContext) {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = publishContext.getSwaggerConfluenceConfig();
+        final String spaceKey = swaggerConfluenceConfig.getSpaceKey();
+        final String cacheKey = String.format("%s#%s", swaggerConfluenceConfig.getConfluenceRestApiUrl(), spaceKey);
+
+        final Integer cachedHomePageId = SPACE_METADATA_CACHE.getHomePageId(cacheKey);
+
+        if (cachedHomePageId != null) {
+            LOG.info("Using Cached Home Page Id for Space <{}>!", spaceKey);
+            return cachedHomePageId;
+        }
+
+        final HttpHeaders httpHeaders = buildHttpHeaders(swaggerConfluenceConfig.getAuthentication());
+        final HttpEntity<String> requestEntity = new HttpEntity<>(httpHeaders);
+
+        final URI targetUrl = UriComponentsBuilder.fromUriString(swaggerConfluenceConfig.getConfluenceRestApiUrl())
+                .path(String.format("/space/%s", spaceKey))
+                .queryParam(EXPAND, "homepage")
+                .build()
+                .toUri();
+
+        final String jsonBody;
+
+        try {
+            jsonBody = exchangeForBody(publishContext, targetUrl, HttpMethod.GET, requestEntity);
+        } catch (final HttpClientErrorException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                throw new ConfluenceAPIException(String.format("Unable to Locate Space <%s>", spaceKey), e);
+            }
+
+            throw e;
+        }
+
+        LOG.debug("GET RESPONSE: {}", jsonBody);
+
+        final Integer spaceHomePageId;
+
+        try {
+            spaceHomePageId = ConfluenceResponse.parse(jsonBody).getHomePageId();
+        } catch (final PathNotFoundException e) {
+            throw new ConfluenceAPIException(String.format("Unable to Locate Space Root Page for Space <%s>",
+                    spaceKey), e);
+        }
+
+        SPACE_METADATA_CACHE.putHomePageId(cacheKey, spaceHomePageId,
+                TimeUnit.SECONDS.toMillis(swaggerConfluenceConfig.getSpaceCacheTtlSeconds()));
+
+        return spaceHomePageId;
+    }
+
+    static void clearCache() {
+        SPACE_METADATA_CACHE.clear();
+    }
+
+    private static boolean isMisplaced(final PublishContext publishContext, final ConfluencePage confluencePage,
+                                       final Integer existingAncestorId) {
+        final Integer ancestorId = confluencePage.getAncestorId();
+
+        return confluencePage.getPageType() != PageType.ROOT && ancestorId != null &&
+                !ancestorId.equals(existingAncestorId) &&
+                publishContext.isInExistingSubtree(String.valueOf(existingAncestorId));
+    }
+
+    private static String getStorageXHtml(final Map<String, Object> existingPage) {
+        final Map<String, Object> body = (Map<String, Object>) existingPage.get("body");
+
+        if (body == null || body.get("storage") == null) {
+            return null;
+        }
+
+        return (String) ((Map<String, Object>) body.get("storage")).get("value");
+    }
+
+    private Map<String, Object> lookupExistingPage(final PublishContext publishContext,
+                                                   final String confluenceTitle, final boolean includeBody) {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = publishContext.getSwaggerConfluenceConfig();
+
+        final HttpHeaders httpHeaders = buildHttpHeaders(swaggerConfluenceConfig.getAuthentication());
+        final HttpEntity<String> requestEntity = new HttpEntity<>(httpHeaders);
+
+        final URI targetUrl = UriComponentsBuilder.fromUriString(swaggerConfluenceConfig.getConfluenceRestApiUrl())
+                .path("/content")
+                .queryParam(SPACE_KEY, swaggerConfluenceConfig.getSpaceKey())
+                .queryParam(TITLE, confluenceTitle)
+                .queryParam(EXPAND, includeBody ? "body.storage,version,ancestors" : "version,ancestors")
+                .build()
+                .toUri();
+
+        final String jsonBody = exchangeForBody(publishContext, targetUrl, HttpMethod.GET, requestEntity);
+
+        LOG.debug("GET RESPONSE: {}", jsonBody);
+
+        try {
+            final JSONArray results = ConfluenceResponse.parse(jsonBody).getResults();
+
+            if (results.isEmpty()) {
+                return null;
+            }
+
+            return (Map<String, Object>) results.get(0);
+        } catch (final PathNotFoundException e) {
+            return null;
+        }
+    }
+
     private static HttpHeaders buildHttpHeaders(final String confluenceAuthentication) {
         final HttpHeaders headers = new HttpHeaders();
         headers.set("Authorization", String.format("Basic %s", confluenceAuthentication));
@@ -503,56 +1100,245 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
         return headers;
     }
 
-    private static Integer getPageIdFromResponse(final HttpEntity<String> responseEntity) {
-        final String responseJson = responseEntity.getBody();
-        final JSONParser jsonParser = new JSONParser(DEFAULT_PERMISSIVE_MODE);
+    private String exchangeForBody(final PublishContext publishContext, final URI targetUrl,
+                                   final HttpMethod httpMethod, final HttpEntity<String> requestEntity) {
+        final PublishStatistics publishStatistics = publishContext.getPublishStatistics();
+        final ResponseEntity<String> responseEntity = publishContext.getRequestScheduler()
+                .exchange(targetUrl, httpMethod, requestEntity, publishStatistics);
+
+        final String responseBody = responseEntity.getBody();
+
+        publishStatistics.recordRequest(httpMethod.name(), getStatusCodeValue(responseEntity),
+                requestEntity.getBody(), responseBody);
+
+        return responseBody;
+    }
+
+    private static int getStatusCodeValue(final ResponseEntity<String> responseEntity) {
+        final HttpStatus statusCode = responseEntity.getStatusCode();
+        return statusCode == null ? 0 : statusCode.value();
+    }
 
+    private static Integer getPageIdFromResponse(final String responseJson) {
         try {
-            final JSONObject response = jsonParser.parse(responseJson, JSONObject.class);
-            return Integer.valueOf((String) response.get(ID));
-        } catch (ParseException e) {
+            return ConfluenceResponse.parse(responseJson).getId();
+        } catch (final PathNotFoundException e) {
             throw new ConfluenceAPIException("Error Parsing JSON Response from Confluence!", e);
         }
     }
 
-    private void cleanPages(final ConfluencePage targetPage){
-        final SwaggerConfluenceConfig swaggerConfluenceConfig = SWAGGER_CONFLUENCE_CONFIG.get();
+    private void indexExistingSubtree(final PublishContext publishContext, final ConfluencePage rootPage){
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = publishContext.getSwaggerConfluenceConfig();
 
-        if(swaggerConfluenceConfig.getPaginationMode() != PaginationMode.INDIVIDUAL_PAGES){
+        // A single page has no children of ours to move back or clean up. In
+        // category and individual page modes, pages can be moved out from under
+        // their parent, or left behind when a category or operation is removed.
+        if(swaggerConfluenceConfig.getPaginationMode() == PaginationMode.SINGLE_PAGE){
             return;
         }
 
         final HttpHeaders httpHeaders = buildHttpHeaders(swaggerConfluenceConfig.getAuthentication());
         final HttpEntity<String> requestEntity = new HttpEntity<>(httpHeaders);
 
-        final String path = String.format("/content/%s/child", targetPage.getId());
+        final String path = String.format("/content/%s/descendant/page", rootPage.getId());
+        final String expand = swaggerConfluenceConfig.isSkipUnchangedPages() ?
+                "body.storage,version,ancestors" : "version,ancestors";
+
+        publishContext.addExistingSubtreeRoot(rootPage.getId());
+
+        int start = 0;
+        int pageCount = 0;
+        boolean hasNext = true;
+
+        // The whole existing tree is paged through up front, as Confluence quietly
+        // caps each listing at its page size. This also answers the existence
+        // lookup for every page already in the tree without a request of its own.
+        while(hasNext){
+            final URI targetUrl = UriComponentsBuilder.fromUriString(swaggerConfluenceConfig.getConfluenceRestApiUrl())
+                    .path(path)
+                    .queryParam(EXPAND, expand)
+                    .queryParam(START, start)
+                    .queryParam(LIMIT, CHILD_LOOKUP_PAGE_SIZE)
+                    .build()
+                    .toUri();
+
+            final ConfluenceResponse response = ConfluenceResponse.parse(
+                    exchangeForBody(publishContext, targetUrl, HttpMethod.GET, requestEntity));
+            final JSONArray results;
+
+            try {
+                results = response.getResults();
+            } catch (final PathNotFoundException e) {
+                throw new ConfluenceAPIException("Unexpected Descendant Page Response from Confluence!", e);
+            }
 
-        final URI targetUrl = UriComponentsBuilder.fromUriString(swaggerConfluenceConfig.getConfluenceRestApiUrl())
-                .path(path)
-                .queryParam(EXPAND, "page")
-                .build()
-                .toUri();
+            for(final Object result : results){
+                final Map<String,Object> existingPage = (Map<String,Object>) result;
+                publishContext.addExistingSubtreePage((String) existingPage.get(ID),
+                        (String) existingPage.get(TITLE), existingPage);
+            }
+
+            pageCount += results.size();
+            start += results.size();
+            hasNext = !results.isEmpty() && response.hasNextLink();
+        }
+
+        LOG.info("Found {} Existing Pages Under <{} : {}>", pageCount, rootPage.getId(),
+                rootPage.getConfluenceTitle());
+    }
+
+    private void deleteStalePages(final PublishContext publishContext){
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = publishContext.getSwaggerConfluenceConfig();
+        final List<Map<String, Object>> existingPages = publishContext.getExistingSubtreePages();
+
+        if(existingPages.isEmpty()){
+            return;
+        }
+
+        final Set<String> publishedPageIds = readPreviouslyPublishedPageIds(swaggerConfluenceConfig);
+
+        if(publishedPageIds == null){
+            return;
+        }
+
+        // Anything left in the previously published tree that is not part of
+        // this publish is stale, but only pages the previous receipt shows we
+        // published are removed, and only when they hang off the root or
+        // another of our pages. Pages written by hand, whatever their title,
+        // and anything filed beneath them, are left alone.
+        final SortedMap<Integer, Map<String, String>> stalePagesByDepth =
+                new TreeMap<>(Collections.reverseOrder());
+        int stalePageCount = 0;
+
+        for(final Map<String, Object> existingPage : existingPages){
+            final String id = (String) existingPage.get(ID);
+            final String title = (String) existingPage.get(TITLE);
 
-        final ResponseEntity<String> responseEntity = restTemplate.exchange(targetUrl,
-                HttpMethod.GET, requestEntity, String.class);
+            if(publishContext.getPageTitles().contains(title) || !publishedPageIds.contains(id)){
+                continue;
+            }
+
+            final String parentId = getParentId(existingPage);
+
+            if(parentId == null ||
+                    !(publishContext.isExistingSubtreeRoot(parentId) || publishedPageIds.contains(parentId))){
+                LOG.info("Leaving Page <{} : {}> Alone, It Is Not Under a Published Page!", id, title);
+                continue;
+            }
+
+            final int depth = getAncestorCount(existingPage);
+            Map<String, String> stalePages = stalePagesByDepth.get(depth);
+
+            if(stalePages == null){
+                stalePages = new LinkedHashMap<>();
+                stalePagesByDepth.put(depth, stalePages);
+            }
+
+            stalePages.put(id, title);
+            stalePageCount++;
+        }
+
+        if(stalePageCount == 0){
+            return;
+        }
+
+        if(swaggerConfluenceConfig.isDryRun()){
+            for(final Map<String, String> stalePages : stalePagesByDepth.values()){
+                for(final Map.Entry<String, String> stalePage : stalePages.entrySet()){
+                    LOG.info("Dry Run: Would DELETE Page <{}>!", stalePage.getValue());
+                    publishContext.getPublishStatistics().getPlan().recordPage(stalePage.getValue(),
+                            stalePage.getKey(), PageAction.DELETE, null);
+                }
+            }
+
+            return;
+        }
+
+        LOG.info("Deleting {} Stale Pages!", stalePageCount);
+
+        // Deepest pages go first, a whole level at a time, so that no stale page
+        // is re-parented by Confluence only to be deleted a moment later
+        for(final Map<String, String> stalePages : stalePagesByDepth.values()){
+            final int publishParallelism = Math.min(swaggerConfluenceConfig.getPublishParallelism(),
+                    stalePages.size());
+
+            if(publishParallelism > 1){
+                deletePagesConcurrently(publishContext, stalePages, publishParallelism);
+            }
+            else {
+                for(final Map.Entry<String, String> stalePage : stalePages.entrySet()){
+                    deletePage(publishContext, stalePage.getKey(), stalePage.getValue());
+                }
+            }
+        }
+    }
+
+    // The receipt is only written once a publish finishes, so while publishing
+    // it still describes the pages the previous run left behind
+    private static Set<String> readPreviouslyPublishedPageIds(final SwaggerConfluenceConfig swaggerConfluenceConfig){
+        final String receiptPath = swaggerConfluenceConfig.getReceiptPath();
+
+        if(receiptPath == null){
+            LOG.info("No Publish Receipt Configured, Not Deleting Stale Pages!");
+            return null;
+        }
+
+        final Path path = Paths.get(receiptPath).toAbsolutePath();
+
+        if(!Files.isRegularFile(path)){
+            LOG.info("No Previous Publish Receipt at {}, Not Deleting Stale Pages!", path);
+            return null;
+        }
+
+        try {
+            return PublishReceipt.readPageIds(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+        } catch (final IOException | InvalidJsonException | PathNotFoundException e) {
+            LOG.warn("Unable to Read Previous Publish Receipt <{}>, Not Deleting Stale Pages!", path, e);
+            return null;
+        }
+    }
+
+    private static String getParentId(final Map<String, Object> existingPage){
+        final List<Object> ancestors = (List<Object>) existingPage.get("ancestors");
+
+        if(ancestors == null || ancestors.isEmpty()){
+            return null;
+        }
+
+        return (String) ((Map<String, Object>) ancestors.get(ancestors.size() - 1)).get(ID);
+    }
+
+    private static int getAncestorCount(final Map<String, Object> existingPage){
+        final List<Object> ancestors = (List<Object>) existingPage.get("ancestors");
+        return ancestors == null ? 0 : ancestors.size();
+    }
 
-        final String jsonBody = responseEntity.getBody();
-        final JSONArray jsonArray = JsonPath.read(jsonBody, "$.page.results");
+    private void deletePagesConcurrently(final PublishContext publishContext, final Map<String, String> stalePages,
+                                         final int publishParallelism){
+        final ExecutorService executorService = Executors.newFixedThreadPool(publishParallelism,
+                new PublishThreadFactory());
 
-        final Iterator<Object> iterator = jsonArray.iterator();
+        try {
+            final List<Future<?>> deleteFutures = new ArrayList<>();
+
+            for(final Map.Entry<String, String> stalePage : stalePages.entrySet()){
+                deleteFutures.add(executorService.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        deletePage(publishContext, stalePage.getKey(), stalePage.getValue());
+                    }
+                }));
+            }
 
-        // This matching is designed to make sure we only clean out pages that
-        // were created by Swagger Confluence by carefully matching the names.
-        while(iterator.hasNext()){
-            final Map<String,Object> page = (Map<String,Object>) iterator.next();
-            final String id = (String) page.get(ID);
-            final String title = (String) page.get(TITLE);
-            deletePage(id, title);
+            awaitPublishTasks(deleteFutures);
+        } finally {
+            executorService.shutdownNow();
         }
     }
 
-    private void deletePage(final String pageId, final String title){
-        final SwaggerConfluenceConfig swaggerConfluenceConfig = SWAGGER_CONFLUENCE_CONFIG.get();
+    private void deletePage(final PublishContext publishContext, final String pageId, final String title){
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = publishContext.getSwaggerConfluenceConfig();
+        final PublishStatistics publishStatistics = publishContext.getPublishStatistics();
 
         final HttpHeaders httpHeaders = buildHttpHeaders(swaggerConfluenceConfig.getAuthentication());
         final HttpEntity<String> requestEntity = new HttpEntity<>(httpHeaders);
@@ -568,8 +1354,10 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
         final ResponseEntity<String> responseEntity;
 
         try {
-            responseEntity = restTemplate.exchange(targetUrl,
-                    HttpMethod.DELETE, requestEntity, String.class);
+            responseEntity = publishContext.getRequestScheduler().exchange(targetUrl,
+                    HttpMethod.DELETE, requestEntity, publishStatistics);
+            publishStatistics.recordRequest(HttpMethod.DELETE.name(),
+                    getStatusCodeValue(responseEntity), null, null);
         }
         catch(final HttpClientErrorException e){
             throw new ConfluenceAPIException(String.format("Failed to Clean Page -> %s : %s",
@@ -578,6 +1366,7 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
 
         if(responseEntity.getStatusCode() == HttpStatus.NO_CONTENT) {
             LOG.info("Cleaned Path Page -> {} : {}", pageId, title);
+            publishStatistics.recordPageDeleted(title);
         }
         else {
             throw new ConfluenceAPIException(String.format("Failed to Clean Page -> %s : %s",
@@ -585,32 +1374,33 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
         }
     }
 
-    private void createPage(final ConfluencePage page, final Map<String, ConfluenceLink> confluenceLinkMap) {
-        final SwaggerConfluenceConfig swaggerConfluenceConfig = SWAGGER_CONFLUENCE_CONFIG.get();
+    private void createPage(final PublishContext publishContext, final ConfluencePage page,
+                            final String formattedXHtml) {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = publishContext.getSwaggerConfluenceConfig();
         final URI targetUrl = UriComponentsBuilder.fromUriString(swaggerConfluenceConfig.getConfluenceRestApiUrl())
                 .path("/content")
                 .build()
                 .toUri();
 
         final HttpHeaders httpHeaders = buildHttpHeaders(swaggerConfluenceConfig.getAuthentication());
-        final String formattedXHtml = reformatXHtml(page.getXhtml(), confluenceLinkMap);
-        final String jsonPostBody = buildPostBody(page.getAncestorId(), page.getConfluenceTitle(), formattedXHtml).toJSONString();
+        final String jsonPostBody = buildPostBody(swaggerConfluenceConfig, page.getAncestorId(),
+                page.getConfluenceTitle(), formattedXHtml).toJSONString();
 
         LOG.debug("CREATE PAGE REQUEST: {}", jsonPostBody);
 
         final HttpEntity<String> requestEntity = new HttpEntity<>(jsonPostBody, httpHeaders);
 
-        final HttpEntity<String> responseEntity = restTemplate.exchange(targetUrl,
-                HttpMethod.POST, requestEntity, String.class);
+        final String responseBody = exchangeForBody(publishContext, targetUrl, HttpMethod.POST, requestEntity);
 
-        LOG.debug("CREATE PAGE RESPONSE: {}", responseEntity.getBody());
+        LOG.debug("CREATE PAGE RESPONSE: {}", responseBody);
 
-        final Integer pageId = getPageIdFromResponse(responseEntity);
+        final Integer pageId = getPageIdFromResponse(responseBody);
         page.setAncestorId(pageId);
     }
 
-    private void updatePage(final ConfluencePage page, final Map<String, ConfluenceLink> confluenceLinkMap) {
-        final SwaggerConfluenceConfig swaggerConfluenceConfig = SWAGGER_CONFLUENCE_CONFIG.get();
+    private void updatePage(final PublishContext publishContext, final ConfluencePage page,
+                            final String formattedXHtml) {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = publishContext.getSwaggerConfluenceConfig();
 
         final URI targetUrl = UriComponentsBuilder.fromUriString(swaggerConfluenceConfig.getConfluenceRestApiUrl())
                 .path(String.format("/content/%s", page.getId()))
@@ -618,30 +1408,74 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
                 .toUri();
 
         final HttpHeaders httpHeaders = buildHttpHeaders(swaggerConfluenceConfig.getAuthentication());
+        final int maxRetries = publishContext.getRequestScheduler().getMaxRetries();
+
+        String responseBody = null;
+        int conflicts = 0;
+
+        while (responseBody == null) {
+            final JSONObject postVersionObject = new JSONObject();
+            postVersionObject.put("number", page.getVersion() + 1);
+
+            final JSONObject postBody = buildPostBody(swaggerConfluenceConfig, page.getAncestorId(),
+                    page.getConfluenceTitle(), formattedXHtml);
+            postBody.put(ID, page.getId());
+            postBody.put("version", postVersionObject);
 
-        final JSONObject postVersionObject = new JSONObject();
-        postVersionObject.put("number", page.getVersion() + 1);
+            final HttpEntity<String> requestEntity = new HttpEntity<>(postBody.toJSONString(), httpHeaders);
 
-        final String formattedXHtml = reformatXHtml(page.getXhtml(), confluenceLinkMap);
-        final JSONObject postBody = buildPostBody(page.getAncestorId(), page.getConfluenceTitle(), formattedXHtml);
-        postBody.put(ID, page.getId());
-        postBody.put("version", postVersionObject);
+            LOG.debug("UPDATE PAGE REQUEST: {}", postBody);
 
-        final HttpEntity<String> requestEntity = new HttpEntity<>(postBody.toJSONString(), httpHeaders);
+            try {
+                responseBody = exchangeForBody(publishContext, targetUrl, HttpMethod.PUT, requestEntity);
+            } catch (final HttpClientErrorException e) {
+                // Someone else saved the page since we looked it up, so we retry
+                // on top of their version rather than failing the whole run
+                if (e.getStatusCode() != HttpStatus.CONFLICT || conflicts >= maxRetries) {
+                    throw e;
+                }
+
+                conflicts++;
 
-        LOG.debug("UPDATE PAGE REQUEST: {}", postBody);
+                LOG.warn("Version Conflict Updating Page <{} : {}>, Retrying Against the Latest Version!",
+                        page.getId(), page.getConfluenceTitle());
 
-        final HttpEntity<String> responseEntity = restTemplate.exchange(targetUrl, HttpMethod.PUT, requestEntity, String.class);
+                page.setVersion(lookupCurrentVersion(publishContext, page.getId()));
+                publishContext.getPublishStatistics().recordRetry(HttpMethod.PUT.name());
+            }
+        }
 
-        LOG.debug("UPDATE PAGE RESPONSE: {}", responseEntity.getBody());
+        LOG.debug("UPDATE PAGE RESPONSE: {}", responseBody);
 
-        final Integer pageId = getPageIdFromResponse(responseEntity);
+        final Integer pageId = getPageIdFromResponse(responseBody);
         page.setAncestorId(pageId);
     }
 
-    private static JSONObject buildPostBody(final Integer ancestorId, final String confluenceTitle, final String xhtml) {
-        final SwaggerConfluenceConfig swaggerConfluenceConfig = SWAGGER_CONFLUENCE_CONFIG.get();
+    private Integer lookupCurrentVersion(final PublishContext publishContext, final String pageId) {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = publishContext.getSwaggerConfluenceConfig();
+
+        final HttpHeaders httpHeaders = buildHttpHeaders(swaggerConfluenceConfig.getAuthentication());
+        final HttpEntity<String> requestEntity = new HttpEntity<>(httpHeaders);
+
+        final URI targetUrl = UriComponentsBuilder.fromUriString(swaggerConfluenceConfig.getConfluenceRestApiUrl())
+                .path(String.format("/content/%s", pageId))
+                .queryParam(EXPAND, "version")
+                .build()
+                .toUri();
+
+        final String jsonBody = exchangeForBody(publishContext, targetUrl, HttpMethod.GET, requestEntity);
+
+        try {
+            return ConfluenceResponse.parse(jsonBody).getVersionNumber();
+        } catch (final PathNotFoundException e) {
+            throw new ConfluenceAPIException(String.format("Unable to Determine Current Version of Page <%s>",
+                    pageId), e);
+        }
+    }
 
+    private static JSONObject buildPostBody(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                                            final Integer ancestorId, final String confluenceTitle,
+                                            final String xhtml) {
         final JSONObject jsonSpaceObject = new JSONObject();
         jsonSpaceObject.put("key", swaggerConfluenceConfig.getSpaceKey());
 
@@ -672,12 +1506,8 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
         return jsonObject;
     }
 
-    private static String reformatXHtml(final String inputXhtml, final Map<String, ConfluenceLink> confluenceLinkMap) {
-        final Document document = Jsoup.parse(inputXhtml, "utf-8", Parser.xmlParser());
-        document.outputSettings().prettyPrint(false);
-        document.outputSettings().escapeMode(xhtml);
-        document.outputSettings().charset("UTF-8");
-
+    static String reformatXHtml(final SwaggerConfluenceConfig swaggerConfluenceConfig, final Document document,
+                                final Map<String, ConfluenceLink> confluenceLinkMap) {
         final Elements linkElements = document.select("a");
 
         for (final Element linkElement : linkElements) {
@@ -703,8 +1533,6 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
         reformatXHtmlHeadings(document, "h3");
         reformatXHtmlHeadings(document, "#toctitle");
 
-        final SwaggerConfluenceConfig swaggerConfluenceConfig = SWAGGER_CONFLUENCE_CONFIG.get();
-
         if(swaggerConfluenceConfig.getPaginationMode()==PaginationMode.SINGLE_PAGE){
             if(swaggerConfluenceConfig.isIncludeTableOfContentsOnSinglePage()) {
                 reformatXHtmlBreakAfterElements(document, "#toc");
@@ -739,4 +1567,44 @@ public class XHtmlToConfluenceServiceImpl implements XHtmlToConfluenceService {
         }
     }
 
+    private class PublishPageTask implements Runnable {
+
+        private final PublishContext publishContext;
+        private final ConfluencePage confluencePage;
+        private final Integer ancestorId;
+
+        PublishPageTask(final PublishContext publishContext, final ConfluencePage confluencePage,
+                        final Integer ancestorId) {
+            this.publishContext = publishContext;
+            this.confluencePage = confluencePage;
+            this.ancestorId = ancestorId;
+        }
+
+        @Override
+        public void run() {
+            publishPage(publishContext, confluencePage, ancestorId);
+            afterPublish();
+        }
+
+        protected void afterPublish() {
+            // No Follow Up Work by Default
+        }
+
+    }
+
+    private static class PublishThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable,
+                    String.format("swagger-confluence-publisher-%d", threadCount.getAndIncrement()));
+            thread.setDaemon(true);
+
+            return thread;
+        }
+
+    }
+
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.util;
+
+import net.slkdev.swagger.confluence.exception.SwaggerConfluenceInternalSystemException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public final class HashUtils {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private HashUtils() {
+    }
+
+    public static String sha256Hex(final String value) {
+        return sha256Hex(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String sha256Hex(final byte[] value) {
+        return toHex(newSha256Digest().digest(value));
+    }
+
+    public static String sha256Hex(final File file) throws IOException {
+        final MessageDigest messageDigest = newSha256Digest();
+        final byte[] buffer = new byte[8192];
+
+        // Streamed so large schemas are never held in memory just to be hashed
+        try (final InputStream inputStream = new FileInputStream(file)) {
+            int read;
+
+            while ((read = inputStream.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, read);
+            }
+        }
+
+        return toHex(messageDigest.digest());
+    }
+
+    private static MessageDigest newSha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new SwaggerConfluenceInternalSystemException("SHA-256 Digest Is Not Available!", e);
+        }
+    }
+
+    private static String toHex(final byte[] digest) {
+        final char[] hex = new char[digest.length * 2];
+
+        for (int i = 0; i < digest.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0x0f];
+            hex[i * 2 + 1] = HEX_DIGITS[digest[i] & 0x0f];
+        }
+
+        return new String(hex);
+    }
+
+}
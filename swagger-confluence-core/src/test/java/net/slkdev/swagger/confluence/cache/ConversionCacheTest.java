@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ConversionCacheTest {
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted(){
+        final ConversionCache conversionCache = new ConversionCache(2, 100);
+
+        conversionCache.put("a", "1");
+        conversionCache.put("b", "2");
+        conversionCache.get("a");
+        conversionCache.put("c", "3");
+
+        assertNotNull("Recently Used Entry Should Be Retained", conversionCache.get("a"));
+        assertNull("Least Recently Used Entry Should Be Evicted", conversionCache.get("b"));
+        assertNotNull("Newest Entry Should Be Retained", conversionCache.get("c"));
+    }
+
+    @Test
+    public void testEntriesAreEvictedToStayWithinCharacterLimit(){
+        final ConversionCache conversionCache = new ConversionCache(10, 10);
+
+        conversionCache.put("a", "12345");
+        conversionCache.put("b", "12345");
+        conversionCache.put("c", "123");
+
+        assertNull("Oldest Entry Should Be Evicted", conversionCache.get("a"));
+        assertEquals("Unexpected Cached Character Count", 8, conversionCache.getTotalCharacters());
+    }
+
+    @Test
+    public void testOversizedValueIsNotCached(){
+        final ConversionCache conversionCache = new ConversionCache(10, 4);
+
+        conversionCache.put("a", "123");
+        conversionCache.put("b", "12345");
+
+        assertNull("Oversized Entry Should Not Be Cached", conversionCache.get("b"));
+        assertEquals("Existing Entry Should Be Retained", 1, conversionCache.size());
+    }
+
+    @Test
+    public void testReplacingAnEntryUpdatesCharacterCount(){
+        final ConversionCache conversionCache = new ConversionCache(10, 100);
+
+        conversionCache.put("a", "12345");
+        conversionCache.put("a", "12");
+
+        assertEquals("Unexpected Cached Character Count", 2, conversionCache.getTotalCharacters());
+    }
+
+}
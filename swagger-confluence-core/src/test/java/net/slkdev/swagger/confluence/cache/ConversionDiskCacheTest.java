@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.cache;
+
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import net.slkdev.swagger.confluence.constants.PageType;
+import net.slkdev.swagger.confluence.constants.PaginationMode;
+import net.slkdev.swagger.confluence.model.ConfluencePage;
+import net.slkdev.swagger.confluence.model.ConfluencePageBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+public class ConversionDiskCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ConversionDiskCache conversionDiskCache;
+
+    @Before
+    public void setUp(){
+        conversionDiskCache = new ConversionDiskCache(temporaryFolder.getRoot());
+    }
+
+    @Test
+    public void testMissingEntriesReturnNull(){
+        assertNull("Missing AsciiDoc Should Be Null", conversionDiskCache.getAsciiDoc("missing"));
+        assertNull("Missing XHTML Should Be Null", conversionDiskCache.getXHtml("missing"));
+        assertNull("Missing Pages Should Be Null", conversionDiskCache.getConfluencePages("missing"));
+    }
+
+    @Test
+    public void testConversionOutputRoundTrips(){
+        conversionDiskCache.putAsciiDoc("hash", "= Title");
+        conversionDiskCache.putXHtml("hash", "<h1>Title</h1>");
+
+        assertEquals("Unexpected Cached AsciiDoc", "= Title", conversionDiskCache.getAsciiDoc("hash"));
+        assertEquals("Unexpected Cached XHTML", "<h1>Title</h1>", conversionDiskCache.getXHtml("hash"));
+    }
+
+    @Test
+    public void testConfluencePagesRoundTrip(){
+        final ConfluencePage rootPage = ConfluencePageBuilder.aConfluencePage()
+                .withPageType(PageType.ROOT)
+                .withOriginalTitle("Title")
+                .withConfluenceTitle("Prefix Title")
+                .withXhtml("<p>\"Root\" &amp; \u00e9</p>")
+                .build();
+        final ConfluencePage categoryPage = ConfluencePageBuilder.aConfluencePage()
+                .withPageType(PageType.CATEGORY)
+                .withOriginalTitle("Category")
+                .withConfluenceTitle("1. Prefix Category")
+                .withXhtml("<p>Category</p>")
+                .build();
+
+        conversionDiskCache.putConfluencePages("key", Arrays.asList(rootPage, categoryPage));
+
+        final List<ConfluencePage> confluencePages = conversionDiskCache.getConfluencePages("key");
+
+        assertEquals("Expected 2 Cached Pages", 2, confluencePages.size());
+        assertEquals("Unexpected Page Type", PageType.ROOT, confluencePages.get(0).getPageType());
+        assertEquals("Unexpected Original Title", "Title", confluencePages.get(0).getOriginalTitle());
+        assertEquals("Unexpected Confluence Title", "Prefix Title",
+                confluencePages.get(0).getConfluenceTitle());
+        assertEquals("Unexpected XHTML", rootPage.getXhtml(), confluencePages.get(0).getXhtml());
+        assertEquals("Unexpected Page Type", PageType.CATEGORY, confluencePages.get(1).getPageType());
+    }
+
+    @Test
+    public void testUnreadablePagesAreIgnored() throws IOException {
+        Files.write(temporaryFolder.getRoot().toPath().resolve("key.pages.json"),
+                "not json".getBytes(StandardCharsets.UTF_8));
+
+        assertNull("Unreadable Pages Should Be Ignored", conversionDiskCache.getConfluencePages("key"));
+    }
+
+    @Test
+    public void testPagesKeyDependsOnPaginationAndLinkSettings(){
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = new SwaggerConfluenceConfig();
+        swaggerConfluenceConfig.setTitle("Title");
+
+        swaggerConfluenceConfig.setSpaceKey("DOC");
+
+        final String singlePageKey = ConversionDiskCache.buildPagesKey("hash", swaggerConfluenceConfig);
+
+        swaggerConfluenceConfig.setAncestorId(42);
+
+        assertEquals("Ancestor Id Should Not Affect the Pages Key", singlePageKey,
+                ConversionDiskCache.buildPagesKey("hash", swaggerConfluenceConfig));
+
+        swaggerConfluenceConfig.setSpaceKey("OTHER");
+
+        // Links between pages carry the space key, so pages built for one space can't be reused in another
+        assertNotEquals("Space Key Should Affect the Pages Key", singlePageKey,
+                ConversionDiskCache.buildPagesKey("hash", swaggerConfluenceConfig));
+
+        swaggerConfluenceConfig.setSpaceKey("DOC");
+
+        swaggerConfluenceConfig.setPaginationMode(PaginationMode.INDIVIDUAL_PAGES);
+
+        assertNotEquals("Pagination Mode Should Affect the Pages Key", singlePageKey,
+                ConversionDiskCache.buildPagesKey("hash", swaggerConfluenceConfig));
+    }
+
+}
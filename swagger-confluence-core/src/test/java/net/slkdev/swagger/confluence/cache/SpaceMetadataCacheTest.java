@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SpaceMetadataCacheTest {
+
+    @Test
+    public void testCachedHomePageIdIsReturned(){
+        final SpaceMetadataCache spaceMetadataCache = new SpaceMetadataCache();
+
+        spaceMetadataCache.putHomePageId("DOC", 1277959, 60000L);
+
+        assertEquals("Expected Cached Home Page Id", Integer.valueOf(1277959),
+                spaceMetadataCache.getHomePageId("DOC"));
+        assertNull("Unknown Space Should Not Be Cached", spaceMetadataCache.getHomePageId("OTHER"));
+    }
+
+    @Test
+    public void testExpiredHomePageIdIsEvicted() throws InterruptedException {
+        final SpaceMetadataCache spaceMetadataCache = new SpaceMetadataCache();
+
+        spaceMetadataCache.putHomePageId("DOC", 1277959, 1L);
+        Thread.sleep(10L);
+
+        assertNull("Expired Entry Should Not Be Returned", spaceMetadataCache.getHomePageId("DOC"));
+        assertEquals("Expired Entry Should Be Evicted", 0, spaceMetadataCache.size());
+    }
+
+    @Test
+    public void testZeroTtlIsNotCached(){
+        final SpaceMetadataCache spaceMetadataCache = new SpaceMetadataCache();
+
+        spaceMetadataCache.putHomePageId("DOC", 1277959, 0L);
+
+        assertNull("Zero TTL Entry Should Not Be Cached", spaceMetadataCache.getHomePageId("DOC"));
+    }
+
+}
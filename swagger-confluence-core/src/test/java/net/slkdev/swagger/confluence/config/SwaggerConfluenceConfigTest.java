@@ -55,6 +55,42 @@ public class SwaggerConfluenceConfigTest {
                 swaggerConfluenceConfig.getAuthentication());
     }
 
+    @Test
+    public void testDefaultBulkPageLookup(){
+        assertFalse("Default Should \"false\"", swaggerConfluenceConfig.isBulkPageLookup());
+    }
+
+    @Test
+    public void testGetAndSetBulkPageLookup(){
+        swaggerConfluenceConfig.setBulkPageLookup(true);
+        assertTrue("Expected Bulk Page Lookup -> True",
+                swaggerConfluenceConfig.isBulkPageLookup());
+    }
+
+    @Test
+    public void testNoDefaultCacheDirectoryExists(){
+        assertNull("No Default Should Be Set", swaggerConfluenceConfig.getCacheDirectory());
+    }
+
+    @Test
+    public void testGetAndSetCacheDirectory(){
+        swaggerConfluenceConfig.setCacheDirectory("build/swagger-confluence-cache");
+        assertEquals("Expected Cache Directory -> build/swagger-confluence-cache",
+                "build/swagger-confluence-cache", swaggerConfluenceConfig.getCacheDirectory());
+    }
+
+    @Test
+    public void testNoDefaultMetricsReportPathExists(){
+        assertNull("No Default Should Be Set", swaggerConfluenceConfig.getMetricsReportPath());
+    }
+
+    @Test
+    public void testGetAndSetMetricsReportPath(){
+        swaggerConfluenceConfig.setMetricsReportPath("build/metrics.json");
+        assertEquals("Expected Metrics Report Path -> build/metrics.json",
+                "build/metrics.json", swaggerConfluenceConfig.getMetricsReportPath());
+    }
+
     @Test
     public void testNoDefaultConfluenceRestApiUrlExists(){
         assertNull("No Default Should Be Set", swaggerConfluenceConfig.getConfluenceRestApiUrl());
@@ -67,6 +103,23 @@ public class SwaggerConfluenceConfigTest {
                 swaggerConfluenceConfig.getConfluenceRestApiUrl());
     }
 
+    @Test
+    public void testDefaultConnectTimeout(){
+        assertEquals("Default Should Be 10000", 10000, swaggerConfluenceConfig.getConnectTimeout());
+    }
+
+    @Test
+    public void testGetAndSetConnectTimeout(){
+        swaggerConfluenceConfig.setConnectTimeout(500);
+        assertEquals("Expected Connect Timeout 500", 500,
+                swaggerConfluenceConfig.getConnectTimeout());
+    }
+
+    @Test(expected = SwaggerConfluenceConfigurationException.class)
+    public void testNegativeConnectTimeoutThrowsException(){
+        swaggerConfluenceConfig.setConnectTimeout(-1);
+    }
+
     @Test
     public void testDefaultGenerateNumericPrefixes(){
         assertTrue("Default Should \"true\"", swaggerConfluenceConfig.isGenerateNumericPrefixes());
@@ -91,6 +144,23 @@ public class SwaggerConfluenceConfigTest {
                 swaggerConfluenceConfig.isIncludeTableOfContentsOnSinglePage());
     }
 
+    @Test
+    public void testDefaultMaxConnectionsPerRoute(){
+        assertEquals("Default Should Be 10", 10, swaggerConfluenceConfig.getMaxConnectionsPerRoute());
+    }
+
+    @Test
+    public void testGetAndSetMaxConnectionsPerRoute(){
+        swaggerConfluenceConfig.setMaxConnectionsPerRoute(25);
+        assertEquals("Expected Max Connections Per Route 25", 25,
+                swaggerConfluenceConfig.getMaxConnectionsPerRoute());
+    }
+
+    @Test(expected = SwaggerConfluenceConfigurationException.class)
+    public void testMaxConnectionsPerRouteBelowOneThrowsException(){
+        swaggerConfluenceConfig.setMaxConnectionsPerRoute(0);
+    }
+
     @Test
     public void testDefaultPaginationModeIsSingle(){
         assertEquals("Default Should \"SINGLE_PAGE\"", PaginationMode.SINGLE_PAGE,
@@ -163,6 +233,219 @@ public class SwaggerConfluenceConfigTest {
                 "[P] ", swaggerConfluenceConfig.getPrefix());
     }
 
+    @Test
+    public void testDefaultPublishParallelismIsOne(){
+        assertEquals("Default Should Be 1", 1, swaggerConfluenceConfig.getPublishParallelism());
+    }
+
+    @Test
+    public void testGetAndSetPublishParallelism(){
+        swaggerConfluenceConfig.setPublishParallelism(4);
+        assertEquals("Expected Publish Parallelism 4", 4,
+                swaggerConfluenceConfig.getPublishParallelism());
+    }
+
+    @Test(expected = SwaggerConfluenceConfigurationException.class)
+    public void testPublishParallelismBelowOneThrowsException(){
+        swaggerConfluenceConfig.setPublishParallelism(0);
+    }
+
+    @Test
+    public void testDefaultSpecParallelismIsOne(){
+        assertEquals("Default Should Be 1", 1, swaggerConfluenceConfig.getSpecParallelism());
+    }
+
+    @Test
+    public void testGetAndSetSpecParallelism(){
+        swaggerConfluenceConfig.setSpecParallelism(4);
+        assertEquals("Expected Spec Parallelism 4", 4,
+                swaggerConfluenceConfig.getSpecParallelism());
+    }
+
+    @Test(expected = SwaggerConfluenceConfigurationException.class)
+    public void testSpecParallelismBelowOneThrowsException(){
+        swaggerConfluenceConfig.setSpecParallelism(0);
+    }
+
+    @Test
+    public void testDefaultSpaceCacheTtlIsZero(){
+        assertEquals("Default Should Be 0", 0, swaggerConfluenceConfig.getSpaceCacheTtlSeconds());
+    }
+
+    @Test
+    public void testGetAndSetSpaceCacheTtl(){
+        swaggerConfluenceConfig.setSpaceCacheTtlSeconds(300);
+        assertEquals("Expected Space Cache TTL 300", 300,
+                swaggerConfluenceConfig.getSpaceCacheTtlSeconds());
+    }
+
+    @Test(expected = SwaggerConfluenceConfigurationException.class)
+    public void testNegativeSpaceCacheTtlThrowsException(){
+        swaggerConfluenceConfig.setSpaceCacheTtlSeconds(-1);
+    }
+
+    @Test
+    public void testNoDefaultSpecsExist(){
+        assertTrue("No Default Specs Should Be Set", swaggerConfluenceConfig.getSpecs().isEmpty());
+    }
+
+    @Test
+    public void testAddSpec(){
+        final SwaggerConfluenceSpec spec = new SwaggerConfluenceSpec();
+        swaggerConfluenceConfig.addSpec(spec);
+        assertSame("Expected Added Spec", spec, swaggerConfluenceConfig.getSpecs().get(0));
+    }
+
+    @Test
+    public void testSetSpecsToNullLeavesNoSpecs(){
+        swaggerConfluenceConfig.setSpecs(null);
+        assertTrue("Expected No Specs", swaggerConfluenceConfig.getSpecs().isEmpty());
+    }
+
+    @Test
+    public void testForSpecOverridesSpecSettings(){
+        swaggerConfluenceConfig.setAncestorId(1);
+        swaggerConfluenceConfig.setPrefix("[SHARED]");
+        swaggerConfluenceConfig.setSpaceKey("DOC");
+        swaggerConfluenceConfig.setTitle("Shared");
+        swaggerConfluenceConfig.setPublishParallelism(4);
+
+        final SwaggerConfluenceSpec spec = new SwaggerConfluenceSpec();
+        spec.setAncestorId(2);
+        spec.setPrefix("[PETS]");
+        spec.setSwaggerSchema("petstore.yaml");
+        spec.setTitle("Pets");
+
+        final SwaggerConfluenceConfig specConfig = swaggerConfluenceConfig.forSpec(spec);
+
+        assertEquals("Expected Spec Ancestor Id", Integer.valueOf(2), specConfig.getAncestorId());
+        assertEquals("Expected Spec Prefix", "[PETS] ", specConfig.getPrefix());
+        assertEquals("Expected Spec Schema", "petstore.yaml", specConfig.getSwaggerSchema());
+        assertEquals("Expected Spec Title", "Pets", specConfig.getTitle());
+        assertEquals("Expected Shared Space Key", "DOC", specConfig.getSpaceKey());
+        assertEquals("Expected Shared Publish Parallelism", 4, specConfig.getPublishParallelism());
+        assertTrue("Expected No Nested Specs", specConfig.getSpecs().isEmpty());
+    }
+
+    @Test
+    public void testCopyLeavesOriginalUnchanged(){
+        final SwaggerConfluenceSpec spec = new SwaggerConfluenceSpec();
+        spec.setSwaggerSchema("petstore.yaml");
+
+        swaggerConfluenceConfig.setSpaceKey("DOC");
+        swaggerConfluenceConfig.setReceiptPath("build/receipt.json");
+        swaggerConfluenceConfig.setSpecParallelism(2);
+        swaggerConfluenceConfig.addSpec(spec);
+
+        final SwaggerConfluenceConfig copyConfig = swaggerConfluenceConfig.copy();
+
+        assertEquals("Expected Copied Space Key", "DOC", copyConfig.getSpaceKey());
+        assertEquals("Expected Copied Spec Parallelism", 2, copyConfig.getSpecParallelism());
+        assertEquals("Expected Copied Specs", 1, copyConfig.getSpecs().size());
+
+        copyConfig.setReceiptPath("/tmp/receipt.json");
+        copyConfig.setMetricsReportPath("/tmp/metrics.json");
+        copyConfig.addSpec(new SwaggerConfluenceSpec());
+
+        assertEquals("Original Receipt Path Changed", "build/receipt.json", swaggerConfluenceConfig.getReceiptPath());
+        assertNull("Original Metrics Report Path Changed", swaggerConfluenceConfig.getMetricsReportPath());
+        assertEquals("Original Specs Changed", 1, swaggerConfluenceConfig.getSpecs().size());
+    }
+
+    @Test
+    public void testForSpecFallsBackToSharedSettings(){
+        swaggerConfluenceConfig.setAncestorId(1);
+        swaggerConfluenceConfig.setPrefix("[SHARED]");
+        swaggerConfluenceConfig.setTitle("Shared");
+
+        final SwaggerConfluenceSpec spec = new SwaggerConfluenceSpec();
+        spec.setSwaggerSchema("petstore.yaml");
+
+        final SwaggerConfluenceConfig specConfig = swaggerConfluenceConfig.forSpec(spec);
+
+        assertEquals("Expected Shared Ancestor Id", Integer.valueOf(1), specConfig.getAncestorId());
+        assertEquals("Expected Shared Prefix", "[SHARED] ", specConfig.getPrefix());
+        assertEquals("Expected Shared Title", "Shared", specConfig.getTitle());
+    }
+
+    @Test
+    public void testForSpecCopiesDryRunSettings(){
+        swaggerConfluenceConfig.setDryRun(true);
+        swaggerConfluenceConfig.setPlanPath("build/plan.json");
+
+        final SwaggerConfluenceSpec spec = new SwaggerConfluenceSpec();
+        spec.setSwaggerSchema("petstore.yaml");
+
+        final SwaggerConfluenceConfig specConfig = swaggerConfluenceConfig.forSpec(spec);
+
+        assertTrue("Expected Shared Dry Run", specConfig.isDryRun());
+        assertEquals("Expected Shared Plan Path", "build/plan.json", specConfig.getPlanPath());
+    }
+
+    @Test
+    public void testDefaultDryRun(){
+        assertFalse("Default Should Not Be a Dry Run", swaggerConfluenceConfig.isDryRun());
+    }
+
+    @Test
+    public void testDefaultReadTimeout(){
+        assertEquals("Default Should Be 60000", 60000, swaggerConfluenceConfig.getReadTimeout());
+    }
+
+    @Test
+    public void testGetAndSetReadTimeout(){
+        swaggerConfluenceConfig.setReadTimeout(1000);
+        assertEquals("Expected Read Timeout 1000", 1000,
+                swaggerConfluenceConfig.getReadTimeout());
+    }
+
+    @Test(expected = SwaggerConfluenceConfigurationException.class)
+    public void testNegativeReadTimeoutThrowsException(){
+        swaggerConfluenceConfig.setReadTimeout(-1);
+    }
+
+    @Test
+    public void testDefaultRequestsAreUnthrottled(){
+        assertEquals("Default Should Be 0", 0.0, swaggerConfluenceConfig.getMaxRequestsPerSecond(), 0.0);
+    }
+
+    @Test(expected = SwaggerConfluenceConfigurationException.class)
+    public void testNegativeMaxRequestsPerSecondThrowsException(){
+        swaggerConfluenceConfig.setMaxRequestsPerSecond(-1);
+    }
+
+    @Test
+    public void testDefaultMaxRetries(){
+        assertEquals("Default Should Be 3", 3, swaggerConfluenceConfig.getMaxRetries());
+    }
+
+    @Test(expected = SwaggerConfluenceConfigurationException.class)
+    public void testNegativeMaxRetriesThrowsException(){
+        swaggerConfluenceConfig.setMaxRetries(-1);
+    }
+
+    @Test
+    public void testDefaultRetryBackoff(){
+        assertEquals("Default Should Be 500", 500, swaggerConfluenceConfig.getRetryBackoffMillis());
+    }
+
+    @Test(expected = SwaggerConfluenceConfigurationException.class)
+    public void testNegativeRetryBackoffThrowsException(){
+        swaggerConfluenceConfig.setRetryBackoffMillis(-1);
+    }
+
+    @Test
+    public void testDefaultSkipUnchangedPages(){
+        assertFalse("Default Should \"false\"", swaggerConfluenceConfig.isSkipUnchangedPages());
+    }
+
+    @Test
+    public void testGetAndSetSkipUnchangedPages(){
+        swaggerConfluenceConfig.setSkipUnchangedPages(true);
+        assertTrue("Expected Skip Unchanged Pages -> True",
+                swaggerConfluenceConfig.isSkipUnchangedPages());
+    }
+
     @Test
     public void testNoDefaultSpaceKeyExists(){
         assertNull("No Default Should Be Set", swaggerConfluenceConfig.getSpaceKey());
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.config;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SwaggerConfluenceSpecTest {
+
+    private SwaggerConfluenceSpec swaggerConfluenceSpec;
+
+    @Before
+    public void setUp(){
+        swaggerConfluenceSpec = new SwaggerConfluenceSpec();
+    }
+
+    @Test
+    public void testNoDefaultsExist(){
+        assertNull("No Default Ancestor Id Should Be Set", swaggerConfluenceSpec.getAncestorId());
+        assertNull("No Default Prefix Should Be Set", swaggerConfluenceSpec.getPrefix());
+        assertNull("No Default Schema Should Be Set", swaggerConfluenceSpec.getSwaggerSchema());
+        assertNull("No Default Title Should Be Set", swaggerConfluenceSpec.getTitle());
+    }
+
+    @Test
+    public void testGetAndSetPrefixAppendsSpace(){
+        swaggerConfluenceSpec.setPrefix("[PETS]");
+        assertEquals("Expected Prefix \"[PETS] \"", "[PETS] ", swaggerConfluenceSpec.getPrefix());
+    }
+
+    @Test
+    public void testGetAndSetEmptyPrefix(){
+        swaggerConfluenceSpec.setPrefix("");
+        assertEquals("Expected Empty Prefix", "", swaggerConfluenceSpec.getPrefix());
+    }
+
+    @Test
+    public void testSetNullPrefixLeavesPrefixUnset(){
+        swaggerConfluenceSpec.setPrefix("[PETS]");
+        swaggerConfluenceSpec.setPrefix(null);
+        assertNull("Expected Prefix to Be Unset", swaggerConfluenceSpec.getPrefix());
+    }
+
+    @Test
+    public void testGetAndSetSwaggerSchema(){
+        swaggerConfluenceSpec.setSwaggerSchema("petstore.yaml");
+        assertEquals("Expected Schema petstore.yaml", "petstore.yaml",
+                swaggerConfluenceSpec.getSwaggerSchema());
+    }
+
+}
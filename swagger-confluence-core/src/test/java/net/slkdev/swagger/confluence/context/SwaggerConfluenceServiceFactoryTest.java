@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.context;
+
+import net.slkdev.swagger.confluence.service.impl.SwaggerToConfluenceServiceImpl;
+import net.slkdev.swagger.confluence.service.impl.XHtmlToConfluenceServiceImpl;
+import org.junit.Test;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SwaggerConfluenceServiceFactoryTest {
+
+    @Test
+    public void testServiceGraphIsWired(){
+        try (final SwaggerConfluenceServiceFactory swaggerConfluenceServiceFactory =
+                     new SwaggerConfluenceServiceFactory(false)) {
+            assertTrue("Expected SwaggerToConfluenceServiceImpl!",
+                    swaggerConfluenceServiceFactory.getSwaggerToConfluenceService()
+                            instanceof SwaggerToConfluenceServiceImpl);
+            assertTrue("Expected XHtmlToConfluenceServiceImpl!",
+                    swaggerConfluenceServiceFactory.getXHtmlToConfluenceService()
+                            instanceof XHtmlToConfluenceServiceImpl);
+        }
+    }
+
+    @Test
+    public void testServicesAreSharedAcrossCalls(){
+        try (final SwaggerConfluenceServiceFactory swaggerConfluenceServiceFactory =
+                     new SwaggerConfluenceServiceFactory(false)) {
+            assertSame("Expected a Single SwaggerToConfluenceService!",
+                    swaggerConfluenceServiceFactory.getSwaggerToConfluenceService(),
+                    swaggerConfluenceServiceFactory.getSwaggerToConfluenceService());
+        }
+    }
+
+}
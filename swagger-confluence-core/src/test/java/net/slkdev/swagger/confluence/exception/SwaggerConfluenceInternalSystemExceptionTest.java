@@ -35,4 +35,15 @@ public class SwaggerConfluenceInternalSystemExceptionTest {
                 swaggerConfluenceInternalSystemException.getCause());
     }
 
+    @Test
+    public void testSwaggerConfluenceInternalSystemExceptionWithMessageOnly(){
+        final String message = "message";
+
+        final SwaggerConfluenceInternalSystemException swaggerConfluenceInternalSystemException =
+                new SwaggerConfluenceInternalSystemException(message);
+
+        assertEquals("Expected Message Doesn't Match", message,
+                swaggerConfluenceInternalSystemException.getMessage());
+    }
+
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.http;
+
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.HttpContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.URI;
+
+import static org.junit.Assert.assertEquals;
+
+public class ConfluenceClientHttpRequestFactoryTest {
+
+    private ConfluenceClientHttpRequestFactory confluenceClientHttpRequestFactory;
+
+    @Before
+    public void setUp(){
+        confluenceClientHttpRequestFactory = new ConfluenceClientHttpRequestFactory();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        confluenceClientHttpRequestFactory.destroy();
+    }
+
+    @Test
+    public void testDefaultPoolSizes(){
+        assertEquals("Expected Default Max Per Route 10", 10,
+                confluenceClientHttpRequestFactory.getConnectionManager().getDefaultMaxPerRoute());
+        assertEquals("Expected Default Max Total 20", 20,
+                confluenceClientHttpRequestFactory.getConnectionManager().getMaxTotal());
+    }
+
+    @Test
+    public void testConstructorAppliesPoolSizes() throws Exception {
+        final ConfluenceClientHttpRequestFactory sizedRequestFactory = new ConfluenceClientHttpRequestFactory(50);
+
+        try {
+            assertEquals("Expected Max Per Route 50", 50,
+                    sizedRequestFactory.getConnectionManager().getDefaultMaxPerRoute());
+            assertEquals("Expected Max Total 50", 50, sizedRequestFactory.getConnectionManager().getMaxTotal());
+        } finally {
+            sizedRequestFactory.destroy();
+        }
+    }
+
+    @Test
+    public void testPublishTimeoutsAreAppliedPerRequest() throws Exception {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = new SwaggerConfluenceConfig();
+        swaggerConfluenceConfig.setConnectTimeout(1234);
+        swaggerConfluenceConfig.setReadTimeout(5678);
+        swaggerConfluenceConfig.setMaxConnectionsPerRoute(50);
+
+        final ClientHttpRequestFactory publishRequestFactory =
+                confluenceClientHttpRequestFactory.forConfig(swaggerConfluenceConfig);
+        final ClientHttpRequest clientHttpRequest =
+                publishRequestFactory.createRequest(URI.create("http://localhost/rest/api/content"), HttpMethod.GET);
+        final RequestConfig requestConfig = (RequestConfig) ((HttpContext) ReflectionTestUtils.getField(
+                clientHttpRequest, "httpContext")).getAttribute(HttpClientContext.REQUEST_CONFIG);
+
+        assertEquals("Expected Connect Timeout 1234", 1234, requestConfig.getConnectTimeout());
+        assertEquals("Expected Read Timeout 5678", 5678, requestConfig.getSocketTimeout());
+        assertEquals("Publish Should Not Resize the Shared Pool", 10,
+                confluenceClientHttpRequestFactory.getConnectionManager().getDefaultMaxPerRoute());
+    }
+
+}
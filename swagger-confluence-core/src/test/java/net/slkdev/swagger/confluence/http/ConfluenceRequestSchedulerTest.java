@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.http;
+
+import net.slkdev.swagger.confluence.metrics.PublishStatistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.internal.verification.VerificationModeFactory.times;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConfluenceRequestSchedulerTest {
+
+    private static final URI TARGET_URL = URI.create("https://localhost/confluence/rest/api/content");
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private ConfluenceRequestScheduler confluenceRequestScheduler;
+    private PublishStatistics publishStatistics;
+
+    @Before
+    public void setUp(){
+        confluenceRequestScheduler = new ConfluenceRequestScheduler(restTemplate,
+                new TokenBucketRateLimiter(0), 2, 1L, new Random(0));
+        publishStatistics = new PublishStatistics();
+    }
+
+    @Test
+    public void testThrottledRequestIsRetriedAfterRetryAfter(){
+        final ResponseEntity<String> responseEntity = new ResponseEntity<>("{}", HttpStatus.OK);
+
+        when(restTemplate.exchange(eq(TARGET_URL), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(buildClientError(HttpStatus.TOO_MANY_REQUESTS, "0"))
+                .thenReturn(responseEntity);
+
+        final ResponseEntity<String> result = confluenceRequestScheduler.exchange(TARGET_URL, HttpMethod.POST,
+                new HttpEntity<>("{}"), publishStatistics);
+
+        assertSame("Expected the Successful Response", responseEntity, result);
+        assertEquals("Expected One Retry", 1, publishStatistics.getRetries());
+        verify(restTemplate, times(2)).exchange(eq(TARGET_URL), eq(HttpMethod.POST),
+                any(HttpEntity.class), eq(String.class));
+    }
+
+    @Test
+    public void testUnavailableIdempotentRequestIsRetriedUntilExhausted(){
+        when(restTemplate.exchange(eq(TARGET_URL), eq(HttpMethod.GET), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        try {
+            confluenceRequestScheduler.exchange(TARGET_URL, HttpMethod.GET, new HttpEntity<String>(null, null),
+                    publishStatistics);
+            fail("Expected the Last Failure to Be Rethrown");
+        } catch (final HttpServerErrorException e) {
+            assertEquals("Unexpected Status", HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        }
+
+        assertEquals("Expected Every Retry to Be Used", 2, publishStatistics.getRetries());
+        verify(restTemplate, times(3)).exchange(eq(TARGET_URL), eq(HttpMethod.GET),
+                any(HttpEntity.class), eq(String.class));
+    }
+
+    @Test
+    public void testUnavailableCreateIsNotRetried(){
+        when(restTemplate.exchange(eq(TARGET_URL), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        try {
+            confluenceRequestScheduler.exchange(TARGET_URL, HttpMethod.POST, new HttpEntity<>("{}"),
+                    publishStatistics);
+            fail("Expected the Failure to Be Rethrown");
+        } catch (final HttpServerErrorException e) {
+            assertEquals("Unexpected Status", HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        }
+
+        assertEquals("Expected No Retries", 0, publishStatistics.getRetries());
+    }
+
+    @Test(expected = HttpClientErrorException.class)
+    public void testConflictIsLeftToTheCaller(){
+        when(restTemplate.exchange(eq(TARGET_URL), eq(HttpMethod.PUT), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.CONFLICT));
+
+        confluenceRequestScheduler.exchange(TARGET_URL, HttpMethod.PUT, new HttpEntity<>("{}"), publishStatistics);
+    }
+
+    @Test
+    public void testRetryAfterSecondsIsParsed(){
+        assertEquals("Expected Seconds in Millis", Long.valueOf(120000L),
+                ConfluenceRequestScheduler.parseRetryAfter("120"));
+    }
+
+    @Test
+    public void testRetryAfterDateIsParsed(){
+        final Long retryAfterMillis = ConfluenceRequestScheduler.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT");
+        assertEquals("Past Date Should Not Delay", Long.valueOf(0L), retryAfterMillis);
+    }
+
+    @Test
+    public void testUnrecognisedRetryAfterIsIgnored(){
+        assertNull("Expected No Delay", ConfluenceRequestScheduler.parseRetryAfter("soon"));
+    }
+
+    @Test
+    public void testBackoffGrowsExponentiallyWithJitter(){
+        final ConfluenceRequestScheduler backoffScheduler = new ConfluenceRequestScheduler(restTemplate,
+                new TokenBucketRateLimiter(0), 5, 100L, new Random(0));
+
+        for (int attempt = 0; attempt < 5; attempt++) {
+            final long exponentialMillis = 100L << attempt;
+            final long backoffMillis = backoffScheduler.getBackoffMillis(attempt);
+
+            assertTrue("Backoff Below Lower Bound", backoffMillis >= exponentialMillis / 2);
+            assertTrue("Backoff Above Upper Bound", backoffMillis <= exponentialMillis);
+        }
+    }
+
+    private static HttpClientErrorException buildClientError(final HttpStatus httpStatus, final String retryAfter) {
+        final HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.set("Retry-After", retryAfter);
+
+        return new HttpClientErrorException(httpStatus, httpStatus.getReasonPhrase(), httpHeaders,
+                new byte[0], StandardCharsets.UTF_8);
+    }
+
+}
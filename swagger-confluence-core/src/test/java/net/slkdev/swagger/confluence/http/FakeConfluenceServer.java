@@ -0,0 +1,601 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import net.minidev.json.JSONArray;
+import net.minidev.json.JSONObject;
+import net.minidev.json.JSONValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// An in-memory stand-in for the parts of the Confluence REST API used by
+// Swagger Confluence, served over real HTTP on the loopback interface.
+public class FakeConfluenceServer implements Closeable {
+
+    public static final String REST_API_PATH = "/rest/api";
+
+    private static final int DEFAULT_LIMIT = 25;
+
+    private static final Pattern CONTENT_ID_PATH = Pattern.compile("^/content/(\\d+)$");
+    private static final Pattern CHILD_PAGE_PATH = Pattern.compile("^/content/(\\d+)/child(?:/page)?$");
+    private static final Pattern DESCENDANT_PAGE_PATH = Pattern.compile("^/content/(\\d+)/descendant/page$");
+    private static final Pattern SPACE_PATH = Pattern.compile("^/space/([^/]+)$");
+    private static final Pattern CQL_STRING = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"");
+
+    private final HttpServer httpServer;
+    private final ExecutorService executorService;
+    private final String spaceKey;
+
+    private final Map<String, FakePage> pages = new LinkedHashMap<>();
+    private final AtomicInteger nextPageId = new AtomicInteger(1000);
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    private volatile long latencyMillis;
+    private volatile double errorRate;
+    private volatile double throttleRate;
+
+    private String spaceRootId;
+
+    public FakeConfluenceServer(final String spaceKey) throws IOException {
+        this.spaceKey = spaceKey;
+
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        executorService = Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger threadCount = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable,
+                        String.format("fake-confluence-%d", threadCount.getAndIncrement()));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        httpServer.setExecutor(executorService);
+        httpServer.createContext(REST_API_PATH, new RestApiHandler());
+
+        reset();
+    }
+
+    public void start() {
+        httpServer.start();
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        executorService.shutdownNow();
+    }
+
+    public String getRestApiUrl() {
+        return String.format("http://%s:%d%s", httpServer.getAddress().getAddress().getHostAddress(),
+                httpServer.getAddress().getPort(), REST_API_PATH);
+    }
+
+    public void setLatencyMillis(final long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    public void setErrorRate(final double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    // Throttled requests are answered 429 with a Retry-After of zero, as
+    // Confluence Cloud does when its rate limit is exceeded
+    public void setThrottleRate(final double throttleRate) {
+        this.throttleRate = throttleRate;
+    }
+
+    public synchronized void reset() {
+        pages.clear();
+        requestCount.set(0);
+
+        // Swagger Confluence falls back to the page titled after the space key
+        // as the ancestor of new pages, so the space always starts with one
+        spaceRootId = addPage(spaceKey, null, "").id;
+    }
+
+    public String getSpaceRootId() {
+        return spaceRootId;
+    }
+
+    public synchronized int getPageCount() {
+        return pages.size();
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    public synchronized Map<String, Object> getPage(final String title) {
+        final FakePage page = findByTitle(title);
+        return page == null ? null : toJson(page, true);
+    }
+
+    public synchronized void addChildPage(final String parentTitle, final String title, final String body) {
+        addPage(title, findByTitle(parentTitle).id, body);
+    }
+
+    public synchronized void movePage(final String title, final String parentTitle) {
+        findByTitle(title).parentId = findByTitle(parentTitle).id;
+    }
+
+    private FakePage addPage(final String title, final String parentId, final String body) {
+        final FakePage page = new FakePage(String.valueOf(nextPageId.getAndIncrement()), title, parentId, body);
+        pages.put(page.id, page);
+        return page;
+    }
+
+    private FakePage findByTitle(final String title) {
+        for (final FakePage page : pages.values()) {
+            if (page.title.equals(title)) {
+                return page;
+            }
+        }
+
+        return null;
+    }
+
+    private List<FakePage> findChildren(final String parentId) {
+        final List<FakePage> children = new ArrayList<>();
+
+        for (final FakePage page : pages.values()) {
+            if (parentId.equals(page.parentId)) {
+                children.add(page);
+            }
+        }
+
+        return children;
+    }
+
+    private List<FakePage> findDescendants(final String parentId) {
+        final List<FakePage> descendants = new ArrayList<>();
+
+        for (final FakePage child : findChildren(parentId)) {
+            descendants.add(child);
+            descendants.addAll(findDescendants(child.id));
+        }
+
+        return descendants;
+    }
+
+    private JSONObject toJson(final FakePage page, final boolean includeBody) {
+        final JSONObject space = new JSONObject();
+        space.put("key", spaceKey);
+
+        final JSONObject version = new JSONObject();
+        version.put("number", page.version);
+
+        final LinkedList<Object> ancestorList = new LinkedList<>();
+        String ancestorId = page.parentId;
+
+        while (ancestorId != null && pages.containsKey(ancestorId)) {
+            final FakePage ancestorPage = pages.get(ancestorId);
+            final JSONObject ancestor = new JSONObject();
+            ancestor.put("id", ancestorPage.id);
+            ancestor.put("type", "page");
+            ancestor.put("title", ancestorPage.title);
+            ancestorList.addFirst(ancestor);
+            ancestorId = ancestorPage.parentId;
+        }
+
+        final JSONArray ancestors = new JSONArray();
+        ancestors.addAll(ancestorList);
+
+        final JSONObject json = new JSONObject();
+        json.put("id", page.id);
+        json.put("type", "page");
+        json.put("status", "current");
+        json.put("title", page.title);
+        json.put("space", space);
+        json.put("version", version);
+        json.put("ancestors", ancestors);
+
+        if (includeBody) {
+            final JSONObject storage = new JSONObject();
+            storage.put("value", page.body);
+            storage.put("representation", "storage");
+
+            final JSONObject body = new JSONObject();
+            body.put("storage", storage);
+
+            json.put("body", body);
+        }
+
+        return json;
+    }
+
+    private JSONObject toResults(final List<FakePage> matches, final Map<String, String> query,
+                                 final String path) {
+        final boolean includeBody = expands(query, "body.storage");
+        final int start = intParameter(query, "start", 0);
+        final int limit = intParameter(query, "limit", DEFAULT_LIMIT);
+        final int end = Math.min(matches.size(), start + limit);
+
+        final JSONArray results = new JSONArray();
+
+        for (int i = start; i < end; i++) {
+            results.add(toJson(matches.get(i), includeBody));
+        }
+
+        final JSONObject links = new JSONObject();
+
+        if (end < matches.size()) {
+            links.put("next", String.format("%s%s?start=%d&limit=%d", REST_API_PATH, path, end, limit));
+        }
+
+        final JSONObject json = new JSONObject();
+        json.put("results", results);
+        json.put("start", start);
+        json.put("limit", limit);
+        json.put("size", results.size());
+        json.put("_links", links);
+
+        return json;
+    }
+
+    private synchronized Response route(final String method, final String path,
+                                        final Map<String, String> query, final String requestBody) {
+        if ("/content".equals(path)) {
+            if ("GET".equals(method)) {
+                final FakePage page = findByTitle(query.get("title"));
+                final List<FakePage> matches = page == null ?
+                        Collections.<FakePage>emptyList() : Collections.singletonList(page);
+                return Response.ok(toResults(matches, query, path));
+            }
+
+            if ("POST".equals(method)) {
+                return createPage((JSONObject) JSONValue.parse(requestBody));
+            }
+        }
+
+        if ("/content/search".equals(path) && "GET".equals(method)) {
+            return Response.ok(toResults(search(query.get("cql")), query, path));
+        }
+
+        final Matcher childMatcher = CHILD_PAGE_PATH.matcher(path);
+
+        if (childMatcher.matches() && "GET".equals(method)) {
+            final JSONObject children = toResults(findChildren(childMatcher.group(1)), query, path);
+
+            if (path.endsWith("/page")) {
+                return Response.ok(children);
+            }
+
+            final JSONObject json = new JSONObject();
+            json.put("page", children);
+            return Response.ok(json);
+        }
+
+        final Matcher descendantMatcher = DESCENDANT_PAGE_PATH.matcher(path);
+
+        if (descendantMatcher.matches() && "GET".equals(method)) {
+            return Response.ok(toResults(findDescendants(descendantMatcher.group(1)), query, path));
+        }
+
+        final Matcher spaceMatcher = SPACE_PATH.matcher(path);
+
+        if (spaceMatcher.matches() && "GET".equals(method)) {
+            if (!spaceKey.equals(spaceMatcher.group(1))) {
+                return Response.error(404, "No Space Found With the Given Key");
+            }
+
+            final JSONObject json = new JSONObject();
+            json.put("key", spaceKey);
+            json.put("name", spaceKey);
+            json.put("type", "global");
+
+            if (expands(query, "homepage")) {
+                json.put("homepage", toJson(pages.get(spaceRootId), false));
+            }
+
+            return Response.ok(json);
+        }
+
+        final Matcher contentMatcher = CONTENT_ID_PATH.matcher(path);
+
+        if (contentMatcher.matches()) {
+            final FakePage page = pages.get(contentMatcher.group(1));
+
+            if (page == null) {
+                return Response.error(404, "No Content Found With the Given Id");
+            }
+
+            switch (method) {
+                case "GET":
+                    return Response.ok(toJson(page, expands(query, "body.storage")));
+                case "PUT":
+                    return updatePage(page, (JSONObject) JSONValue.parse(requestBody));
+                case "DELETE":
+                    return deletePage(page);
+                default:
+                    break;
+            }
+        }
+
+        return Response.error(404, String.format("No Fake Resource for %s %s", method, path));
+    }
+
+    private List<FakePage> search(final String cql) {
+        final Matcher matcher = CQL_STRING.matcher(cql == null ? "" : cql);
+        final Set<String> titles = new HashSet<>();
+
+        // The first quoted string is the space key, the rest are titles
+        boolean first = true;
+
+        while (matcher.find()) {
+            if (first) {
+                first = false;
+                continue;
+            }
+
+            titles.add(matcher.group(1).replace("\\\"", "\"").replace("\\\\", "\\"));
+        }
+
+        final List<FakePage> matches = new ArrayList<>();
+
+        for (final FakePage page : pages.values()) {
+            if (titles.contains(page.title)) {
+                matches.add(page);
+            }
+        }
+
+        return matches;
+    }
+
+    private Response createPage(final JSONObject request) {
+        final String title = (String) request.get("title");
+
+        if (findByTitle(title) != null) {
+            return Response.error(400, "A page with this title already exists");
+        }
+
+        final FakePage page = addPage(title, getAncestorId(request), getStorageValue(request));
+
+        return Response.ok(toJson(page, false));
+    }
+
+    private Response updatePage(final FakePage page, final JSONObject request) {
+        final Map<String, Object> version = (Map<String, Object>) request.get("version");
+        final int requestedVersion = ((Number) version.get("number")).intValue();
+
+        if (requestedVersion != page.version + 1) {
+            return Response.error(409, String.format("Version must be incremented on update. " +
+                    "Current version is: %d", page.version));
+        }
+
+        final String title = (String) request.get("title");
+        final FakePage sameTitlePage = findByTitle(title);
+
+        if (sameTitlePage != null && sameTitlePage != page) {
+            return Response.error(400, "A page with this title already exists");
+        }
+
+        final String ancestorId = getAncestorId(request);
+
+        page.title = title;
+        page.body = getStorageValue(request);
+        page.version = requestedVersion;
+
+        if (ancestorId != null) {
+            page.parentId = ancestorId;
+        }
+
+        return Response.ok(toJson(page, false));
+    }
+
+    private Response deletePage(final FakePage page) {
+        pages.remove(page.id);
+
+        // As in Confluence, children of a deleted page move up to its parent
+        for (final FakePage child : findChildren(page.id)) {
+            child.parentId = page.parentId;
+        }
+
+        return Response.noContent();
+    }
+
+    private static String getAncestorId(final JSONObject request) {
+        final List<Object> ancestors = (List<Object>) request.get("ancestors");
+
+        if (ancestors == null || ancestors.isEmpty()) {
+            return null;
+        }
+
+        // Ancestor ids are sent as numbers by Swagger Confluence
+        return String.valueOf(((Map<String, Object>) ancestors.get(ancestors.size() - 1)).get("id"));
+    }
+
+    private static String getStorageValue(final JSONObject request) {
+        final Map<String, Object> body = (Map<String, Object>) request.get("body");
+        final Map<String, Object> storage = (Map<String, Object>) body.get("storage");
+        return (String) storage.get("value");
+    }
+
+    private static boolean expands(final Map<String, String> query, final String expansion) {
+        final String expand = query.get("expand");
+        return expand != null && Arrays.asList(expand.split(",")).contains(expansion);
+    }
+
+    private static int intParameter(final Map<String, String> query, final String name, final int defaultValue) {
+        final String value = query.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static Map<String, String> parseQuery(final String rawQuery) {
+        final Map<String, String> query = new HashMap<>();
+
+        if (rawQuery == null) {
+            return query;
+        }
+
+        for (final String parameter : rawQuery.split("&")) {
+            final int separator = parameter.indexOf('=');
+
+            if (separator < 0) {
+                query.put(percentDecode(parameter), "");
+            } else {
+                query.put(percentDecode(parameter.substring(0, separator)),
+                        percentDecode(parameter.substring(separator + 1)));
+            }
+        }
+
+        return query;
+    }
+
+    private static String percentDecode(final String value) {
+        // Unlike URLDecoder, a '+' is left alone as the client never encodes spaces as one
+        final ByteArrayOutputStream decoded = new ByteArrayOutputStream(value.length());
+
+        for (int i = 0; i < value.length(); i++) {
+            final char character = value.charAt(i);
+
+            if (character == '%' && i + 2 < value.length()) {
+                decoded.write(Integer.parseInt(value.substring(i + 1, i + 3), 16));
+                i += 2;
+            } else {
+                final byte[] bytes = String.valueOf(character).getBytes(StandardCharsets.UTF_8);
+                decoded.write(bytes, 0, bytes.length);
+            }
+        }
+
+        return new String(decoded.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String readBody(final InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+
+        while ((read = inputStream.read(buffer)) != -1) {
+            body.write(buffer, 0, read);
+        }
+
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private class RestApiHandler implements HttpHandler {
+
+        @Override
+        public void handle(final HttpExchange httpExchange) throws IOException {
+            requestCount.incrementAndGet();
+
+            try {
+                final String requestBody = readBody(httpExchange.getRequestBody());
+
+                if (latencyMillis > 0) {
+                    TimeUnit.MILLISECONDS.sleep(latencyMillis);
+                }
+
+                final Response response;
+
+                if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                    response = Response.error(503, "Injected Failure");
+                } else if (throttleRate > 0 && ThreadLocalRandom.current().nextDouble() < throttleRate) {
+                    httpExchange.getResponseHeaders().set("Retry-After", "0");
+                    response = Response.error(429, "Rate Limit Exceeded");
+                } else {
+                    final String path = httpExchange.getRequestURI().getPath().substring(REST_API_PATH.length());
+                    response = route(httpExchange.getRequestMethod(), path,
+                            parseQuery(httpExchange.getRequestURI().getRawQuery()), requestBody);
+                }
+
+                if (response.body == null) {
+                    httpExchange.sendResponseHeaders(response.status, -1);
+                } else {
+                    final byte[] responseBytes = response.body.getBytes(StandardCharsets.UTF_8);
+                    httpExchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+                    httpExchange.sendResponseHeaders(response.status, responseBytes.length);
+
+                    try (final OutputStream outputStream = httpExchange.getResponseBody()) {
+                        outputStream.write(responseBytes);
+                    }
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                httpExchange.close();
+            }
+        }
+
+    }
+
+    private static class Response {
+
+        private final int status;
+        private final String body;
+
+        private Response(final int status, final String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        private static Response ok(final JSONObject json) {
+            return new Response(200, json.toJSONString());
+        }
+
+        private static Response noContent() {
+            return new Response(204, null);
+        }
+
+        private static Response error(final int status, final String message) {
+            final JSONObject json = new JSONObject();
+            json.put("statusCode", status);
+            json.put("message", message);
+            return new Response(status, json.toJSONString());
+        }
+
+    }
+
+    private static class FakePage {
+
+        private final String id;
+        private String title;
+        private String parentId;
+        private String body;
+        private int version;
+
+        private FakePage(final String id, final String title, final String parentId, final String body) {
+            this.id = id;
+            this.title = title;
+            this.parentId = parentId;
+            this.body = body;
+            this.version = 1;
+        }
+
+    }
+
+}
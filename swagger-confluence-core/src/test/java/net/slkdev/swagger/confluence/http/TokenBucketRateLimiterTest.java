@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.http;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketRateLimiterTest {
+
+    @Test
+    public void testBurstIsServedImmediately(){
+        final TokenBucketRateLimiter tokenBucketRateLimiter = new TokenBucketRateLimiter(50);
+
+        final long startTime = System.nanoTime();
+
+        for (int i = 0; i < 50; i++) {
+            tokenBucketRateLimiter.acquire();
+        }
+
+        assertTrue("Burst Should Not Be Throttled",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) < 500);
+    }
+
+    @Test
+    public void testRequestsBeyondBurstAreThrottled(){
+        final TokenBucketRateLimiter tokenBucketRateLimiter = new TokenBucketRateLimiter(20);
+
+        final long startTime = System.nanoTime();
+
+        for (int i = 0; i < 25; i++) {
+            tokenBucketRateLimiter.acquire();
+        }
+
+        assertTrue("Requests Beyond the Burst Should Wait for Tokens",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) >= 200);
+    }
+
+    @Test
+    public void testPauseHoldsBackUnlimitedRequests(){
+        final TokenBucketRateLimiter tokenBucketRateLimiter = new TokenBucketRateLimiter(0);
+
+        tokenBucketRateLimiter.pause(100);
+
+        final long startTime = System.nanoTime();
+        tokenBucketRateLimiter.acquire();
+
+        assertTrue("Acquire Should Wait Out the Pause",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) >= 90);
+    }
+
+    @Test
+    public void testRateBacksOffAndRecovers(){
+        final TokenBucketRateLimiter tokenBucketRateLimiter = new TokenBucketRateLimiter(10);
+
+        tokenBucketRateLimiter.pause(0);
+        assertEquals("Rate Should Halve When Throttled", 5.0, tokenBucketRateLimiter.getPermitsPerSecond(), 0.001);
+
+        for (int i = 0; i < 20; i++) {
+            tokenBucketRateLimiter.recordSuccess();
+        }
+
+        assertEquals("Rate Should Recover to the Maximum", 10.0,
+                tokenBucketRateLimiter.getPermitsPerSecond(), 0.001);
+    }
+
+}
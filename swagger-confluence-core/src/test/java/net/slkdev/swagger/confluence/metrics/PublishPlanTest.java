@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.metrics;
+
+import com.jayway.jsonpath.JsonPath;
+import net.slkdev.swagger.confluence.constants.PageAction;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PublishPlanTest {
+
+    @Test
+    public void testPagesAreSortedByTitle(){
+        final PublishPlan publishPlan = new PublishPlan();
+
+        publishPlan.recordPage("b", "2", PageAction.UPDATE, "<p>b</p>");
+        publishPlan.recordPage("a", null, PageAction.CREATE, "<p>a</p>");
+
+        final String planJson = publishPlan.toJson();
+        final String firstTitle = JsonPath.read(planJson, "$.pages[0].title");
+        final String firstAction = JsonPath.read(planJson, "$.pages[0].action");
+        final String secondId = JsonPath.read(planJson, "$.pages[1].id");
+
+        assertEquals("Expected Pages Sorted by Title", "a", firstTitle);
+        assertEquals("Unexpected Page Action", "CREATE", firstAction);
+        assertEquals("Unexpected Page Id", "2", secondId);
+    }
+
+    @Test
+    public void testSummaryCountsActionsAndBytes(){
+        final PublishPlan publishPlan = new PublishPlan();
+
+        publishPlan.recordPage("a", null, PageAction.CREATE, "<p>a</p>");
+        publishPlan.recordPage("b", "2", PageAction.UPDATE, "<p>\u00e9</p>");
+        publishPlan.recordPage("c", "3", PageAction.DELETE, null);
+
+        assertEquals("Expected One Create", 1, publishPlan.getPageCount(PageAction.CREATE));
+        assertEquals("Expected One Delete", 1, publishPlan.getPageCount(PageAction.DELETE));
+        assertEquals("Expected No Moves", 0, publishPlan.getPageCount(PageAction.MOVE));
+        assertEquals("Expected UTF-8 Byte Sizes", 17L, publishPlan.getBytes());
+
+        final Integer plannedUpdates = JsonPath.read(publishPlan.toJson(), "$.summary.UPDATE");
+
+        assertEquals("Unexpected Planned Updates", Integer.valueOf(1), plannedUpdates);
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.metrics;
+
+import com.jayway.jsonpath.JsonPath;
+import net.slkdev.swagger.confluence.constants.PageAction;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class PublishReceiptTest {
+
+    @Test
+    public void testPagesAreSortedByTitle(){
+        final PublishReceipt publishReceipt = new PublishReceipt();
+
+        publishReceipt.recordPage("b", 2, PageAction.UPDATE, "hash-b");
+        publishReceipt.recordPage("a", 1, PageAction.CREATE, "hash-a");
+
+        final String receiptJson = publishReceipt.toJson();
+        final String firstTitle = JsonPath.read(receiptJson, "$.pages[0].title");
+        final String firstId = JsonPath.read(receiptJson, "$.pages[0].id");
+        final String firstAction = JsonPath.read(receiptJson, "$.pages[0].action");
+        final String secondHash = JsonPath.read(receiptJson, "$.pages[1].contentHash");
+
+        assertEquals("Expected Pages Sorted by Title", "a", firstTitle);
+        assertEquals("Unexpected Page Id", "1", firstId);
+        assertEquals("Unexpected Page Action", "CREATE", firstAction);
+        assertEquals("Unexpected Content Hash", "hash-b", secondHash);
+    }
+
+    @Test
+    public void testRepublishedPageReplacesEarlierEntry(){
+        final PublishReceipt publishReceipt = new PublishReceipt();
+
+        publishReceipt.recordPage("a", 1, PageAction.CREATE, "hash-1");
+        publishReceipt.recordPage("a", 1, PageAction.UPDATE, "hash-2");
+
+        final String contentHash = JsonPath.read(publishReceipt.toJson(), "$.pages[0].contentHash");
+
+        assertEquals("Expected One Entry per Page", 1, publishReceipt.size());
+        assertEquals("Expected the Latest Content Hash", "hash-2", contentHash);
+    }
+
+    @Test
+    public void testPageIdsAreReadBackFromReceipt(){
+        final PublishReceipt publishReceipt = new PublishReceipt();
+
+        publishReceipt.recordPage("a", 1, PageAction.CREATE, "hash-a");
+        publishReceipt.recordPage("b", 2, PageAction.UPDATE, "hash-b");
+        publishReceipt.recordPage("c", null, PageAction.SKIP, "hash-c");
+
+        assertEquals("Expected Every Recorded Page Id", new HashSet<>(Arrays.asList("1", "2")),
+                PublishReceipt.readPageIds(publishReceipt.toJson()));
+    }
+
+}
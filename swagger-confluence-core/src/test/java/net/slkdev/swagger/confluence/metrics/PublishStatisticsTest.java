@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.metrics;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class PublishStatisticsTest {
+
+    private PublishStatistics publishStatistics;
+
+    @Before
+    public void setUp(){
+        publishStatistics = new PublishStatistics();
+    }
+
+    @Test
+    public void testCountsStartAtZero(){
+        assertEquals("Expected No Pages Created", 0, publishStatistics.getPagesCreated());
+        assertEquals("Expected No Pages Updated", 0, publishStatistics.getPagesUpdated());
+        assertEquals("Expected No Pages Skipped", 0, publishStatistics.getPagesSkipped());
+    }
+
+    @Test
+    public void testRecordPageCounts(){
+        publishStatistics.recordPageCreated("a");
+        publishStatistics.recordPageUpdated("b");
+        publishStatistics.recordPageUpdated("c");
+        publishStatistics.recordPageSkipped("d");
+        publishStatistics.recordPageSkipped("e");
+        publishStatistics.recordPageSkipped("f");
+        publishStatistics.recordPageDeleted("g");
+        publishStatistics.recordPageMoved("h");
+
+        assertEquals("Expected 1 Page Created", 1, publishStatistics.getPagesCreated());
+        assertEquals("Expected 2 Pages Updated", 2, publishStatistics.getPagesUpdated());
+        assertEquals("Expected 3 Pages Skipped", 3, publishStatistics.getPagesSkipped());
+        assertEquals("Expected 1 Page Deleted", 1, publishStatistics.getPagesDeleted());
+        assertEquals("Expected 1 Page Moved", 1, publishStatistics.getPagesMoved());
+    }
+
+    @Test
+    public void testRecordRequestCountsUtf8Bytes(){
+        publishStatistics.recordRequest("PUT", 200, "abc", "\u00e9\u20ac");
+        publishStatistics.recordRequest("DELETE", 204, null, null);
+
+        assertEquals("Expected 2 Requests", 2, publishStatistics.getRequests());
+        assertEquals("Expected 3 Bytes Sent", 3L, publishStatistics.getBytesSent());
+        assertEquals("Expected 5 Bytes Received", 5L, publishStatistics.getBytesReceived());
+    }
+
+    @Test
+    public void testRecordRequestCountsByVerbAndStatus(){
+        publishStatistics.recordRequest("GET", 200, null, "{}");
+        publishStatistics.recordRequest("GET", 200, null, "{}");
+        publishStatistics.recordRequest("GET", 404, null, "{}");
+
+        assertEquals("Expected 2 GET 200 Requests", 2, publishStatistics.getRequests("GET", 200));
+        assertEquals("Expected 1 GET 404 Request", 1, publishStatistics.getRequests("GET", 404));
+        assertEquals("Expected No POST Requests", 0, publishStatistics.getRequests("POST", 200));
+    }
+
+    @Test
+    public void testRecordStageAccumulatesDuration(){
+        publishStatistics.recordStage(PublishStage.BUILD_PAGES, System.nanoTime() - 5000000L);
+
+        assertTrue("Expected At Least 5ms in the Build Pages Stage",
+                publishStatistics.getStageMillis(PublishStage.BUILD_PAGES) >= 5);
+        assertEquals("Expected No Time in the Publish Stage", 0,
+                publishStatistics.getStageMillis(PublishStage.PUBLISH_PAGES));
+    }
+
+    @Test
+    public void testEventsArePassedToListeners(){
+        final PublishMetricsListener listener = mock(PublishMetricsListener.class);
+        publishStatistics.addListener(listener);
+
+        publishStatistics.recordPageCreated("a");
+        publishStatistics.recordPageMoved("b");
+        publishStatistics.recordRequest("POST", 200, "abc", null);
+        publishStatistics.recordRetry("POST");
+
+        verify(listener).pageCreated("a");
+        verify(listener).pageMoved("b");
+        verify(listener).requestCompleted("POST", 200, 3L, 0L);
+        verify(listener).requestRetried("POST");
+    }
+
+    @Test
+    public void testJsonReportContainsAllSections(){
+        publishStatistics.recordPageCreated("a");
+        publishStatistics.recordRequest("POST", 200, "abc", "{}");
+        publishStatistics.recordStage(PublishStage.PUBLISH_PAGES, System.nanoTime());
+
+        final String report = publishStatistics.toJson();
+
+        assertEquals("Expected 1 Created Page in Report", 1,
+                (int) JsonPath.<Integer>read(report, "$.pages.created"));
+        assertEquals("Expected 1 POST 200 Request in Report", 1,
+                (int) JsonPath.<Integer>read(report, "$.requests.byVerbAndStatus['POST 200']"));
+        assertNotNull("Expected Publish Stage Timing in Report",
+                JsonPath.read(report, "$.stageMillis.PUBLISH_PAGES"));
+    }
+
+}
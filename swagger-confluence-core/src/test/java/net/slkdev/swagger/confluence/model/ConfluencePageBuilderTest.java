@@ -15,6 +15,7 @@
  */
 package net.slkdev.swagger.confluence.model;
 
+import net.slkdev.swagger.confluence.constants.PageAction;
 import net.slkdev.swagger.confluence.constants.PageType;
 import org.junit.Test;
 
@@ -25,8 +26,10 @@ public class ConfluencePageBuilderTest {
     private static final Integer ANCESTOR_ID = 1;
     private static final String CONFLUENCE_TITLE = "Confluence Title";
     private static final Boolean EXISTS = true;
+    private static final String EXISTING_CONTENT_HASH = "abc123";
     private static final String ID = "1";
     private static final String ORIGINAL_TITLE = "Original Title";
+    private static final PageAction PAGE_ACTION = PageAction.UPDATE;
     private static final PageType PAGE_TYPE = PageType.ROOT;
     private static final Integer VERSION = 1;
     private static final String XHTML = "<html></html>";
@@ -38,8 +41,10 @@ public class ConfluencePageBuilderTest {
                 .withPageType(PAGE_TYPE)
                 .withAncestorId(ANCESTOR_ID)
                 .withExists(EXISTS)
+                .withExistingContentHash(EXISTING_CONTENT_HASH)
                 .withId(ID)
                 .withOriginalTitle(ORIGINAL_TITLE)
+                .withPageAction(PAGE_ACTION)
                 .withVersion(VERSION)
                 .withXhtml(XHTML)
                 .build();
@@ -50,9 +55,13 @@ public class ConfluencePageBuilderTest {
                 confluencePage.getConfluenceTitle());
         assertEquals("Exists Doesn't Match!", EXISTS,
                 confluencePage.exists());
+        assertEquals("Existing Content Hash Doesn't Match!", EXISTING_CONTENT_HASH,
+                confluencePage.getExistingContentHash());
         assertEquals("Id Doesn't Match!", ID, confluencePage.getId());
         assertEquals("Original Title Doesn't Match!", ORIGINAL_TITLE,
                 confluencePage.getOriginalTitle());
+        assertEquals("Page Action Doesn't Match!", PAGE_ACTION,
+                confluencePage.getPageAction());
         assertEquals("Version Doesn't Match!", VERSION,
                 confluencePage.getVersion());
         assertEquals("XHTML Doesn't Match!", XHTML,
@@ -15,22 +15,29 @@
  */
 package net.slkdev.swagger.confluence.service.impl;
 
-import net.slkdev.swagger.confluence.service.AsciiDocToXHtmlService;
 import org.asciidoctor.internal.IOUtils;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 
 public class AsciiDocToXHtmlServiceImplTest {
 
-	private AsciiDocToXHtmlService asciiDocToXHtmlService;
+	private AsciiDocToXHtmlServiceImpl asciiDocToXHtmlService;
 
 	@Before
 	public void setUp(){
 		asciiDocToXHtmlService = new AsciiDocToXHtmlServiceImpl();
 	}
 
+	@After
+	public void tearDown(){
+		asciiDocToXHtmlService.shutdown();
+	}
+
 	@Test
 	public void testAsciiDocToXHtmlConversion(){
 		final String asciiDoc = IOUtils.readFull(
@@ -43,4 +50,40 @@ public class AsciiDocToXHtmlServiceImplTest {
 		assertNotNull("XHtml Output Should Not Be Null!", xhtml);
 
 	}
+
+	@Test
+	public void testRepeatedConversionsReuseEngine(){
+		final String asciiDoc = IOUtils.readFull(
+				AsciiDocToXHtmlServiceImplTest.class.getResourceAsStream(
+						"/swagger-petstore-asciidoc-example.adoc")
+		);
+
+		final String firstXhtml = asciiDocToXHtmlService.convertAsciiDocToXHtml(asciiDoc);
+		final String secondXhtml = asciiDocToXHtmlService.convertAsciiDocToXHtml(asciiDoc);
+
+		assertEquals("Repeated Conversions Should Produce Identical XHtml", firstXhtml, secondXhtml);
+	}
+
+	@Test
+	public void testConversionAfterShutdownRebootsEngine(){
+		final String asciiDoc = IOUtils.readFull(
+				AsciiDocToXHtmlServiceImplTest.class.getResourceAsStream(
+						"/swagger-petstore-asciidoc-example.adoc")
+		);
+
+		asciiDocToXHtmlService.warmUp();
+		asciiDocToXHtmlService.shutdown();
+
+		final String xhtml = asciiDocToXHtmlService.convertAsciiDocToXHtml(asciiDoc);
+
+		assertNotNull("XHtml Output Should Not Be Null!", xhtml);
+	}
+
+	@Test
+	public void testWarmUpAfterShutdownDoesNotBootEngine(){
+		asciiDocToXHtmlService.shutdown();
+		asciiDocToXHtmlService.warmUp();
+
+		assertFalse("Warm Up After Shutdown Should Not Boot an Engine!", asciiDocToXHtmlService.isBooted());
+	}
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.service.impl;
+
+import com.jayway.jsonpath.PathNotFoundException;
+import net.slkdev.swagger.confluence.exception.ConfluenceAPIException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConfluenceResponseTest {
+
+    private static final String RESULTS_RESPONSE = "{\"results\":[{\"id\":\"1277959\",\"title\":\"Test\"}]," +
+            "\"_links\":{\"next\":\"/rest/api/content?start=1\"}}";
+
+    @Test
+    public void testResultsAndNextLinkAreRead(){
+        final ConfluenceResponse confluenceResponse = ConfluenceResponse.parse(RESULTS_RESPONSE);
+
+        assertEquals("Expected One Result", 1, confluenceResponse.getResults().size());
+        assertTrue("Expected a Next Link", confluenceResponse.hasNextLink());
+    }
+
+    @Test
+    public void testMissingNextLink(){
+        assertFalse("Expected No Next Link", ConfluenceResponse.parse("{\"results\":[]}").hasNextLink());
+    }
+
+    @Test
+    public void testStringAndNumericIdsAreRead(){
+        assertEquals("Unexpected String Id", Integer.valueOf(1),
+                ConfluenceResponse.parse("{\"id\":\"1\"}").getId());
+        assertEquals("Unexpected Home Page Id", Integer.valueOf(2),
+                ConfluenceResponse.parse("{\"homepage\":{\"id\":2}}").getHomePageId());
+        assertEquals("Unexpected Version Number", Integer.valueOf(3),
+                ConfluenceResponse.parse("{\"version\":{\"number\":3}}").getVersionNumber());
+    }
+
+    @Test(expected = PathNotFoundException.class)
+    public void testMissingValueThrowsPathNotFound(){
+        ConfluenceResponse.parse("{}").getId();
+    }
+
+    @Test(expected = ConfluenceAPIException.class)
+    public void testEmptyResponseThrowsException(){
+        ConfluenceResponse.parse("");
+    }
+
+    @Test(expected = ConfluenceAPIException.class)
+    public void testInvalidResponseThrowsException(){
+        ConfluenceResponse.parse("<html>Not JSON</html>");
+    }
+
+    @Test(expected = ConfluenceAPIException.class)
+    public void testUnquotedTextResponseThrowsException(){
+        ConfluenceResponse.parse("Service Unavailable");
+    }
+
+    @Test(expected = ConfluenceAPIException.class)
+    public void testNonObjectResponseThrowsException(){
+        ConfluenceResponse.parse("\"text\"");
+    }
+
+}
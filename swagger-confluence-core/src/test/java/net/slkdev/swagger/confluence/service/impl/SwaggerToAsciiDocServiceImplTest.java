@@ -17,18 +17,50 @@ package net.slkdev.swagger.confluence.service.impl;
 
 import net.slkdev.swagger.confluence.service.SwaggerToAsciiDocService;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 public class SwaggerToAsciiDocServiceImplTest {
 
+	private static final String PETS_SCHEMA = "swagger: '2.0'\n" +
+			"info:\n" +
+			"  title: Pets\n" +
+			"  version: '1.0'\n" +
+			"paths:\n" +
+			"  /pets:\n" +
+			"    get:\n" +
+			"      responses:\n" +
+			"        '200':\n" +
+			"          description: OK\n" +
+			"          schema:\n" +
+			"            $ref: 'definitions.yaml#/Pet'\n";
+
+	private static final String PET_DEFINITIONS = "Pet:\n" +
+			"  type: object\n" +
+			"  properties:\n" +
+			"    %s:\n" +
+			"      type: string\n";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 	private SwaggerToAsciiDocService swaggerToAsciiDocService;
 
 	@Before
 	public void setUp(){
+		SwaggerToAsciiDocServiceImpl.clearCache();
 		swaggerToAsciiDocService = new SwaggerToAsciiDocServiceImpl();
 	}
 
@@ -43,9 +75,60 @@ public class SwaggerToAsciiDocServiceImplTest {
 		assertNotNull("Swagger Ascii Doc Should Not Be Null!", asciiDoc);
 	}
 
+	@Test
+	public void testRepeatedConversionOfUnchangedSchemaIsCached(){
+		final String asciiDoc = swaggerToAsciiDocService.convertSwaggerToAsciiDoc("/swagger-petstore-example.yaml");
+		final String cachedAsciiDoc = new SwaggerToAsciiDocServiceImpl().convertSwaggerToAsciiDoc(
+				"/swagger-petstore-example.yaml");
+
+		assertSame("Unchanged Schema Should Reuse the Cached Conversion", asciiDoc, cachedAsciiDoc);
+	}
+
+	@Test
+	public void testEditingReferencedFileInvalidatesCachedConversion() throws IOException {
+		final File schemaFile = writeSchema("pets.yaml", PETS_SCHEMA);
+		writeSchema("definitions.yaml", String.format(PET_DEFINITIONS, "name"));
+
+		final String asciiDoc = swaggerToAsciiDocService.convertSwaggerToAsciiDoc(schemaFile.getPath());
+
+		writeSchema("definitions.yaml", String.format(PET_DEFINITIONS, "nickname"));
+
+		final String editedAsciiDoc = swaggerToAsciiDocService.convertSwaggerToAsciiDoc(schemaFile.getPath());
+
+		assertNotSame("Edited Reference Should Not Reuse the Cached Conversion", asciiDoc, editedAsciiDoc);
+	}
+
+	@Test
+	public void testResolvedSchemaHashCoversReferencedFiles() throws IOException {
+		final File schemaFile = writeSchema("pets.yaml", PETS_SCHEMA);
+		writeSchema("definitions.yaml", String.format(PET_DEFINITIONS, "name"));
+
+		final String schemaHash = SwaggerToAsciiDocServiceImpl.hashResolvedSchema(schemaFile);
+
+		writeSchema("definitions.yaml", String.format(PET_DEFINITIONS, "nickname"));
+
+		assertNotEquals("Referenced File Should Affect the Schema Hash", schemaHash,
+				SwaggerToAsciiDocServiceImpl.hashResolvedSchema(schemaFile));
+	}
+
+	@Test
+	public void testSchemaWithRemoteReferenceHasNoHash() throws IOException {
+		final File schemaFile = writeSchema("pets.yaml",
+				PETS_SCHEMA.replace("definitions.yaml#/Pet", "https://example.com/definitions.yaml#/Pet"));
+
+		assertNull("Remote References Cannot Be Hashed", SwaggerToAsciiDocServiceImpl.hashResolvedSchema(schemaFile));
+	}
+
 	@Test(expected=RuntimeException.class)
 	public void testSwaggerToAsciiDocConversionWithInvalidFileThrowsException(){
 		swaggerToAsciiDocService.convertSwaggerToAsciiDoc("/non-existant.yaml");
 	}
 
+	private File writeSchema(final String fileName, final String schema) throws IOException {
+		final File schemaFile = new File(temporaryFolder.getRoot(), fileName);
+		Files.write(schemaFile.toPath(), schema.getBytes(StandardCharsets.UTF_8));
+
+		return schemaFile;
+	}
+
 }
@@ -15,21 +15,43 @@
  */
 package net.slkdev.swagger.confluence.service.impl;
 
+import com.jayway.jsonpath.JsonPath;
 import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceSpec;
 import net.slkdev.swagger.confluence.constants.PaginationMode;
 import net.slkdev.swagger.confluence.service.AsciiDocToXHtmlService;
 import net.slkdev.swagger.confluence.service.SwaggerToAsciiDocService;
 import net.slkdev.swagger.confluence.service.SwaggerToConfluenceService;
 import net.slkdev.swagger.confluence.service.XHtmlToConfluenceService;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
 @RunWith(MockitoJUnitRunner.class)
 public class SwaggerToConfluenceImplTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Mock
     private AsciiDocToXHtmlService asciiDocToXHtmlService;
 
@@ -82,4 +104,106 @@ public class SwaggerToConfluenceImplTest {
         swaggerConfluenceConfig.setSpaceKey(null);
         swaggerToConfluenceService.convertSwaggerToConfluence(swaggerConfluenceConfig);
     }
+
+    @Test(expected=NullPointerException.class)
+    public void testSpecSwaggerSchemaCannotBeNull(){
+        swaggerConfluenceConfig.addSpec(new SwaggerConfluenceSpec());
+        swaggerToConfluenceService.convertSwaggerToConfluence(swaggerConfluenceConfig);
+    }
+
+    @Test
+    public void testMultipleSpecsArePublished(){
+        swaggerConfluenceConfig.setSwaggerSchema(null);
+        swaggerConfluenceConfig.setSpecParallelism(2);
+        swaggerConfluenceConfig.addSpec(buildSpec("pets.yaml", "Pets"));
+        swaggerConfluenceConfig.addSpec(buildSpec("stores.yaml", "Stores"));
+        swaggerConfluenceConfig.addSpec(buildSpec("users.yaml", null));
+
+        swaggerToConfluenceService.convertSwaggerToConfluence(swaggerConfluenceConfig);
+
+        final ArgumentCaptor<SwaggerConfluenceConfig> specConfigCaptor =
+                ArgumentCaptor.forClass(SwaggerConfluenceConfig.class);
+
+        verify(swaggerToAsciiDocService, times(3)).convertSwaggerToAsciiDoc(anyString());
+        verify(xHtmlToConfluenceService, times(3)).buildConfluencePages(
+                specConfigCaptor.capture(), anyString());
+
+        final Set<String> titles = new HashSet<>();
+
+        for (final SwaggerConfluenceConfig specConfig : specConfigCaptor.getAllValues()) {
+            titles.add(specConfig.getTitle());
+        }
+
+        final Set<String> expectedTitles = new HashSet<>();
+        expectedTitles.add("Pets");
+        expectedTitles.add("Stores");
+        expectedTitles.add("Test");
+
+        assertEquals("Expected One Publish per Spec", expectedTitles, titles);
+    }
+
+    @Test
+    public void testPublishReceiptIsWritten() throws IOException {
+        final File receiptFile = new File(temporaryFolder.getRoot(), "receipt/receipt.json");
+        swaggerConfluenceConfig.setReceiptPath(receiptFile.getAbsolutePath());
+
+        swaggerToConfluenceService.convertSwaggerToConfluence(swaggerConfluenceConfig);
+
+        assertEquals("Unexpected Receipt", "{\"pages\":[]}",
+                new String(Files.readAllBytes(receiptFile.toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDryRunWritesPlanInsteadOfReceipt() throws IOException {
+        final File planFile = new File(temporaryFolder.getRoot(), "plan/plan.json");
+        final File receiptFile = new File(temporaryFolder.getRoot(), "receipt/receipt.json");
+        swaggerConfluenceConfig.setDryRun(true);
+        swaggerConfluenceConfig.setPlanPath(planFile.getAbsolutePath());
+        swaggerConfluenceConfig.setReceiptPath(receiptFile.getAbsolutePath());
+
+        swaggerToConfluenceService.convertSwaggerToConfluence(swaggerConfluenceConfig);
+
+        final String planJson = new String(Files.readAllBytes(planFile.toPath()), StandardCharsets.UTF_8);
+        final Integer plannedCreates = JsonPath.read(planJson, "$.summary.CREATE");
+
+        assertEquals("Unexpected Planned Creates", Integer.valueOf(0), plannedCreates);
+        assertFalse("Dry Run Should Not Write a Receipt", receiptFile.exists());
+    }
+
+    @Test
+    public void testEditingReferencedFileInvalidatesDiskCache() throws IOException {
+        final File schemaFile = temporaryFolder.newFile("pets.yaml");
+        final File definitionsFile = temporaryFolder.newFile("definitions.yaml");
+
+        Files.write(schemaFile.toPath(), ("swagger: '2.0'\n" +
+                "definitions:\n" +
+                "  Pet:\n" +
+                "    $ref: 'definitions.yaml#/Pet'\n").getBytes(StandardCharsets.UTF_8));
+        Files.write(definitionsFile.toPath(), "Pet:\n  type: object\n".getBytes(StandardCharsets.UTF_8));
+
+        when(swaggerToAsciiDocService.convertSwaggerToAsciiDoc(anyString())).thenReturn("= Pets");
+        when(asciiDocToXHtmlService.convertAsciiDocToXHtml(anyString())).thenReturn("<h1>Pets</h1>");
+
+        swaggerConfluenceConfig.setCacheDirectory(temporaryFolder.newFolder("cache").getAbsolutePath());
+        swaggerConfluenceConfig.setSwaggerSchema(schemaFile.getAbsolutePath());
+
+        swaggerToConfluenceService.convertSwaggerToConfluence(swaggerConfluenceConfig);
+        swaggerToConfluenceService.convertSwaggerToConfluence(swaggerConfluenceConfig);
+
+        verify(swaggerToAsciiDocService, times(1)).convertSwaggerToAsciiDoc(anyString());
+
+        Files.write(definitionsFile.toPath(), "Pet:\n  type: string\n".getBytes(StandardCharsets.UTF_8));
+
+        swaggerToConfluenceService.convertSwaggerToConfluence(swaggerConfluenceConfig);
+
+        verify(swaggerToAsciiDocService, times(2)).convertSwaggerToAsciiDoc(anyString());
+    }
+
+    private static SwaggerConfluenceSpec buildSpec(final String swaggerSchema, final String title){
+        final SwaggerConfluenceSpec spec = new SwaggerConfluenceSpec();
+        spec.setSwaggerSchema(swaggerSchema);
+        spec.setTitle(title);
+
+        return spec;
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.service.impl;
+
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceSpec;
+import net.slkdev.swagger.confluence.constants.PaginationMode;
+import net.slkdev.swagger.confluence.http.ConfluenceClientHttpRequestFactory;
+import net.slkdev.swagger.confluence.http.FakeConfluenceServer;
+import net.slkdev.swagger.confluence.service.AsciiDocToXHtmlService;
+import net.slkdev.swagger.confluence.service.SwaggerToAsciiDocService;
+import net.slkdev.swagger.confluence.service.SwaggerToConfluenceService;
+import org.asciidoctor.internal.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SwaggerToConfluenceServiceImplITCase {
+
+    private static final double MAX_REQUESTS_PER_SECOND = 10.0;
+    private static final int SPEC_COUNT = 12;
+
+    private FakeConfluenceServer fakeConfluenceServer;
+    private SwaggerToConfluenceService swaggerToConfluenceService;
+
+    @Before
+    public void setUp() throws IOException {
+        fakeConfluenceServer = new FakeConfluenceServer("DOC");
+        fakeConfluenceServer.start();
+
+        final String xhtml = IOUtils.readFull(SwaggerToConfluenceServiceImplITCase.class.getResourceAsStream(
+                "/swagger-petstore-xhtml-example.html"));
+
+        final SwaggerToAsciiDocService swaggerToAsciiDocService = mock(SwaggerToAsciiDocService.class);
+        final AsciiDocToXHtmlService asciiDocToXHtmlService = mock(AsciiDocToXHtmlService.class);
+
+        when(swaggerToAsciiDocService.convertSwaggerToAsciiDoc(anyString())).thenReturn("= Swagger Petstore");
+        when(asciiDocToXHtmlService.convertAsciiDocToXHtml(anyString())).thenReturn(xhtml);
+
+        swaggerToConfluenceService = new SwaggerToConfluenceServiceImpl(swaggerToAsciiDocService,
+                asciiDocToXHtmlService, new XHtmlToConfluenceServiceImpl(
+                        new RestTemplate(new ConfluenceClientHttpRequestFactory())));
+    }
+
+    @After
+    public void tearDown() {
+        fakeConfluenceServer.close();
+    }
+
+    @Test
+    public void testConcurrentSpecsShareTheRequestRate() {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = new SwaggerConfluenceConfig();
+
+        swaggerConfluenceConfig.setAuthentication("dGVzdDpwYXNzd29yZA==");
+        swaggerConfluenceConfig.setConfluenceRestApiUrl(fakeConfluenceServer.getRestApiUrl());
+        swaggerConfluenceConfig.setMaxRequestsPerSecond(MAX_REQUESTS_PER_SECOND);
+        swaggerConfluenceConfig.setPaginationMode(PaginationMode.SINGLE_PAGE);
+        swaggerConfluenceConfig.setPrefix("");
+        swaggerConfluenceConfig.setSpaceKey("DOC");
+        swaggerConfluenceConfig.setSpecParallelism(4);
+
+        for (int i = 1; i <= SPEC_COUNT; i++) {
+            final SwaggerConfluenceSpec spec = new SwaggerConfluenceSpec();
+            spec.setSwaggerSchema(String.format("spec-%d.yaml", i));
+            spec.setTitle(String.format("Spec %d", i));
+
+            swaggerConfluenceConfig.addSpec(spec);
+        }
+
+        final long startNanos = System.nanoTime();
+
+        swaggerToConfluenceService.convertSwaggerToConfluence(swaggerConfluenceConfig);
+
+        final double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+        final int requestCount = fakeConfluenceServer.getRequestCount();
+
+        assertEquals("Expected the Space Root and One Page per Spec", SPEC_COUNT + 1,
+                fakeConfluenceServer.getPageCount());
+
+        // The bucket starts full, so one second's worth of requests may go out at
+        // once; everything beyond that must be spread out at the configured rate,
+        // however many specs were publishing at the same time
+        final double combinedRate = (requestCount - MAX_REQUESTS_PER_SECOND) / elapsedSeconds;
+
+        assertTrue(String.format("Combined Request Rate %.1f/s Exceeds the Limit of %.1f/s", combinedRate,
+                MAX_REQUESTS_PER_SECOND), combinedRate <= MAX_REQUESTS_PER_SECOND * 1.1);
+    }
+
+}
@@ -0,0 +1,423 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.service.impl;
+
+import com.jayway.jsonpath.JsonPath;
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import net.slkdev.swagger.confluence.constants.PageAction;
+import net.slkdev.swagger.confluence.constants.PaginationMode;
+import net.slkdev.swagger.confluence.exception.ConfluenceAPIException;
+import net.slkdev.swagger.confluence.http.ConfluenceClientHttpRequestFactory;
+import net.slkdev.swagger.confluence.http.FakeConfluenceServer;
+import net.slkdev.swagger.confluence.metrics.PublishPlan;
+import net.slkdev.swagger.confluence.metrics.PublishStatistics;
+import net.slkdev.swagger.confluence.service.XHtmlToConfluenceService;
+import org.asciidoctor.internal.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class XHtmlToConfluenceServiceImplITCase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private FakeConfluenceServer fakeConfluenceServer;
+    private XHtmlToConfluenceService xHtmlToConfluenceService;
+    private String xhtml;
+
+    @Before
+    public void setUp() throws IOException {
+        fakeConfluenceServer = new FakeConfluenceServer("DOC");
+        fakeConfluenceServer.start();
+
+        xHtmlToConfluenceService = new XHtmlToConfluenceServiceImpl(
+                new RestTemplate(new ConfluenceClientHttpRequestFactory()));
+
+        xhtml = IOUtils.readFull(XHtmlToConfluenceServiceImplITCase.class.getResourceAsStream(
+                "/swagger-petstore-xhtml-example.html"));
+    }
+
+    @After
+    public void tearDown() {
+        fakeConfluenceServer.close();
+    }
+
+    @Test
+    public void testPublishIndividualPagesOverHttp() {
+        xHtmlToConfluenceService.postXHtmlToConfluence(
+                getTestSwaggerConfluenceConfig(PaginationMode.INDIVIDUAL_PAGES), xhtml);
+
+        assertEquals("Expected the Space Root and 34 Published Pages", 35,
+                fakeConfluenceServer.getPageCount());
+
+        final Map<String, Object> rootPage = fakeConfluenceServer.getPage("Test");
+        assertNotNull("Root Page Should Be Published", rootPage);
+
+        final List<Map<String, Object>> ancestors = (List<Map<String, Object>>) rootPage.get("ancestors");
+        assertEquals("Root Page Should Be Placed Under the Space Root",
+                fakeConfluenceServer.getSpaceRootId(), ancestors.get(ancestors.size() - 1).get("id"));
+    }
+
+    @Test(expected = ConfluenceAPIException.class)
+    public void testPublishToUnknownSpaceFails() {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig =
+                getTestSwaggerConfluenceConfig(PaginationMode.SINGLE_PAGE);
+        swaggerConfluenceConfig.setSpaceKey("UNKNOWN");
+
+        xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
+    }
+
+    @Test
+    public void testThrottledRequestsAreRetried() {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig =
+                getTestSwaggerConfluenceConfig(PaginationMode.INDIVIDUAL_PAGES);
+        swaggerConfluenceConfig.setMaxRetries(20);
+        swaggerConfluenceConfig.setPublishParallelism(4);
+
+        final PublishStatistics publishStatistics = new PublishStatistics();
+
+        fakeConfluenceServer.setThrottleRate(0.2);
+
+        xHtmlToConfluenceService.publishConfluencePages(swaggerConfluenceConfig,
+                xHtmlToConfluenceService.buildConfluencePages(swaggerConfluenceConfig, xhtml), publishStatistics);
+
+        assertEquals("Expected the Space Root and 34 Published Pages Despite Throttling", 35,
+                fakeConfluenceServer.getPageCount());
+        assertTrue("Expected Throttled Requests to Be Retried", publishStatistics.getRetries() > 0);
+    }
+
+    @Test
+    public void testPublishReceiptRecordsEveryPage() {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig =
+                getTestSwaggerConfluenceConfig(PaginationMode.CATEGORY_PAGES);
+
+        final PublishStatistics publishStatistics = new PublishStatistics();
+
+        xHtmlToConfluenceService.publishConfluencePages(swaggerConfluenceConfig,
+                xHtmlToConfluenceService.buildConfluencePages(swaggerConfluenceConfig, xhtml), publishStatistics);
+
+        assertEquals("Expected Every Published Page in the Receipt", fakeConfluenceServer.getPageCount() - 1,
+                publishStatistics.getReceipt().size());
+    }
+
+    @Test
+    public void testRepublishUpdatesExistingPagesOverHttp() {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig =
+                getTestSwaggerConfluenceConfig(PaginationMode.CATEGORY_PAGES);
+
+        xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
+
+        final int publishedPageCount = fakeConfluenceServer.getPageCount();
+
+        xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
+
+        assertEquals("Republishing Should Not Add Pages", publishedPageCount,
+                fakeConfluenceServer.getPageCount());
+
+        final Map<String, Object> version = (Map<String, Object>) fakeConfluenceServer.getPage("Test").get("version");
+        assertEquals("Root Page Should Be Updated", 2, version.get("number"));
+    }
+
+    @Test
+    public void testRepublishOnlyDeletesStaleChildPages() throws IOException {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig =
+                getTestSwaggerConfluenceConfig(PaginationMode.INDIVIDUAL_PAGES);
+        swaggerConfluenceConfig.setPublishParallelism(4);
+
+        final PublishStatistics previousPublishStatistics = new PublishStatistics();
+        xHtmlToConfluenceService.publishConfluencePages(swaggerConfluenceConfig,
+                xHtmlToConfluenceService.buildConfluencePages(swaggerConfluenceConfig, xhtml),
+                previousPublishStatistics);
+
+        final int publishedPageCount = fakeConfluenceServer.getPageCount();
+        final Object childPageId = fakeConfluenceServer.getPage("1.1. Version information").get("id");
+        final List<String> stalePageTitles = new ArrayList<>();
+
+        // More stale pages than Confluence returns in a single child listing
+        for (int i = 1; i <= 60; i++) {
+            final String stalePageTitle = "1." + (i + 100) + ". Stale Operation";
+            fakeConfluenceServer.addChildPage("1. Overview", stalePageTitle, "<p>Stale</p>");
+            stalePageTitles.add(stalePageTitle);
+        }
+
+        // Pages written by hand, even numbered like ours, and anything filed
+        // beneath them, are not in the receipt and so are not ours
+        fakeConfluenceServer.addChildPage("1. Overview", "Release Notes", "<p>Notes</p>");
+        fakeConfluenceServer.addChildPage("1. Overview", "1.300. Hand Written Operation", "<p>Notes</p>");
+        fakeConfluenceServer.addChildPage("Release Notes", "1.200. Copied Operation", "<p>Copy</p>");
+
+        writeReceipt(swaggerConfluenceConfig, previousPublishStatistics, stalePageTitles);
+
+        xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
+
+        assertEquals("Every Stale Page Should Be Deleted", publishedPageCount + 3,
+                fakeConfluenceServer.getPageCount());
+        assertNull("Stale Page Should Be Deleted", fakeConfluenceServer.getPage("1.160. Stale Operation"));
+        assertNotNull("Hand Written Page Should Be Kept", fakeConfluenceServer.getPage("Release Notes"));
+        assertNotNull("Hand Written Numbered Page Should Be Kept",
+                fakeConfluenceServer.getPage("1.300. Hand Written Operation"));
+        assertNotNull("Page Under Hand Written Page Should Be Kept",
+                fakeConfluenceServer.getPage("1.200. Copied Operation"));
+
+        final Map<String, Object> childPage = fakeConfluenceServer.getPage("1.1. Version information");
+        final Map<String, Object> version = (Map<String, Object>) childPage.get("version");
+
+        assertEquals("Current Child Page Should Keep Its Id", childPageId, childPage.get("id"));
+        assertEquals("Current Child Page Should Be Updated", 2, version.get("number"));
+    }
+
+    @Test
+    public void testRepublishReconcilesCategoryPages() throws IOException {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig =
+                getTestSwaggerConfluenceConfig(PaginationMode.CATEGORY_PAGES);
+
+        final PublishStatistics previousPublishStatistics = new PublishStatistics();
+        xHtmlToConfluenceService.publishConfluencePages(swaggerConfluenceConfig,
+                xHtmlToConfluenceService.buildConfluencePages(swaggerConfluenceConfig, xhtml),
+                previousPublishStatistics);
+
+        final int publishedPageCount = fakeConfluenceServer.getPageCount();
+        final Object rootPageId = fakeConfluenceServer.getPage("Test").get("id");
+        final Object movedPageId = fakeConfluenceServer.getPage("2. Paths").get("id");
+
+        fakeConfluenceServer.addChildPage("Test", "9. Removed Category", "<p>Stale</p>");
+        fakeConfluenceServer.addChildPage("Test", "8. Hand Written Category", "<p>Notes</p>");
+        fakeConfluenceServer.movePage("2. Paths", "1. Overview");
+
+        writeReceipt(swaggerConfluenceConfig, previousPublishStatistics,
+                Collections.singletonList("9. Removed Category"));
+
+        final PublishStatistics publishStatistics = new PublishStatistics();
+        xHtmlToConfluenceService.publishConfluencePages(swaggerConfluenceConfig,
+                xHtmlToConfluenceService.buildConfluencePages(swaggerConfluenceConfig, xhtml),
+                publishStatistics);
+
+        final Map<String, Object> movedPage = fakeConfluenceServer.getPage("2. Paths");
+        final List<Map<String, Object>> ancestors = (List<Map<String, Object>>) movedPage.get("ancestors");
+
+        assertEquals("Moved Category Page Should Keep Its Id", movedPageId, movedPage.get("id"));
+        assertEquals("Moved Category Page Should Be Back Under the Root", rootPageId,
+                ancestors.get(ancestors.size() - 1).get("id"));
+        assertEquals("Expected a Single Move", 1, publishStatistics.getPagesMoved());
+        assertEquals("Expected a Single Delete", 1, publishStatistics.getPagesDeleted());
+        assertNull("Stale Category Page Should Be Deleted", fakeConfluenceServer.getPage("9. Removed Category"));
+        assertNotNull("Hand Written Numbered Page Should Be Kept",
+                fakeConfluenceServer.getPage("8. Hand Written Category"));
+        assertEquals("Only the Hand Written Page Should Be Added", publishedPageCount + 1,
+                fakeConfluenceServer.getPageCount());
+    }
+
+    @Test
+    public void testRepublishMovesMisplacedPagesInPlace() {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig =
+                getTestSwaggerConfluenceConfig(PaginationMode.INDIVIDUAL_PAGES);
+
+        xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
+
+        final int publishedPageCount = fakeConfluenceServer.getPageCount();
+        final Object categoryPageId = fakeConfluenceServer.getPage("1. Overview").get("id");
+        final Object movedPageId = fakeConfluenceServer.getPage("1.1. Version information").get("id");
+
+        fakeConfluenceServer.movePage("1.1. Version information", "2. Paths");
+
+        final PublishStatistics publishStatistics = new PublishStatistics();
+        xHtmlToConfluenceService.publishConfluencePages(swaggerConfluenceConfig,
+                xHtmlToConfluenceService.buildConfluencePages(swaggerConfluenceConfig, xhtml),
+                publishStatistics);
+
+        final Map<String, Object> movedPage = fakeConfluenceServer.getPage("1.1. Version information");
+        final List<Map<String, Object>> ancestors = (List<Map<String, Object>>) movedPage.get("ancestors");
+
+        assertEquals("Moved Page Should Keep Its Id", movedPageId, movedPage.get("id"));
+        assertEquals("Moved Page Should Be Back Under Its Category", categoryPageId,
+                ancestors.get(ancestors.size() - 1).get("id"));
+        assertEquals("Expected a Single Move", 1, publishStatistics.getPagesMoved());
+        assertEquals("Expected Nothing Created", 0, publishStatistics.getPagesCreated());
+        assertEquals("Expected Nothing Deleted", 0, publishStatistics.getPagesDeleted());
+        assertEquals("Republishing Should Not Add Pages", publishedPageCount,
+                fakeConfluenceServer.getPageCount());
+    }
+
+    @Test
+    public void testDryRunPlansPagesWithoutWriting() {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig =
+                getTestSwaggerConfluenceConfig(PaginationMode.INDIVIDUAL_PAGES);
+        swaggerConfluenceConfig.setDryRun(true);
+
+        final PublishStatistics publishStatistics = new PublishStatistics();
+
+        xHtmlToConfluenceService.publishConfluencePages(swaggerConfluenceConfig,
+                xHtmlToConfluenceService.buildConfluencePages(swaggerConfluenceConfig, xhtml), publishStatistics);
+
+        final PublishPlan publishPlan = publishStatistics.getPlan();
+
+        assertEquals("Expected Only the Space Root", 1, fakeConfluenceServer.getPageCount());
+        assertEquals("Expected 34 Planned Creates", 34, publishPlan.getPageCount(PageAction.CREATE));
+        assertTrue("Expected the Size of the Planned Content", publishPlan.getBytes() > 0);
+        assertEquals("Expected Nothing Recorded as Published", 0, publishStatistics.getPagesCreated());
+
+        // Pages that would be created are planned beneath the planned pages
+        // above them, rather than falling back to the space home page
+        assertEquals("Root Page Should Be Planned Under the Space Root", fakeConfluenceServer.getSpaceRootId(),
+                getPlannedParent(publishPlan, "Test"));
+        assertEquals("Category Page Should Be Planned Under the Root Page", "Test",
+                getPlannedParent(publishPlan, "1. Overview"));
+        assertEquals("Individual Page Should Be Planned Under Its Category Page", "1. Overview",
+                getPlannedParent(publishPlan, "1.1. Version information"));
+    }
+
+    @Test
+    public void testDryRunPlansChangesToPublishedPages() throws IOException {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig =
+                getTestSwaggerConfluenceConfig(PaginationMode.INDIVIDUAL_PAGES);
+
+        final PublishStatistics previousPublishStatistics = new PublishStatistics();
+        xHtmlToConfluenceService.publishConfluencePages(swaggerConfluenceConfig,
+                xHtmlToConfluenceService.buildConfluencePages(swaggerConfluenceConfig, xhtml),
+                previousPublishStatistics);
+
+        fakeConfluenceServer.addChildPage("1. Overview", "1.98. Stale Operation", "<p>Stale</p>");
+        fakeConfluenceServer.addChildPage("1. Overview", "1.99. Stale Operation", "<p>Stale</p>");
+        fakeConfluenceServer.addChildPage("1. Overview", "Release Notes", "<p>Notes</p>");
+        fakeConfluenceServer.movePage("1.1. Version information", "2. Paths");
+
+        writeReceipt(swaggerConfluenceConfig, previousPublishStatistics,
+                Arrays.asList("1.98. Stale Operation", "1.99. Stale Operation"));
+
+        final int pageCount = fakeConfluenceServer.getPageCount();
+
+        swaggerConfluenceConfig.setDryRun(true);
+
+        final PublishStatistics publishStatistics = new PublishStatistics();
+
+        xHtmlToConfluenceService.publishConfluencePages(swaggerConfluenceConfig,
+                xHtmlToConfluenceService.buildConfluencePages(swaggerConfluenceConfig, xhtml), publishStatistics);
+
+        final PublishPlan publishPlan = publishStatistics.getPlan();
+
+        assertEquals("Expected 33 Planned Updates", 33, publishPlan.getPageCount(PageAction.UPDATE));
+        assertEquals("Expected a Planned Move", 1, publishPlan.getPageCount(PageAction.MOVE));
+        assertEquals("Expected Both Stale Pages Planned for Deletion", 2,
+                publishPlan.getPageCount(PageAction.DELETE));
+        assertEquals("Expected Nothing Created", 0, publishPlan.getPageCount(PageAction.CREATE));
+        assertEquals("Dry Run Should Not Delete Pages", pageCount, fakeConfluenceServer.getPageCount());
+
+        final Map<String, Object> version = (Map<String, Object>) fakeConfluenceServer.getPage("Test").get("version");
+        assertEquals("Dry Run Should Not Update Pages", 1, version.get("number"));
+    }
+
+    @Test
+    public void testConcurrentPublishesDoNotShareState() throws Exception {
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        try {
+            final List<Future<Void>> futures = new ArrayList<>();
+
+            for (final String prefix : new String[]{"[ONE]", "[TWO]"}) {
+                final SwaggerConfluenceConfig swaggerConfluenceConfig =
+                        getTestSwaggerConfluenceConfig(PaginationMode.CATEGORY_PAGES);
+                swaggerConfluenceConfig.setPrefix(prefix);
+                swaggerConfluenceConfig.setPublishParallelism(2);
+
+                futures.add(executorService.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
+                        return null;
+                    }
+                }));
+            }
+
+            for (final Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        final Map<String, Object> firstRootPage = fakeConfluenceServer.getPage("[ONE] Test");
+        final Map<String, Object> secondRootPage = fakeConfluenceServer.getPage("[TWO] Test");
+
+        assertNotNull("First Root Page Should Be Published", firstRootPage);
+        assertNotNull("Second Root Page Should Be Published", secondRootPage);
+        assertNotNull("First Run Should Only Use Its Own Prefix",
+                fakeConfluenceServer.getPage("1. [ONE] Overview"));
+        assertNotNull("Second Run Should Only Use Its Own Prefix",
+                fakeConfluenceServer.getPage("1. [TWO] Overview"));
+    }
+
+    private static String getPlannedParent(final PublishPlan publishPlan, final String title) {
+        final List<String> parents = JsonPath.read(publishPlan.toJson(),
+                String.format("$.pages[?(@.title == '%s')].parent", title));
+
+        return parents.isEmpty() ? null : parents.get(0);
+    }
+
+    // Stands in for the receipt a previous run would have left, as if it had
+    // also published the given pages
+    private void writeReceipt(final SwaggerConfluenceConfig swaggerConfluenceConfig,
+                              final PublishStatistics previousPublishStatistics,
+                              final List<String> previouslyPublishedTitles) throws IOException {
+        for (final String title : previouslyPublishedTitles) {
+            previousPublishStatistics.getReceipt().recordPage(title,
+                    Integer.valueOf(String.valueOf(fakeConfluenceServer.getPage(title).get("id"))),
+                    PageAction.CREATE, null);
+        }
+
+        final File receiptFile = temporaryFolder.newFile("receipt.json");
+        Files.write(receiptFile.toPath(),
+                previousPublishStatistics.getReceipt().toJson().getBytes(StandardCharsets.UTF_8));
+
+        swaggerConfluenceConfig.setReceiptPath(receiptFile.getAbsolutePath());
+    }
+
+    private SwaggerConfluenceConfig getTestSwaggerConfluenceConfig(final PaginationMode paginationMode) {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = new SwaggerConfluenceConfig();
+
+        swaggerConfluenceConfig.setAuthentication("dGVzdDpwYXNzd29yZA==");
+        swaggerConfluenceConfig.setConfluenceRestApiUrl(fakeConfluenceServer.getRestApiUrl());
+        swaggerConfluenceConfig.setPaginationMode(paginationMode);
+        swaggerConfluenceConfig.setPrefix("");
+        swaggerConfluenceConfig.setSpaceKey("DOC");
+        swaggerConfluenceConfig.setTitle("Test");
+
+        return swaggerConfluenceConfig;
+    }
+
+}
@@ -15,29 +15,39 @@
  */
 package net.slkdev.swagger.confluence.service.impl;
 
+import com.jayway.jsonpath.JsonPath;
+import net.minidev.json.JSONValue;
 import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
 import net.slkdev.swagger.confluence.constants.PaginationMode;
 import net.slkdev.swagger.confluence.service.XHtmlToConfluenceService;
 import org.apache.commons.codec.binary.Base64;
 import org.asciidoctor.internal.IOUtils;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.http.*;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
@@ -51,13 +61,22 @@ public class XHtmlToConfluenceServiceImplTest {
 
 	private static final String GET_RESPONSE_NOT_FOUND = "{\"results\":[]}";
 
-    private static final String GET_CHILDREN = "{\"page\":{\"results\":[{\"id\":\"1\",\"type\":\"" +
-            "page\",\"status\":\"current\",\"title\":\"Test\",\"extensions\":{\"position\":\"none\"" +
-            "}}]}}";
+    private static final String GET_DESCENDANTS = "{\"results\":[{\"id\":\"1\",\"type\":\"" +
+            "page\",\"status\":\"current\",\"title\":\"Release Notes\",\"ancestors\":[{\"id\":" +
+            "\"1277959\"}],\"extensions\":{\"position\":\"none\"}},{\"id\":\"2\",\"type\":\"page\"," +
+            "\"status\":\"current\",\"title\":\"9. Removed\",\"ancestors\":[{\"id\":\"1277959\"}]," +
+            "\"extensions\":{\"position\":\"none\"}}]}";
+
+	private static final String GET_SPACE_RESPONSE = "{\"key\":\"DOC\",\"name\":\"Documentation\"," +
+			"\"homepage\":{\"id\":\"1277959\",\"type\":\"page\",\"title\":\"Documentation Home\"}}";
+
+	private static final String GET_VERSION_RESPONSE = "{\"id\":\"1277959\",\"type\":\"page\"," +
+			"\"title\":\"Test\",\"version\":{\"number\":3}}";
 
 	private static final String POST_RESPONSE = "{\"id\":\"1\"}";
 
-    private static final List<Integer> CATEGORY_INDEXES = Arrays.asList(1, 6, 25, 31);
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
 	@Mock
 	private RestTemplate restTemplate;
@@ -70,6 +89,7 @@ public class XHtmlToConfluenceServiceImplTest {
 	@Before
 	public void setUp(){
 		xHtmlToConfluenceService = new XHtmlToConfluenceServiceImpl(restTemplate);
+		XHtmlToConfluenceServiceImpl.clearCache();
 	}
 
 	@Test
@@ -87,7 +107,7 @@ public class XHtmlToConfluenceServiceImplTest {
                 responseEntity);
 		when(restTemplate.exchange(any(URI.class), eq(HttpMethod.POST),
 				any(HttpEntity.class), eq(String.class))).thenReturn(responseEntity);
-		when(responseEntity.getBody()).thenReturn(GET_RESPONSE_NOT_FOUND, GET_RESPONSE_FOUND,
+		when(responseEntity.getBody()).thenReturn(GET_RESPONSE_NOT_FOUND, GET_SPACE_RESPONSE,
                 POST_RESPONSE);
 
 		final ArgumentCaptor<HttpEntity> httpEntityCaptor = ArgumentCaptor.forClass(HttpEntity.class);
@@ -110,6 +130,45 @@ public class XHtmlToConfluenceServiceImplTest {
 		assertEquals("Unexpected JSON Post Body", expectedPostBody, capturedHttpEntity.getBody());
 	}
 
+	@Test
+	public void testSpaceHomePageIsReusedAcrossRunsWithinTtl(){
+		final SwaggerConfluenceConfig swaggerConfluenceConfig = getTestSwaggerConfluenceConfig();
+		swaggerConfluenceConfig.setAncestorId(null);
+		swaggerConfluenceConfig.setSpaceCacheTtlSeconds(300);
+
+		final String xhtml = IOUtils.readFull(
+				AsciiDocToXHtmlServiceImplTest.class.getResourceAsStream(
+						"/swagger-petstore-xhtml-example.html")
+		);
+
+		when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET),
+				any(RequestEntity.class), eq(String.class))).thenReturn(responseEntity);
+		when(restTemplate.exchange(any(URI.class), eq(HttpMethod.POST),
+				any(HttpEntity.class), eq(String.class))).thenReturn(responseEntity);
+		when(responseEntity.getBody()).thenReturn(GET_RESPONSE_NOT_FOUND, GET_SPACE_RESPONSE,
+				POST_RESPONSE, GET_RESPONSE_NOT_FOUND, POST_RESPONSE);
+
+		final ArgumentCaptor<URI> uriCaptor = ArgumentCaptor.forClass(URI.class);
+
+		xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
+		xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
+
+		verify(restTemplate, times(3)).exchange(uriCaptor.capture(), eq(HttpMethod.GET),
+				any(RequestEntity.class), eq(String.class));
+		verify(restTemplate, times(2)).exchange(any(URI.class), eq(HttpMethod.POST),
+				any(HttpEntity.class), eq(String.class));
+
+		int spaceLookups = 0;
+
+		for (final URI uri : uriCaptor.getAllValues()) {
+			if (uri.getPath().endsWith("/space/DOC")) {
+				spaceLookups++;
+			}
+		}
+
+		assertEquals("Space Home Page Should Only Be Looked Up Once", 1, spaceLookups);
+	}
+
 	@Test
 	public void testUpdatePageWithPaginationModeSingleAndNoTableOfContents(){
 		final SwaggerConfluenceConfig swaggerConfluenceConfig = getTestSwaggerConfluenceConfig();
@@ -148,6 +207,102 @@ public class XHtmlToConfluenceServiceImplTest {
         assertEquals("Unexpected JSON Post Body", expectedPostBody, capturedHttpEntity.getBody());
 	}
 
+	@Test
+	public void testUpdatePageRetriesAgainstLatestVersionOnConflict(){
+		final SwaggerConfluenceConfig swaggerConfluenceConfig = getTestSwaggerConfluenceConfig();
+		swaggerConfluenceConfig.setIncludeTableOfContentsOnSinglePage(false);
+
+		final String xhtml = IOUtils.readFull(
+				AsciiDocToXHtmlServiceImplTest.class.getResourceAsStream(
+						"/swagger-petstore-xhtml-example.html")
+		);
+
+		final ResponseEntity<String> postResponseEntity = new ResponseEntity<>(POST_RESPONSE, HttpStatus.OK);
+
+		when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET),
+				any(RequestEntity.class), eq(String.class))).thenReturn(responseEntity);
+		when(responseEntity.getBody()).thenReturn(GET_RESPONSE_FOUND, GET_VERSION_RESPONSE);
+		when(restTemplate.exchange(any(URI.class), eq(HttpMethod.PUT),
+				any(RequestEntity.class), eq(String.class)))
+				.thenThrow(new HttpClientErrorException(HttpStatus.CONFLICT))
+				.thenReturn(postResponseEntity);
+
+		final ArgumentCaptor<HttpEntity> httpEntityCaptor = ArgumentCaptor.forClass(HttpEntity.class);
+
+		xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
+
+		verify(restTemplate, times(2)).exchange(any(URI.class), eq(HttpMethod.GET),
+				any(RequestEntity.class), eq(String.class));
+		verify(restTemplate, times(2)).exchange(any(URI.class), eq(HttpMethod.PUT),
+				httpEntityCaptor.capture(), eq(String.class));
+
+		final HttpEntity<String> retriedHttpEntity = httpEntityCaptor.getAllValues().get(1);
+		final Integer retriedVersion = JsonPath.read(retriedHttpEntity.getBody(), "$.version.number");
+
+		assertEquals("Retried Update Should Follow the Latest Version", Integer.valueOf(4), retriedVersion);
+	}
+
+	@Test
+	public void testUpdatePageWithPaginationModeSingleSkipsUnchangedPage(){
+		final SwaggerConfluenceConfig swaggerConfluenceConfig = getTestSwaggerConfluenceConfig();
+		swaggerConfluenceConfig.setIncludeTableOfContentsOnSinglePage(false);
+		swaggerConfluenceConfig.setSkipUnchangedPages(true);
+
+		final String xhtml = IOUtils.readFull(
+				AsciiDocToXHtmlServiceImplTest.class.getResourceAsStream(
+						"/swagger-petstore-xhtml-example.html")
+		);
+
+		final String expectedPostBody = IOUtils.readFull(
+				AsciiDocToXHtmlServiceImplTest.class.getResourceAsStream(
+						"/swagger-confluence-update-json-body-example.json")
+		);
+
+		// Respond with a page whose stored body is exactly what we would publish
+		final String storageValue = JsonPath.read(expectedPostBody, "$.body.storage.value");
+		final String getResponseUnchanged = GET_RESPONSE_FOUND.replace(
+				"\"value\":\"\"", "\"value\":" + JSONValue.toJSONString(storageValue));
+
+		when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET),
+				any(RequestEntity.class), eq(String.class))).thenReturn(responseEntity);
+		when(responseEntity.getBody()).thenReturn(getResponseUnchanged);
+
+		xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
+
+		verify(restTemplate).exchange(any(URI.class), eq(HttpMethod.GET),
+				any(RequestEntity.class), eq(String.class));
+		verify(restTemplate, never()).exchange(any(URI.class), eq(HttpMethod.PUT),
+				any(HttpEntity.class), eq(String.class));
+	}
+
+	@Test
+	public void testExistenceLookupDoesNotExpandPageBody(){
+		final SwaggerConfluenceConfig swaggerConfluenceConfig = getTestSwaggerConfluenceConfig();
+
+		final String xhtml = IOUtils.readFull(
+				AsciiDocToXHtmlServiceImplTest.class.getResourceAsStream(
+						"/swagger-petstore-xhtml-example.html")
+		);
+
+		final ResponseEntity<String> postResponseEntity = new ResponseEntity<>(POST_RESPONSE, HttpStatus.OK);
+
+		when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET),
+				any(RequestEntity.class), eq(String.class))).thenReturn(responseEntity);
+		when(responseEntity.getBody()).thenReturn(GET_RESPONSE_FOUND);
+		when(restTemplate.exchange(any(URI.class), eq(HttpMethod.PUT),
+				any(RequestEntity.class), eq(String.class))).thenReturn(postResponseEntity);
+
+		final ArgumentCaptor<URI> uriCaptor = ArgumentCaptor.forClass(URI.class);
+
+		xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
+
+		verify(restTemplate).exchange(uriCaptor.capture(), eq(HttpMethod.GET),
+				any(RequestEntity.class), eq(String.class));
+
+		assertFalse("Existence Lookup Should Not Expand the Page Body",
+				uriCaptor.getValue().toString().contains("body.storage"));
+	}
+
 	@Test
 	public void testCreatePageWithPaginationModeCategory(){
 		final SwaggerConfluenceConfig swaggerConfluenceConfig = getTestSwaggerConfluenceConfig();
@@ -204,7 +359,9 @@ public class XHtmlToConfluenceServiceImplTest {
 		for(int i = 0; i < 5; i++) {
 			when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET),
 					any(RequestEntity.class), eq(String.class))).thenReturn(responseEntity);
-			when(responseEntity.getBody()).thenReturn(GET_RESPONSE_FOUND);
+			// The existing tree, listed once straight after the root page, is empty
+			when(responseEntity.getBody()).thenReturn(GET_RESPONSE_FOUND, GET_RESPONSE_NOT_FOUND,
+					GET_RESPONSE_FOUND);
 			when(restTemplate.exchange(any(URI.class), eq(HttpMethod.PUT),
 					any(RequestEntity.class), eq(String.class))).thenReturn(postResponseEntity);
 		}
@@ -213,7 +370,7 @@ public class XHtmlToConfluenceServiceImplTest {
 
 		xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
 
-		verify(restTemplate, times(5)).exchange(any(URI.class), eq(HttpMethod.GET),
+		verify(restTemplate, times(6)).exchange(any(URI.class), eq(HttpMethod.GET),
 				any(RequestEntity.class), eq(String.class));
         verify(restTemplate, times(5)).exchange(any(URI.class), eq(HttpMethod.PUT),
                 httpEntityCaptor.capture(), eq(String.class));
@@ -273,49 +430,121 @@ public class XHtmlToConfluenceServiceImplTest {
     }
 
     @Test
-    public void testUpdatePageWithPaginationModeIndividual(){
+    public void testCreatePageWithPaginationModeIndividualConcurrently(){
         final SwaggerConfluenceConfig swaggerConfluenceConfig = getTestSwaggerConfluenceConfig();
         swaggerConfluenceConfig.setPaginationMode(PaginationMode.INDIVIDUAL_PAGES);
+        swaggerConfluenceConfig.setPublishParallelism(4);
 
         final String xhtml = IOUtils.readFull(
                 AsciiDocToXHtmlServiceImplTest.class.getResourceAsStream(
                         "/swagger-petstore-xhtml-example.html")
         );
 
-        final ResponseEntity<String> postResponseEntity = new ResponseEntity<>(POST_RESPONSE, HttpStatus.OK);
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET),
+                any(RequestEntity.class), eq(String.class))).thenReturn(responseEntity);
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.POST),
+                any(HttpEntity.class), eq(String.class))).thenReturn(responseEntity);
+        when(responseEntity.getBody()).thenReturn(POST_RESPONSE);
 
-        final List<String> returnJson = new ArrayList<>();
+        xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
+
+        verify(restTemplate, times(34)).exchange(any(URI.class), eq(HttpMethod.GET),
+                any(RequestEntity.class), eq(String.class));
+        verify(restTemplate, times(34)).exchange(any(URI.class), eq(HttpMethod.POST),
+                any(HttpEntity.class), eq(String.class));
+    }
+
+    @Test
+    public void testCreatePageWithPaginationModeIndividualAndBulkLookup(){
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = getTestSwaggerConfluenceConfig();
+        swaggerConfluenceConfig.setPaginationMode(PaginationMode.INDIVIDUAL_PAGES);
+        swaggerConfluenceConfig.setBulkPageLookup(true);
+
+        final String xhtml = IOUtils.readFull(
+                AsciiDocToXHtmlServiceImplTest.class.getResourceAsStream(
+                        "/swagger-petstore-xhtml-example.html")
+        );
+
+        final ResponseEntity<String> getResponseEntity = new ResponseEntity<>(GET_RESPONSE_NOT_FOUND, HttpStatus.OK);
+        final ResponseEntity<String> postResponseEntity = new ResponseEntity<>(POST_RESPONSE, HttpStatus.OK);
 
         when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET),
-                any(RequestEntity.class), eq(String.class))).thenReturn(responseEntity);
+                any(RequestEntity.class), eq(String.class))).thenReturn(getResponseEntity);
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.POST),
+                any(HttpEntity.class), eq(String.class))).thenReturn(postResponseEntity);
 
-        for(int i = 0; i < 34; i++) {
-            if(i > 0) {
-                returnJson.add(GET_RESPONSE_FOUND);
-            }
+        xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
 
-            if(CATEGORY_INDEXES.contains(i)){
-                returnJson.add(GET_CHILDREN);
-            }
-        }
+        // 34 titles are searched for in two batches rather than one lookup per page
+        verify(restTemplate, times(2)).exchange(any(URI.class), eq(HttpMethod.GET),
+                any(RequestEntity.class), eq(String.class));
+        verify(restTemplate, times(34)).exchange(any(URI.class), eq(HttpMethod.POST),
+                any(HttpEntity.class), eq(String.class));
+    }
 
-        final String[] returnJsonArray = new String[returnJson.size()];
-        returnJson.toArray(returnJsonArray);
+    @Test
+    public void testUpdatePageWithPaginationModeSingleAndBulkLookup(){
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = getTestSwaggerConfluenceConfig();
+        swaggerConfluenceConfig.setIncludeTableOfContentsOnSinglePage(false);
+        swaggerConfluenceConfig.setBulkPageLookup(true);
 
-        when(responseEntity.getBody()).thenReturn(GET_RESPONSE_FOUND, returnJsonArray);
+        final String xhtml = IOUtils.readFull(
+                AsciiDocToXHtmlServiceImplTest.class.getResourceAsStream(
+                        "/swagger-petstore-xhtml-example.html")
+        );
 
-        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.DELETE),
-                any(RequestEntity.class), eq(String.class))).thenReturn(responseEntity);
-        when(responseEntity.getStatusCode()).thenReturn(HttpStatus.NO_CONTENT);
+        final ResponseEntity<String> getResponseEntity = new ResponseEntity<>(GET_RESPONSE_FOUND, HttpStatus.OK);
+        final ResponseEntity<String> putResponseEntity = new ResponseEntity<>(POST_RESPONSE, HttpStatus.OK);
 
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET),
+                any(RequestEntity.class), eq(String.class))).thenReturn(getResponseEntity);
         when(restTemplate.exchange(any(URI.class), eq(HttpMethod.PUT),
-                any(RequestEntity.class), eq(String.class))).thenReturn(postResponseEntity);
+                any(RequestEntity.class), eq(String.class))).thenReturn(putResponseEntity);
 
         final ArgumentCaptor<HttpEntity> httpEntityCaptor = ArgumentCaptor.forClass(HttpEntity.class);
 
         xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
 
-        verify(restTemplate, times(38)).exchange(any(URI.class), eq(HttpMethod.GET),
+        verify(restTemplate).exchange(any(URI.class), eq(HttpMethod.GET),
+                any(RequestEntity.class), eq(String.class));
+        verify(restTemplate).exchange(any(URI.class), eq(HttpMethod.PUT),
+                httpEntityCaptor.capture(), eq(String.class));
+
+        final HttpEntity<String> capturedHttpEntity = httpEntityCaptor.getValue();
+
+        final String expectedPostBody = IOUtils.readFull(
+                AsciiDocToXHtmlServiceImplTest.class.getResourceAsStream(
+                        "/swagger-confluence-update-json-body-example.json")
+        );
+
+        assertNotNull("Failed to Capture RequestEntity for PUT", capturedHttpEntity);
+        assertEquals("Unexpected JSON Put Body", expectedPostBody, capturedHttpEntity.getBody());
+    }
+
+    @Test
+    public void testUpdatePageWithPaginationModeIndividual() throws IOException {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = getTestSwaggerConfluenceConfig();
+        swaggerConfluenceConfig.setPaginationMode(PaginationMode.INDIVIDUAL_PAGES);
+
+        // "9. Removed" was published by the previous run, "Release Notes" was not
+        swaggerConfluenceConfig.setReceiptPath(writeReceipt("2"));
+
+        final String xhtml = IOUtils.readFull(
+                AsciiDocToXHtmlServiceImplTest.class.getResourceAsStream(
+                        "/swagger-petstore-xhtml-example.html")
+        );
+
+        final ResponseEntity<String> postResponseEntity = new ResponseEntity<>(POST_RESPONSE, HttpStatus.OK);
+
+        stubIndividualPageUpdate(postResponseEntity);
+
+        final ArgumentCaptor<HttpEntity> httpEntityCaptor = ArgumentCaptor.forClass(HttpEntity.class);
+
+        xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
+
+        verify(restTemplate, times(35)).exchange(any(URI.class), eq(HttpMethod.GET),
+                any(RequestEntity.class), eq(String.class));
+        verify(restTemplate, times(1)).exchange(any(URI.class), eq(HttpMethod.DELETE),
                 any(RequestEntity.class), eq(String.class));
         verify(restTemplate, times(34)).exchange(any(URI.class), eq(HttpMethod.PUT),
                 httpEntityCaptor.capture(), eq(String.class));
@@ -333,6 +562,86 @@ public class XHtmlToConfluenceServiceImplTest {
         assertEquals("Unexpected JSON Post Body", expectedPostBody, capturedHttpEntity.getBody());
     }
 
+    @Test
+    public void testHandWrittenNumberedPageIsNotDeleted() throws IOException {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = getTestSwaggerConfluenceConfig();
+        swaggerConfluenceConfig.setPaginationMode(PaginationMode.INDIVIDUAL_PAGES);
+
+        // "9. Removed" looks like one of ours, but the previous receipt shows it was written by hand
+        swaggerConfluenceConfig.setReceiptPath(writeReceipt("1277959"));
+
+        final String xhtml = IOUtils.readFull(
+                AsciiDocToXHtmlServiceImplTest.class.getResourceAsStream(
+                        "/swagger-petstore-xhtml-example.html")
+        );
+
+        stubIndividualPageUpdate(new ResponseEntity<>(POST_RESPONSE, HttpStatus.OK));
+
+        xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
+
+        verify(restTemplate, never()).exchange(any(URI.class), eq(HttpMethod.DELETE),
+                any(RequestEntity.class), eq(String.class));
+    }
+
+    @Test
+    public void testStalePagesAreKeptWithoutPreviousReceipt(){
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = getTestSwaggerConfluenceConfig();
+        swaggerConfluenceConfig.setPaginationMode(PaginationMode.INDIVIDUAL_PAGES);
+        swaggerConfluenceConfig.setReceiptPath(
+                new File(temporaryFolder.getRoot(), "missing-receipt.json").getAbsolutePath());
+
+        final String xhtml = IOUtils.readFull(
+                AsciiDocToXHtmlServiceImplTest.class.getResourceAsStream(
+                        "/swagger-petstore-xhtml-example.html")
+        );
+
+        stubIndividualPageUpdate(new ResponseEntity<>(POST_RESPONSE, HttpStatus.OK));
+
+        xHtmlToConfluenceService.postXHtmlToConfluence(swaggerConfluenceConfig, xhtml);
+
+        verify(restTemplate, never()).exchange(any(URI.class), eq(HttpMethod.DELETE),
+                any(RequestEntity.class), eq(String.class));
+    }
+
+    private void stubIndividualPageUpdate(final ResponseEntity<String> postResponseEntity){
+        final List<String> returnJson = new ArrayList<>();
+
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET),
+                any(RequestEntity.class), eq(String.class))).thenReturn(responseEntity);
+
+        // The existing tree is listed once, straight after the root page
+        returnJson.add(GET_DESCENDANTS);
+
+        for(int i = 1; i < 34; i++) {
+            returnJson.add(GET_RESPONSE_FOUND);
+        }
+
+        final String[] returnJsonArray = new String[returnJson.size()];
+        returnJson.toArray(returnJsonArray);
+
+        when(responseEntity.getBody()).thenReturn(GET_RESPONSE_FOUND, returnJsonArray);
+
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.DELETE),
+                any(RequestEntity.class), eq(String.class))).thenReturn(responseEntity);
+        when(responseEntity.getStatusCode()).thenReturn(HttpStatus.NO_CONTENT);
+
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.PUT),
+                any(RequestEntity.class), eq(String.class))).thenReturn(postResponseEntity);
+    }
+
+    private String writeReceipt(final String... pageIds) throws IOException {
+        final StringBuilder receipt = new StringBuilder("{\"pages\":[");
+
+        for(int i = 0; i < pageIds.length; i++){
+            receipt.append(i == 0 ? "" : ",").append("{\"id\":\"").append(pageIds[i]).append("\"}");
+        }
+
+        final File receiptFile = temporaryFolder.newFile();
+        Files.write(receiptFile.toPath(), receipt.append("]}").toString().getBytes(StandardCharsets.UTF_8));
+
+        return receiptFile.getAbsolutePath();
+    }
+
     private SwaggerConfluenceConfig getTestSwaggerConfluenceConfig(){
 		final SwaggerConfluenceConfig swaggerConfluenceConfig = new SwaggerConfluenceConfig();
 
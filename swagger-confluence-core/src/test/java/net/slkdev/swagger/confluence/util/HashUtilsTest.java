@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.util;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class HashUtilsTest {
+
+    @Test
+    public void testSha256HexOfKnownValue(){
+        assertEquals("Unexpected SHA-256 Hash",
+                "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                HashUtils.sha256Hex("abc"));
+    }
+
+    @Test
+    public void testSha256HexOfDifferentValuesDiffers(){
+        assertNotEquals("Different Values Should Not Share a Hash",
+                HashUtils.sha256Hex("abc"), HashUtils.sha256Hex("abd"));
+    }
+
+    @Test
+    public void testSha256HexOfFileMatchesContentHash() throws IOException {
+        final File file = File.createTempFile("hash-utils", ".txt");
+        file.deleteOnExit();
+
+        Files.write(file.toPath(), "abc".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("File Hash Should Match Content Hash",
+                HashUtils.sha256Hex("abc"), HashUtils.sha256Hex(file));
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.gradle.plugin;
+
+import groovy.lang.Closure;
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceSpec;
+import org.gradle.api.NamedDomainObjectContainer;
+import org.gradle.api.Project;
+
+// Adds a spec { } block to the swaggerConfluence extension so that a single
+// task can publish several schemas, and a publications { } block that gives
+// each named schema a task of its own, e.g.
+//
+//   swaggerConfluence {
+//       spec {
+//           swaggerSchema = 'pets.yaml'
+//           title = 'Pets'
+//       }
+//       publications {
+//           stores {
+//               swaggerSchema = 'stores.yaml'
+//               title = 'Stores'
+//           }
+//       }
+//   }
+public class SwaggerConfluenceExtension extends SwaggerConfluenceConfig {
+
+    private final Project project;
+    private final NamedDomainObjectContainer<SwaggerConfluencePublication> publications;
+
+    public SwaggerConfluenceExtension(final Project project) {
+        this.project = project;
+        this.publications = project.container(SwaggerConfluencePublication.class);
+    }
+
+    public NamedDomainObjectContainer<SwaggerConfluencePublication> getPublications() {
+        return publications;
+    }
+
+    public NamedDomainObjectContainer<SwaggerConfluencePublication> publications(final Closure<?> closure) {
+        return publications.configure(closure);
+    }
+
+    public SwaggerConfluenceSpec spec(final Closure<?> closure) {
+        final SwaggerConfluenceSpec spec = new SwaggerConfluenceSpec();
+        project.configure(spec, closure);
+        addSpec(spec);
+
+        return spec;
+    }
+
+}
@@ -15,23 +15,56 @@
  */
 package net.slkdev.swagger.confluence.gradle.plugin;
 
-import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
+import org.apache.commons.lang3.StringUtils;
+import org.gradle.api.Action;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.specs.Spec;
 
 import java.util.HashMap;
 import java.util.Map;
 
 public class SwaggerConfluenceGradlePlugin implements Plugin<Project> {
 
+    private static final String TASK_NAME = "swaggerConfluence";
+
     @Override
     public void apply(final Project project) {
-        project.getExtensions().create("swaggerConfluence", SwaggerConfluenceConfig.class);
+        final SwaggerConfluenceExtension swaggerConfluenceExtension = project.getExtensions().create(
+                TASK_NAME, SwaggerConfluenceExtension.class, project);
+
+        final Task swaggerConfluenceTask = project.task(buildTaskOptions(), TASK_NAME);
+
+        // With only publications configured, the main task just runs theirs
+        swaggerConfluenceTask.onlyIf(new Spec<Task>() {
+            @Override
+            public boolean isSatisfiedBy(final Task task) {
+                return swaggerConfluenceExtension.getSwaggerSchema() != null ||
+                        !swaggerConfluenceExtension.getSpecs().isEmpty() ||
+                        swaggerConfluenceExtension.getPublications().isEmpty();
+            }
+        });
+
+        swaggerConfluenceExtension.getPublications().all(new Action<SwaggerConfluencePublication>() {
+            @Override
+            public void execute(final SwaggerConfluencePublication publication) {
+                final SwaggerConfluenceGradleTask publicationTask = (SwaggerConfluenceGradleTask) project.task(
+                        buildTaskOptions(), TASK_NAME + StringUtils.capitalize(publication.getName()));
+                publicationTask.setPublication(publication);
+                publicationTask.setDescription(String.format("Publishes the %s Swagger publication to Confluence",
+                        publication.getName()));
+
+                swaggerConfluenceTask.dependsOn(publicationTask);
+            }
+        });
+    }
 
+    private static Map<String, Object> buildTaskOptions() {
         final Map<String, Object> options = new HashMap<>();
         options.put("type", SwaggerConfluenceGradleTask.class);
 
-        project.task(options, "swaggerConfluence");
+        return options;
     }
 
 }
\ No newline at end of file
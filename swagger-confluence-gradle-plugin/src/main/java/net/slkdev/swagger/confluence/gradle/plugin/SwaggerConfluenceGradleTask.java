@@ -16,23 +16,189 @@
 package net.slkdev.swagger.confluence.gradle.plugin;
 
 import net.slkdev.swagger.confluence.config.SwaggerConfluenceConfig;
-import net.slkdev.swagger.confluence.context.SwaggerConfluenceContextConfig;
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceSpec;
 import net.slkdev.swagger.confluence.service.SwaggerToConfluenceService;
 import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
-import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// The schemas and the settings that shape the published pages are declared as
+// inputs, and the publish receipt as the output, so an unchanged spec leaves
+// the task UP-TO-DATE. Run with --rerun-tasks to publish regardless, e.g. after
+// pages were edited by hand in Confluence.
 public class SwaggerConfluenceGradleTask extends DefaultTask {
 
+    // Null for the main task, which publishes the extension's own schema and specs
+    private SwaggerConfluencePublication publication;
+
+    public SwaggerConfluenceGradleTask() {
+        // A schema that is only found on the classpath cannot be tracked as an
+        // input file, so the task runs every time rather than risk being stale.
+        // A dry run publishes nothing, so it is always worth running again.
+        getOutputs().upToDateWhen(new Spec<Task>() {
+            @Override
+            public boolean isSatisfiedBy(final Task task) {
+                return getUntrackedSchemas().isEmpty() && !getSwaggerConfluenceConfig().isDryRun();
+            }
+        });
+    }
+
+    @InputFiles
+    public FileCollection getSwaggerSchemaFiles() {
+        final List<File> schemaFiles = new ArrayList<>();
+
+        for (final String schema : getSchemas()) {
+            final File schemaFile = getProject().file(schema);
+
+            if (schemaFile.isFile()) {
+                schemaFiles.add(schemaFile);
+            }
+        }
+
+        return getProject().files(schemaFiles);
+    }
+
+    // The credentials are left out, as input values are stored in Gradle's
+    // task history, and changing them does not change what is published
+    @Input
+    public Map<String, String> getPublishSettings() {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = getSwaggerConfluenceConfig();
+        final Map<String, String> publishSettings = new TreeMap<>();
+
+        publishSettings.put("ancestorId", String.valueOf(swaggerConfluenceConfig.getAncestorId()));
+        publishSettings.put("confluenceRestApiUrl", swaggerConfluenceConfig.getConfluenceRestApiUrl());
+        publishSettings.put("generateNumericPrefixes",
+                String.valueOf(swaggerConfluenceConfig.isGenerateNumericPrefixes()));
+        publishSettings.put("includeTableOfContentsOnSinglePage",
+                String.valueOf(swaggerConfluenceConfig.isIncludeTableOfContentsOnSinglePage()));
+        publishSettings.put("paginationMode", String.valueOf(swaggerConfluenceConfig.getPaginationMode()));
+        publishSettings.put("prefix", swaggerConfluenceConfig.getPrefix());
+        publishSettings.put("spaceKey", swaggerConfluenceConfig.getSpaceKey());
+        publishSettings.put("swaggerSchema", swaggerConfluenceConfig.getSwaggerSchema());
+        publishSettings.put("title", swaggerConfluenceConfig.getTitle());
+
+        final List<SwaggerConfluenceSpec> specs = swaggerConfluenceConfig.getSpecs();
+
+        for (int i = 0; i < specs.size(); i++) {
+            final SwaggerConfluenceSpec spec = specs.get(i);
+            final String specKey = String.format("spec.%d.", i);
+
+            publishSettings.put(specKey + "ancestorId", String.valueOf(spec.getAncestorId()));
+            publishSettings.put(specKey + "prefix", spec.getPrefix());
+            publishSettings.put(specKey + "swaggerSchema", spec.getSwaggerSchema());
+            publishSettings.put(specKey + "title", spec.getTitle());
+        }
+
+        return publishSettings;
+    }
+
+    @OutputFile
+    public File getReceiptFile() {
+        final String receiptPath = getSwaggerConfluenceConfig().getReceiptPath();
+
+        if (receiptPath == null || publication != null) {
+            return new File(getReportDirectory(), "receipt.json");
+        }
+
+        return getProject().file(receiptPath);
+    }
+
+    public SwaggerConfluencePublication getPublication() {
+        return publication;
+    }
+
+    public void setPublication(final SwaggerConfluencePublication publication) {
+        this.publication = publication;
+    }
+
     @TaskAction
     public void swaggerConfluence() {
-        final AnnotationConfigApplicationContext annotationConfigApplicationContext =
-                new AnnotationConfigApplicationContext(SwaggerConfluenceContextConfig.class);
         final SwaggerToConfluenceService swaggerToConfluenceService =
-                annotationConfigApplicationContext.getBean(SwaggerToConfluenceService.class);
-        final SwaggerConfluenceConfig swaggerConfluenceConfig = getProject().getExtensions().findByType(SwaggerConfluenceConfig.class);
+                SwaggerConfluenceServices.getSwaggerToConfluenceService(getProject().getGradle());
+        // The report paths are resolved on a copy, as the main task's config is the
+        // extension itself, which other tasks and later builds still read from
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = getSwaggerConfluenceConfig().copy();
+
+        // Every build leaves a metrics report behind unless told to put it elsewhere,
+        // while each publication always keeps its own so that they do not collide
+        if (swaggerConfluenceConfig.getMetricsReportPath() == null || publication != null) {
+            swaggerConfluenceConfig.setMetricsReportPath(
+                    new File(getReportDirectory(), "metrics.json").getAbsolutePath());
+        }
+
+        if (swaggerConfluenceConfig.isDryRun() &&
+                (swaggerConfluenceConfig.getPlanPath() == null || publication != null)) {
+            swaggerConfluenceConfig.setPlanPath(new File(getReportDirectory(), "plan.json").getAbsolutePath());
+        }
+
+        swaggerConfluenceConfig.setReceiptPath(getReceiptFile().getAbsolutePath());
+
         swaggerToConfluenceService.convertSwaggerToConfluence(swaggerConfluenceConfig);
-        annotationConfigApplicationContext.close();
+    }
+
+    // A publication is published on its own, with the extension's settings
+    // filling in anything it leaves unset
+    private SwaggerConfluenceConfig getSwaggerConfluenceConfig() {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig =
+                getProject().getExtensions().findByType(SwaggerConfluenceConfig.class);
+
+        if (publication == null) {
+            return swaggerConfluenceConfig;
+        }
+
+        return swaggerConfluenceConfig.forSpec(publication);
+    }
+
+    private File getReportDirectory() {
+        final File reportDirectory = new File(getProject().getBuildDir(), "swagger-confluence");
+
+        if (publication == null) {
+            return reportDirectory;
+        }
+
+        return new File(reportDirectory, publication.getName());
+    }
+
+    private List<String> getSchemas() {
+        final SwaggerConfluenceConfig swaggerConfluenceConfig = getSwaggerConfluenceConfig();
+        final List<String> schemas = new ArrayList<>();
+
+        if (swaggerConfluenceConfig.getSpecs().isEmpty()) {
+            if (swaggerConfluenceConfig.getSwaggerSchema() != null) {
+                schemas.add(swaggerConfluenceConfig.getSwaggerSchema());
+            }
+        } else {
+            for (final SwaggerConfluenceSpec spec : swaggerConfluenceConfig.getSpecs()) {
+                if (spec.getSwaggerSchema() != null) {
+                    schemas.add(spec.getSwaggerSchema());
+                }
+            }
+        }
+
+        return schemas;
+    }
+
+    private List<String> getUntrackedSchemas() {
+        final List<String> untrackedSchemas = new ArrayList<>();
+
+        for (final String schema : getSchemas()) {
+            if (!getProject().file(schema).isFile()) {
+                untrackedSchemas.add(schema);
+            }
+        }
+
+        return untrackedSchemas;
     }
 
 }
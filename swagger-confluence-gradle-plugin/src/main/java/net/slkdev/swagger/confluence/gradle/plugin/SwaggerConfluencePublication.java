@@ -0,0 +1,34 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.gradle.plugin;
+
+import net.slkdev.swagger.confluence.config.SwaggerConfluenceSpec;
+
+// A named spec that gets a publish task of its own, swaggerConfluence<Name>,
+// so that it can be run, and be up to date, independently of the others
+public class SwaggerConfluencePublication extends SwaggerConfluenceSpec {
+
+    private final String name;
+
+    public SwaggerConfluencePublication(final String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+}
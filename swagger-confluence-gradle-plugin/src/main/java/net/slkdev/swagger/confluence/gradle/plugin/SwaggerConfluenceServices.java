@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.gradle.plugin;
+
+import net.slkdev.swagger.confluence.context.SwaggerConfluenceServiceFactory;
+import net.slkdev.swagger.confluence.service.SwaggerToConfluenceService;
+import org.gradle.BuildAdapter;
+import org.gradle.BuildResult;
+import org.gradle.api.invocation.Gradle;
+
+// One service graph, and with it one warmed Asciidoctor engine and one pooled
+// HTTP client, serves every publish task of a build. It is torn down when the
+// build finishes rather than kept for the life of the Gradle daemon, as it would
+// otherwise pin this plugin's class loader, and its JRuby runtime, once per
+// build script class loader the daemon ever creates.
+final class SwaggerConfluenceServices {
+
+    private static SwaggerConfluenceServiceFactory swaggerConfluenceServiceFactory;
+
+    private SwaggerConfluenceServices() {
+    }
+
+    static synchronized SwaggerToConfluenceService getSwaggerToConfluenceService(final Gradle gradle) {
+        if (swaggerConfluenceServiceFactory == null) {
+            final SwaggerConfluenceServiceFactory serviceFactory = new SwaggerConfluenceServiceFactory();
+
+            gradle.addBuildListener(new BuildAdapter() {
+                @Override
+                public void buildFinished(final BuildResult buildResult) {
+                    close(serviceFactory);
+                }
+            });
+
+            swaggerConfluenceServiceFactory = serviceFactory;
+        }
+
+        return swaggerConfluenceServiceFactory.getSwaggerToConfluenceService();
+    }
+
+    private static synchronized void close(final SwaggerConfluenceServiceFactory serviceFactory) {
+        if (swaggerConfluenceServiceFactory == serviceFactory) {
+            swaggerConfluenceServiceFactory = null;
+        }
+
+        serviceFactory.close();
+    }
+
+}
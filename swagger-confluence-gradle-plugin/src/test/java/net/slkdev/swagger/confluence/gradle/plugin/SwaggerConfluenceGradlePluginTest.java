@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016 Aaron Knight
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.slkdev.swagger.confluence.gradle.plugin;
+
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SwaggerConfluenceGradlePluginTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Project project;
+
+    private SwaggerConfluenceExtension swaggerConfluenceExtension;
+
+    @Before
+    public void setUp(){
+        project = ProjectBuilder.builder().withProjectDir(temporaryFolder.getRoot()).build();
+        project.getPluginManager().apply(SwaggerConfluenceGradlePlugin.class);
+
+        swaggerConfluenceExtension = project.getExtensions().getByType(SwaggerConfluenceExtension.class);
+        swaggerConfluenceExtension.setSpaceKey("DOC");
+        swaggerConfluenceExtension.setTitle("Swagger Pet Store");
+    }
+
+    @Test
+    public void testMainTaskIsCreated(){
+        final Task swaggerConfluenceTask = project.getTasks().findByName("swaggerConfluence");
+
+        assertTrue("Main Task Not Created!", swaggerConfluenceTask instanceof SwaggerConfluenceGradleTask);
+        assertNull("Main Task Should Not Have a Publication!",
+                ((SwaggerConfluenceGradleTask) swaggerConfluenceTask).getPublication());
+    }
+
+    @Test
+    public void testTaskIsCreatedPerPublication(){
+        final SwaggerConfluencePublication pets = swaggerConfluenceExtension.getPublications().create("pets");
+        final SwaggerConfluencePublication stores = swaggerConfluenceExtension.getPublications().create("stores");
+
+        final SwaggerConfluenceGradleTask petsTask =
+                (SwaggerConfluenceGradleTask) project.getTasks().findByName("swaggerConfluencePets");
+        final SwaggerConfluenceGradleTask storesTask =
+                (SwaggerConfluenceGradleTask) project.getTasks().findByName("swaggerConfluenceStores");
+
+        assertNotNull("Pets Publication Task Not Created!", petsTask);
+        assertNotNull("Stores Publication Task Not Created!", storesTask);
+        assertSame("Pets Task Has the Wrong Publication!", pets, petsTask.getPublication());
+        assertSame("Stores Task Has the Wrong Publication!", stores, storesTask.getPublication());
+    }
+
+    @Test
+    public void testMainTaskDependsOnPublicationTasks(){
+        swaggerConfluenceExtension.getPublications().create("pets");
+        swaggerConfluenceExtension.getPublications().create("stores");
+
+        final Task swaggerConfluenceTask = project.getTasks().getByName("swaggerConfluence");
+
+        assertTrue("Main Task Should Depend on the Pets Task!", swaggerConfluenceTask.getDependsOn().contains(
+                project.getTasks().getByName("swaggerConfluencePets")));
+        assertTrue("Main Task Should Depend on the Stores Task!", swaggerConfluenceTask.getDependsOn().contains(
+                project.getTasks().getByName("swaggerConfluenceStores")));
+    }
+
+    @Test
+    public void testInputsAndOutputsAreDeclared() throws IOException, NoSuchMethodException {
+        final File schemaFile = temporaryFolder.newFile("pets.yaml");
+
+        final SwaggerConfluencePublication pets = swaggerConfluenceExtension.getPublications().create("pets");
+        pets.setSwaggerSchema("pets.yaml");
+        pets.setTitle("Pets");
+
+        final SwaggerConfluenceGradleTask petsTask =
+                (SwaggerConfluenceGradleTask) project.getTasks().getByName("swaggerConfluencePets");
+
+        assertTrue("Schema Files Should Be Declared as Inputs!", SwaggerConfluenceGradleTask.class
+                .getMethod("getSwaggerSchemaFiles").isAnnotationPresent(InputFiles.class));
+        assertTrue("Publish Settings Should Be Declared as Inputs!", SwaggerConfluenceGradleTask.class
+                .getMethod("getPublishSettings").isAnnotationPresent(Input.class));
+        assertTrue("Receipt Should Be Declared as the Output!", SwaggerConfluenceGradleTask.class
+                .getMethod("getReceiptFile").isAnnotationPresent(OutputFile.class));
+
+        assertTrue("Publication Schema Not Tracked!",
+                petsTask.getSwaggerSchemaFiles().getFiles().contains(schemaFile));
+
+        final Map<String, String> publishSettings = petsTask.getPublishSettings();
+
+        assertEquals("Publication Title Not Tracked!", "Pets", publishSettings.get("title"));
+        assertEquals("Extension Space Key Not Tracked!", "DOC", publishSettings.get("spaceKey"));
+        assertEquals("Publication Receipt in the Wrong Place!",
+                new File(project.getBuildDir(), "swagger-confluence/pets/receipt.json"), petsTask.getReceiptFile());
+    }
+
+}